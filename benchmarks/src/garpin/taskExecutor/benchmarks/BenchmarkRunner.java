@@ -0,0 +1,43 @@
+package garpin.taskExecutor.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the standard JMH command line options, but writes results as JSON (to
+ * 'jmh-result.json' unless '-rff' is given) when no result format is specified, so runs can be compared across releases
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks selected by the given JMH command line options
+     *
+     * @param args - JMH command line options (e.g., "-h" for help, or a benchmark name pattern)
+     * @throws Exception - if the options are invalid or a benchmark fails to run
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+
+        if (commandLine.shouldList() || commandLine.shouldListWithParams() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
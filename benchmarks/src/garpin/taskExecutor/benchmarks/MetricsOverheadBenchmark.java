@@ -0,0 +1,105 @@
+package garpin.taskExecutor.benchmarks;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskExecutor;
+import garpin.taskExecutor.controllers.TaskMetrics;
+import garpin.taskExecutor.storage.TaskHistoryRing;
+import garpin.taskExecutor.storage.TaskQueue;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-Task cost of executor metrics: a worker executes an already dequeued Task, with TaskMetrics recording enabled or
+ * disabled. The no-op Task isolates the bookkeeping (the worst case for relative overhead); the small Fibonacci Task
+ * shows it next to real work. Several threads share one executor, as workers do, so contention on the shared counters
+ * and histograms is included. On a machine with fewer than four CPUs, run it with '-t 1': time-slicing the threads
+ * otherwise dominates the result
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private BenchmarkExecutor executor;
+
+    @Setup
+    public void createExecutor() {
+        executor = new BenchmarkExecutor();
+
+        if (metrics) {
+            executor.setTaskMetrics(new TaskMetrics());
+        }
+    }
+
+    @Benchmark
+    public Task noopTask() {
+        NoopTask task = new NoopTask();
+        task.setCreator("benchmark");
+
+        executor.executeTask(task);
+
+        return task;
+    }
+
+    @Benchmark
+    public Task fibonacciTask() {
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("benchmark");
+        task.setFibonacciIndex(20);
+        task.setResultCache(null);
+
+        executor.executeTask(task);
+
+        return task;
+    }
+
+    /**
+     * Exposes the executor's per-Task execution path, which workers call after dequeuing a Task
+     */
+    static class BenchmarkExecutor extends TaskExecutor {
+
+        BenchmarkExecutor() {
+            super(new TaskQueue(), new TaskHistoryRing(1024));
+        }
+
+        @Override
+        protected void executeTask(Task task) {
+            super.executeTask(task);
+        }
+    }
+
+    /**
+     * Task that does no work, so that only the executor's bookkeeping is measured
+     */
+    static class NoopTask extends Task {
+
+        @Override
+        protected void runTask() {
+        }
+
+        @Override
+        public String getTaskType() {
+            return "Noop";
+        }
+    }
+}
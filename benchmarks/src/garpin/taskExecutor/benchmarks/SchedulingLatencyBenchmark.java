@@ -0,0 +1,61 @@
+package garpin.taskExecutor.benchmarks;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskController;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency from TaskController.scheduleTask() until the Task is COMPLETED, through the real worker pool.
+ * Each fork starts the (singleton) controller's executor once. The result cache is disabled so every Task computes
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchedulingLatencyBenchmark {
+
+    @Param({"10", "10000"})
+    public int fibonacciIndex;
+
+    @Setup(Level.Trial)
+    public void startExecutor() throws Exception {
+        TaskController.getInstance().startExecutorProcess();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopExecutor() {
+        TaskController.getInstance().shutdownExecutorProcess();
+    }
+
+    @Benchmark
+    public Task scheduleToCompleted() throws Exception {
+        FibonacciTask task = new FibonacciTask();
+        task.setFibonacciIndex(fibonacciIndex);
+        task.setResultCache(null);
+
+        Task finished = TaskController.getInstance().scheduleTask(task).get();
+
+        if (finished.getState() != Task.TaskState.COMPLETED) {
+            throw new IllegalStateException(finished.getResults());
+        }
+
+        return task;
+    }
+}
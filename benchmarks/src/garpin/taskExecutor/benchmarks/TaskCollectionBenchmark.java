@@ -0,0 +1,103 @@
+package garpin.taskExecutor.benchmarks;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCollection;
+import garpin.taskExecutor.storage.ConcurrentTaskQueue;
+import garpin.taskExecutor.storage.PriorityTaskQueue;
+import garpin.taskExecutor.storage.TaskQueue;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Add/remove throughput of the pending TaskCollection implementations under contention: producers and consumers
+ * hammering the same collection ("contended" group), every thread adding then removing ("addRemove"), and the same
+ * using the batch APIs ("addRemoveBatch", one operation per batch of BATCH_SIZE tasks)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class TaskCollectionBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+
+    @Param({"TaskQueue", "ConcurrentTaskQueue", "PriorityTaskQueue"})
+    public String collectionType;
+
+    private final Task task = new FibonacciTask();
+    private final List<Task> batch = Collections.nCopies(BATCH_SIZE, task);
+    private TaskCollection collection;
+
+    @Setup(Level.Iteration)
+    public void createCollection() {
+        switch (collectionType) {
+            case "TaskQueue": {
+                collection = new TaskQueue();
+                break;
+            }
+            case "ConcurrentTaskQueue": {
+                collection = new ConcurrentTaskQueue();
+                break;
+            }
+            default: {
+                collection = new PriorityTaskQueue();
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public void produce() {
+        collection.addTask(task);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public Task consume() {
+        return collection.removeTask();
+    }
+
+    @Benchmark
+    @Group("addRemove")
+    @GroupThreads(8)
+    public Task addRemove() {
+        collection.addTask(task);
+        return collection.removeTask();
+    }
+
+    @Benchmark
+    @Group("addRemoveBatch")
+    @GroupThreads(8)
+    public List<Task> addRemoveBatch() {
+        List<Task> removed = new ArrayList<>(BATCH_SIZE);
+
+        collection.addTasks(batch);
+        collection.removeTasks(removed, BATCH_SIZE);
+
+        return removed;
+    }
+}
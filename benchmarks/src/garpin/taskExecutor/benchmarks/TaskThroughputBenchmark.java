@@ -0,0 +1,62 @@
+package garpin.taskExecutor.benchmarks;
+
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of running a single Fibonacci or Factorial Task (including rendering its result) across argument sizes, with
+ * and without parallel subtasks. The result cache is disabled so every run computes from scratch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskThroughputBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int argument;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Benchmark
+    public String fibonacci() {
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("benchmark");
+        task.setFibonacciIndex(argument);
+        task.setResultCache(null);
+        task.setForkJoinPool(parallel ? ForkJoinPool.commonPool() : null);
+
+        task.startTask();
+
+        return task.getResults();
+    }
+
+    @Benchmark
+    public String factorial() {
+        FactorialTask task = new FactorialTask();
+        task.setCreator("benchmark");
+        task.setFactorialBase(argument);
+        task.setResultCache(null);
+        task.setForkJoinPool(parallel ? ForkJoinPool.commonPool() : null);
+
+        task.startTask();
+
+        return task.getResults();
+    }
+}
@@ -0,0 +1,61 @@
+package garpin.taskExecutor.controllers;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A piece of a Task's work that may be forked onto the Task's ForkJoinPool (see Task.getForkJoinPool()). Before doing
+ * any work, every subtask checks whether its owning Task has been marked for cancellation, so a CANCELLING state
+ * reaches all forked pieces. A cancelled piece completes with a CancellationException, which is rethrown to whoever
+ * joins it and ultimately allows the owning Task to be marked as 'CANCELLED'
+ *
+ * @param <V> - type of the subtask's result
+ */
+public abstract class CancellableSubtask<V> extends RecursiveTask<V> {
+
+    // RecursiveTask is Serializable, although subtasks are never serialized
+    private static final long serialVersionUID = 1L;
+
+    private final Task owner;
+
+    /**
+     * Constructor - associates this subtask with the Task whose work it performs
+     *
+     * @param owner - the Task this subtask belongs to
+     */
+    protected CancellableSubtask(Task owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Checks for cancellation of the owning Task, then defers to 'computeSubtask()'
+     *
+     * @return - the result of this subtask
+     * @throws CancellationException - if the owning Task has been marked for cancellation
+     */
+    @Override
+    protected final V compute() throws CancellationException {
+        owner.checkCancellation();
+
+        return computeSubtask();
+    }
+
+    /**
+     * Placeholder method to perform this piece of work. Implementations may fork further subtasks and should call
+     * 'checkCancellation()' periodically if the work is long running
+     *
+     * @return - the result of this subtask
+     * @throws CancellationException - if the owning Task has been marked for cancellation
+     */
+    protected abstract V computeSubtask() throws CancellationException;
+
+    /**
+     * Throws a CancellationException if the owning Task has been marked for cancellation
+     *
+     * @throws CancellationException - if the owning Task's state is CANCELLING
+     */
+    protected void checkCancellation() throws CancellationException {
+        owner.checkCancellation();
+    }
+}
@@ -0,0 +1,44 @@
+package garpin.taskExecutor.controllers;
+
+/**
+ * Read-only view of a finished Task, as returned by completed-task queries. Implemented by Task itself and by records
+ * that outlive their Task (e.g., rows in a TaskArchive), so that callers can render either without knowing where the
+ * record is stored
+ */
+public interface CompletedTask {
+
+    /**
+     * Returns the Task's unique id
+     *
+     * @return - the Task's id
+     */
+    long getId();
+
+    /**
+     * Returns the Task's type
+     *
+     * @return - a user-readable String representing the task type
+     */
+    String getTaskType();
+
+    /**
+     * Returns the name of the user who created the Task
+     *
+     * @return - the creator
+     */
+    String getCreator();
+
+    /**
+     * Returns the Task's state
+     *
+     * @return - the current TaskState
+     */
+    Task.TaskState getState();
+
+    /**
+     * Returns the Task's results
+     *
+     * @return - String representation of the Task's output
+     */
+    String getResults();
+}
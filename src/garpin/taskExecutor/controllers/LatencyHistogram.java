@@ -0,0 +1,194 @@
+package garpin.taskExecutor.controllers;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent histogram of non-negative durations (e.g., nanoseconds), in the style of HdrHistogram: each power of two
+ * is split into 32 linear sub-buckets, so any recorded value is reported within about 3% of its true value while each
+ * stripe of the histogram stays a fixed ~15KB regardless of the range or number of values recorded.
+ * Recording is lock-free and allocation-free (after a thread's first value). Threads record into separate stripes,
+ * chosen by thread id and created on first use, so concurrent workers rarely write the same cache lines; reads merge
+ * the stripes. The count is derived from the buckets, and a stripe's maximum is only written when it grows
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    // Each stripe holds its bucket counts followed by the sum and the maximum of its values
+    private static final int SUM_INDEX = BUCKET_COUNT;
+    private static final int MAX_INDEX = BUCKET_COUNT + 1;
+
+    // Power of two, so that a thread's stripe is selected with a mask
+    private static final int STRIPE_COUNT =
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+    /**
+     * Records a single value. Negative values are recorded as 0
+     *
+     * @param value - the value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        AtomicLongArray stripe = getStripe();
+
+        stripe.incrementAndGet(bucketIndex(value));
+        stripe.addAndGet(SUM_INDEX, value);
+
+        long max = stripe.get(MAX_INDEX);
+        while (value > max && !stripe.compareAndSet(MAX_INDEX, max, value)) {
+            max = stripe.get(MAX_INDEX);
+        }
+    }
+
+    /**
+     * Returns the number of recorded values
+     *
+     * @return - count of recorded values
+     */
+    public long getCount() {
+        long count = 0;
+
+        for (int i = 0; i < STRIPE_COUNT; ++i) {
+            AtomicLongArray stripe = stripes.get(i);
+
+            if (stripe != null) {
+                for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+                    count += stripe.get(bucket);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the exact mean of the recorded values, or 0 if none have been recorded
+     *
+     * @return - mean recorded value
+     */
+    public double getMean() {
+        long count = getCount();
+        return (count == 0) ? 0 : (double) sumStripes(SUM_INDEX) / count;
+    }
+
+    /**
+     * Returns the exact largest recorded value, or 0 if none have been recorded
+     *
+     * @return - maximum recorded value
+     */
+    public long getMax() {
+        long max = 0;
+
+        for (int i = 0; i < STRIPE_COUNT; ++i) {
+            AtomicLongArray stripe = stripes.get(i);
+
+            if (stripe != null) {
+                max = Math.max(max, stripe.get(MAX_INDEX));
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Returns the value at the given percentile, i.e., a value at least as large as that fraction of the recorded values
+     * (to within the histogram's precision). Values recorded concurrently may or may not be included
+     *
+     * @param percentile - the percentile (0 - 100)
+     * @return - value at the percentile, or 0 if no values have been recorded
+     */
+    public long getPercentile(double percentile) {
+        long counts[] = new long[BUCKET_COUNT];
+        long total = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts[i] = sumStripes(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100.0));
+        long seen = 0;
+        long max = getMax();
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += counts[i];
+
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Returns the calling thread's stripe, creating it if this is the first value recorded in it
+     *
+     * @return - the stripe to record into
+     */
+    private AtomicLongArray getStripe() {
+        int index = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+        AtomicLongArray stripe = stripes.get(index);
+
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKET_COUNT + 2));
+            stripe = stripes.get(index);
+        }
+
+        return stripe;
+    }
+
+    /**
+     * Sums one slot across every stripe
+     *
+     * @param index - bucket (or SUM_INDEX) to sum
+     * @return - the total
+     */
+    private long sumStripes(int index) {
+        long sum = 0;
+
+        for (int i = 0; i < STRIPE_COUNT; ++i) {
+            AtomicLongArray stripe = stripes.get(i);
+
+            if (stripe != null) {
+                sum += stripe.get(index);
+            }
+        }
+
+        return sum;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,19 @@
+package garpin.taskExecutor.controllers;
+
+/**
+ * Signals that the current user (see 'TaskController.setUser()') is not allowed to perform the requested activity, so
+ * that front ends can tell it apart from invalid input (e.g., HTTP 403 rather than 400)
+ */
+public class PermissionDeniedException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor
+     *
+     * @param message - description of the missing permission
+     */
+    public PermissionDeniedException(String message) {
+        super(message);
+    }
+}
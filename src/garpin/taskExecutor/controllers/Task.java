@@ -1,17 +1,55 @@
 package garpin.taskExecutor.controllers;
 
 import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
+import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Abstract work item to be performed by the system. Generic management occurs in this class. Implementing tasks are
  * responsible for tracking their own arguments and implementations.
  */
-public abstract class Task {
+public abstract class Task implements CompletedTask {
 
-    private TaskState state = TaskState.PENDING;
+    private static final AtomicLong nextId = new AtomicLong(1);
+
+    private final long id = nextId.getAndIncrement();
+
+    // Volatile so that the frequent cancellation checks made by running Tasks are plain reads; transitions are still
+    // made under this Task's monitor so that listeners observe each one exactly once, in the order they were made
+    private volatile TaskState state = TaskState.PENDING;
     private String creator = "";
-    private String results = "";
+    private TaskResult result = TaskResult.EMPTY;
+    private TaskPriority priority = TaskPriority.NORMAL;
+    private long deadline = 0;
+    private ForkJoinPool forkJoinPool = null;
+    private volatile long scheduledNanoTime = 0;
+
+    // Written only by the running Task and sampled by any thread; plain volatile accesses, no locking
+    private volatile double progress = 0;
+    private volatile String partialResult = null;
+
+    // Set by TaskCoalescer when this record is cancelled while other Tasks still share its execution: the work runs on,
+    // and its outcome is kept here for them while this record itself finishes CANCELLED
+    private volatile boolean recordCancelled = false;
+    private volatile TaskState executionOutcome = null;
+    private volatile TaskResult executionResult = null;
+
+    // Created on first use, since most Tasks have neither listeners nor a completion handle
+    private volatile CopyOnWriteArrayList<TaskStateListener> stateListeners = null;
+    private CompletableFuture<Task> completion = null;
+
+    // Transitions not yet delivered to listeners, in the order they were made, and whether a thread is delivering them.
+    // Guarded by this Task's monitor; listeners themselves are called outside it (see 'deliverTransitions()')
+    private ArrayDeque<Transition> undelivered = null;
+    private boolean delivering = false;
+
+    // Number of state transitions made so far, numbering each transition for listeners. Guarded by this Task's monitor
+    private long transitionCount = 0;
 
     public enum TaskState {
         PENDING,
@@ -22,35 +60,140 @@ public abstract class Task {
         ERROR
     }
 
+    public enum TaskPriority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
     /**
      * Executes the task. Invokes task validation, state management and exception-case results storage, but defers
      * to abstract 'runTask()' method to perform the actual task duties
      */
     public void startTask() {
-        setState(TaskState.RUNNING);
+        if (!compareAndSetState(TaskState.PENDING, TaskState.RUNNING, null)) {
+
+            // Cancelled before it started: finalize it now without running. Otherwise it has already finished or is
+            // already running (e.g., started twice), and must not run again
+            compareAndSetState(TaskState.CANCELLING, TaskState.CANCELLED, "Task cancelled before completion");
+            return;
+        }
 
         try {
             validateTask();
 
             runTask();
 
-            setState(TaskState.COMPLETED);
+            finishExecution(TaskState.COMPLETED);
 
         } catch (CancellationException cancEx) {
 
-            setState(TaskState.CANCELLED);
+            // Results are set before the terminal state so that listeners and completion handles observe them
             setResults("Task cancelled before completion");
+            setState(TaskState.CANCELLED);
 
         } catch (Exception ex) {
 
-            setState(TaskState.ERROR);
+            // E.g., an InterruptedException delivered because the Task was cancelled
+            if (getState() == TaskState.CANCELLING) {
+                setResults("Task cancelled before completion");
+                setState(TaskState.CANCELLED);
+                return;
+            }
+
             setResults("Error executing task: " + ex.getMessage());
+            finishExecution(TaskState.ERROR);
+        }
+    }
+
+    /**
+     * Makes this Task's single terminal transition once its work has finished. If the record was cancelled while
+     * sharing its execution (see 'cancelRecord()'), the outcome is kept for the sharing Tasks and the record is marked
+     * CANCELLED instead
+     *
+     * @param outcome - the state the work finished in (COMPLETED or ERROR)
+     */
+    private void finishExecution(TaskState outcome) {
+        if (recordCancelled) {
+            executionResult = getResult();
+            executionOutcome = outcome;
+
+            setResults("Task cancelled before completion");
+            setState(TaskState.CANCELLED);
+            return;
+        }
+
+        setState(outcome);
+    }
+
+    /**
+     * Marks a Task that never started as failed (e.g., because the execution it was sharing could not be queued)
+     *
+     * @param reason - description of the failure, stored as the Task's results
+     */
+    void failScheduling(String reason) {
+        compareAndSetState(TaskState.PENDING, TaskState.ERROR, reason);
+    }
+
+    /**
+     * Marks this Task's record as cancelled without stopping its work, which other Tasks still share. Once the work
+     * finishes, the record is marked CANCELLED rather than taking the work's outcome (see 'getExecutionOutcome()')
+     */
+    void cancelRecord() {
+        recordCancelled = true;
+    }
+
+    /**
+     * Returns the state this Task's work finished in, which differs from 'getState()' only if the record was cancelled
+     * while the work was shared
+     *
+     * @return - the outcome of the work
+     */
+    TaskState getExecutionOutcome() {
+        TaskState outcome = executionOutcome;
+
+        return (outcome == null) ? getState() : outcome;
+    }
+
+    /**
+     * Returns the output of this Task's work, which differs from 'getResult()' only if the record was cancelled while
+     * the work was shared
+     *
+     * @return - the output of the work
+     */
+    TaskResult getExecutionResult() {
+        TaskResult output = executionResult;
+
+        return (output == null) ? getResult() : output;
+    }
+
+    /**
+     * Requests cancellation of this Task. A PENDING Task is immediately marked CANCELLED (and will be skipped, rather
+     * than run, when it is dequeued); a RUNNING Task is marked CANCELLING, giving it permission to abort early
+     *
+     * @return - whether the Task was PENDING or RUNNING (i.e., whether there was anything to cancel)
+     */
+    public boolean requestCancel() {
+        if (compareAndSetState(TaskState.PENDING, TaskState.CANCELLED, "Task cancelled before completion")) {
+            return true;
         }
+
+        return compareAndSetState(TaskState.RUNNING, TaskState.CANCELLING, null);
+    }
+
+    /**
+     * Returns the identifier of this Task, unique among Tasks created by this process
+     *
+     * @return - the Task's id
+     */
+    public long getId() {
+        return id;
     }
 
     /**
      * Placeholder method to perform task execution.
-     * Subclasses are responsible for setting results in non-exception cases (via 'setResults()' method)
+     * Subclasses are responsible for setting results in non-exception cases (preferably via 'setResult()' with the
+     * output in its native form, so that it is only rendered as a String if viewed)
      * Subclasses may throw any type of Exception to fail a task.
      * Subclasses may throw a CancellationException in order to prematurely abort a task (e.g., when state has been set
      * to 'CANCELLING').
@@ -61,12 +204,54 @@ public abstract class Task {
      */
     protected abstract void runTask() throws Exception;
 
+    /**
+     * Throws a CancellationException if this Task has been marked for cancellation. Intended to be called periodically
+     * by runTask() implementations, including from any subtasks they fork
+     *
+     * @throws CancellationException - if the Task's state is CANCELLING
+     */
+    protected void checkCancellation() throws CancellationException {
+        if (getState() == TaskState.CANCELLING) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Returns the pool that runTask() implementations may use to split work into parallel subtasks (see
+     * CancellableSubtask). Null indicates that the Task should run entirely on the calling thread
+     *
+     * @return - ForkJoinPool for parallel subtasks, or null
+     */
+    protected ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Sets the pool that runTask() implementations may use to split work into parallel subtasks
+     *
+     * @param pool - ForkJoinPool for parallel subtasks, or null to run sequentially
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        forkJoinPool = pool;
+    }
+
     /**
      * Returns a String indicating the Task's type for output to users
      *
      * @return - a user-readable String representing the task type
      */
-    protected abstract String getTaskType();
+    public abstract String getTaskType();
+
+    /**
+     * Returns a key identifying the computation this Task performs, such that two Tasks with equal keys produce
+     * identical results and may share a single execution (see TaskCoalescer). Returns null by default, meaning the Task
+     * is never shared. Subclasses with deterministic, argument-driven results should override this
+     *
+     * @return - a String identifying this Task's computation, or null if it must not be shared
+     */
+    protected String getCoalescingKey() {
+        return null;
+    }
 
     /**
      * Verifies that all member fields are correctly populated in the Task and throws an exception if they are not
@@ -82,12 +267,12 @@ public abstract class Task {
 
     /**
      * Returns a String representing the output of the Task execution. In error conditions, this may provide
-     * more information about the failure mode
+     * more information about the failure mode. Typed output is rendered on the first call (see TaskResult)
      *
      * @return - String representation of Task output
      */
     public String getResults() {
-        return results;
+        return getResult().toString();
     }
 
     /**
@@ -96,7 +281,63 @@ public abstract class Task {
      * @param value - String indicating the Task's output
      */
     protected void setResults(String value) {
-        results = value;
+        setResult(new TaskResult(value));
+    }
+
+    /**
+     * Returns the output of the Task execution in its native form (e.g., a BigInteger), without rendering it
+     *
+     * @return - the Task's TaskResult
+     */
+    public TaskResult getResult() {
+        return result;
+    }
+
+    /**
+     * Sets the output of the executed Task
+     *
+     * @param value - the Task's output, or null for an empty result
+     */
+    protected void setResult(TaskResult value) {
+        result = (value == null) ? TaskResult.EMPTY : value;
+    }
+
+    /**
+     * Returns an estimate of how much of the Task's work is done, as reported by its implementation. Sampling this
+     * never blocks the running Task
+     *
+     * @return - fraction of work done (0 - 1); 1 once the Task has COMPLETED
+     */
+    public double getProgress() {
+        return getState() == TaskState.COMPLETED ? 1 : progress;
+    }
+
+    /**
+     * Reports how much of the Task's work is done. Intended to be called periodically by runTask() implementations
+     * (including from subtasks); it is a single volatile write, so it is cheap enough to call often
+     *
+     * @param fraction - fraction of work done (clamped to 0 - 1)
+     */
+    protected void setProgress(double fraction) {
+        progress = Math.max(0, Math.min(1, fraction));
+    }
+
+    /**
+     * Returns a description of the running Task's intermediate result, if its implementation reports one
+     *
+     * @return - the partial result, or null if none has been reported
+     */
+    public String getPartialResult() {
+        return partialResult;
+    }
+
+    /**
+     * Reports a description of the running Task's intermediate result (see 'setProgress()')
+     *
+     * @param value - the partial result, or null to clear it
+     */
+    protected void setPartialResult(String value) {
+        partialResult = value;
     }
 
     /**
@@ -104,18 +345,226 @@ public abstract class Task {
      *
      * @return the current state of the task
      */
-    public synchronized TaskState getState() {
+    public TaskState getState() {
         return state;
     }
 
     /**
      * Sets the current state of the task (PENDING, RUNNING, CANCELLING, etc.)
-     * Setting the state to CANCELLING provides subclasses permission to prematurely abort Task execution
+     * Setting the state to CANCELLING provides subclasses permission to prematurely abort Task execution.
+     * Notifies any state listeners (outside of this Task's monitor, but in the order transitions were made) and, on
+     * reaching a terminal state, completes the Task's completion handle
      *
      * @param newState - the desired TaskState for this task
      */
-    public synchronized void setState(TaskState newState) {
-        state = newState;
+    public void setState(TaskState newState) {
+        boolean queued;
+
+        synchronized (this) {
+            TaskState previousState = state;
+            state = newState;
+            queued = queueTransition(previousState, newState);
+        }
+
+        if (queued) {
+            deliverTransitions();
+        }
+    }
+
+    /**
+     * Atomically sets the state (and optionally the results) of the task, but only if it is currently in the expected
+     * state. Notifies listeners as 'setState()' does
+     *
+     * @param expectedState - the state the Task must be in
+     * @param newState      - the desired TaskState for this task
+     * @param newResults    - results to set along with the state, or null to leave them unchanged
+     * @return - whether the Task was in the expected state (and so was updated)
+     */
+    protected boolean compareAndSetState(TaskState expectedState, TaskState newState, String newResults) {
+        boolean queued;
+
+        synchronized (this) {
+            if (state != expectedState) {
+                return false;
+            }
+
+            if (newResults != null) {
+                setResults(newResults);
+            }
+
+            state = newState;
+            queued = queueTransition(expectedState, newState);
+        }
+
+        if (queued) {
+            deliverTransitions();
+        }
+
+        return true;
+    }
+
+    /**
+     * Queues a transition for delivery to listeners, unless it changes nothing or there is nobody to notify. Must be
+     * called under this Task's monitor, in the same section that made the transition
+     *
+     * @param previousState - the state before the transition
+     * @param newState      - the state after the transition
+     * @return - whether the transition was queued (so 'deliverTransitions()' must be called)
+     */
+    private boolean queueTransition(TaskState previousState, TaskState newState) {
+        if (previousState == newState) {
+            return false;
+        }
+
+        long sequence = ++transitionCount;
+
+        if (stateListeners == null && completion == null) {
+            return false;
+        }
+
+        if (undelivered == null) {
+            undelivered = new ArrayDeque<>();
+        }
+
+        undelivered.add(new Transition(previousState, newState, sequence, completion));
+        return true;
+    }
+
+    /**
+     * Delivers queued transitions in the order they were made. Only one thread delivers at a time: a thread making a
+     * transition while another is delivering leaves its transition to that thread, so listeners never observe a Task's
+     * transitions out of order (and a listener that itself changes the Task's state sees that change delivered after
+     * it returns)
+     */
+    private void deliverTransitions() {
+        synchronized (this) {
+            if (delivering) {
+                return;
+            }
+
+            delivering = true;
+        }
+
+        boolean finished = false;
+
+        try {
+            while (true) {
+                Transition transition;
+
+                synchronized (this) {
+                    transition = undelivered.poll();
+
+                    if (transition == null) {
+                        delivering = false;
+                        finished = true;
+                        return;
+                    }
+                }
+
+                notifyTransition(transition.previousState, transition.newState, transition.sequence,
+                        transition.future);
+            }
+
+        } finally {
+            if (!finished) {
+                synchronized (this) {
+                    delivering = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Notifies state listeners of a transition and, on reaching a terminal state, completes the completion handle
+     *
+     * @param previousState - the state before the transition
+     * @param newState      - the state after the transition
+     * @param sequence      - the transition's number among this Task's transitions
+     * @param future        - the completion handle, or null if none had been requested at the time of the transition
+     */
+    private void notifyTransition(TaskState previousState, TaskState newState, long sequence,
+                                  CompletableFuture<Task> future) {
+        List<TaskStateListener> listeners = stateListeners;
+        if (listeners != null) {
+            for (TaskStateListener listener : listeners) {
+                try {
+                    listener.stateChanged(this, previousState, newState, sequence);
+                } catch (RuntimeException ignored) {
+                    // A misbehaving listener must not disrupt Task execution
+                }
+            }
+        }
+
+        if (future != null && isTerminal(newState)) {
+            future.complete(this);
+        }
+    }
+
+    /**
+     * Returns whether the given state is final, i.e., the Task has finished executing (successfully or not)
+     *
+     * @param taskState - the state to check
+     * @return - whether the state is COMPLETED, CANCELLED or ERROR
+     */
+    public static boolean isTerminal(TaskState taskState) {
+        return taskState == TaskState.COMPLETED || taskState == TaskState.CANCELLED || taskState == TaskState.ERROR;
+    }
+
+    /**
+     * Returns a handle that completes (with this Task) once the Task reaches a terminal state: COMPLETED, CANCELLED or
+     * ERROR. Completes immediately if the Task has already finished. Dependent actions run on the thread making the
+     * final transition unless an asynchronous variant (e.g., 'thenAcceptAsync()') is used
+     *
+     * @return - CompletableFuture completing with this Task when it finishes
+     */
+    public CompletableFuture<Task> getCompletion() {
+        CompletableFuture<Task> future;
+        boolean finished;
+
+        synchronized (this) {
+            if (completion == null) {
+                completion = new CompletableFuture<>();
+            }
+
+            future = completion;
+            finished = isTerminal(state);
+        }
+
+        if (finished) {
+            future.complete(this);
+        }
+
+        return future;
+    }
+
+    /**
+     * Registers a listener to be notified of this Task's subsequent state transitions
+     *
+     * @param listener - the listener to add
+     */
+    public void addStateListener(TaskStateListener listener) {
+        if (stateListeners == null) {
+            synchronized (this) {
+                if (stateListeners == null) {
+                    stateListeners = new CopyOnWriteArrayList<>();
+                }
+            }
+        }
+
+        stateListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously added with 'addStateListener()'
+     *
+     * @param listener - the listener to remove
+     */
+    public void removeStateListener(TaskStateListener listener) {
+        List<TaskStateListener> listeners = stateListeners;
+
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
     }
 
     /**
@@ -142,6 +591,66 @@ public abstract class Task {
         creator = newUser;
     }
 
+    /**
+     * Returns the scheduling priority of this Task. Collections that support prioritization serve HIGH priority Tasks
+     * before NORMAL and LOW ones
+     *
+     * @return - the Task's priority (NORMAL unless otherwise set)
+     */
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the scheduling priority of this Task
+     *
+     * @param newPriority - the desired priority (null resets to NORMAL)
+     */
+    public void setPriority(TaskPriority newPriority) {
+        if (newPriority == null) {
+            newPriority = TaskPriority.NORMAL;
+        }
+
+        priority = newPriority;
+    }
+
+    /**
+     * Returns the time (in epoch milliseconds) by which this Task should be started, or 0 if it has no deadline
+     *
+     * @return - the Task's deadline in epoch milliseconds, or 0
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the time (in epoch milliseconds) by which this Task should be started. Collections that support
+     * prioritization may promote a Task as its deadline approaches
+     *
+     * @param epochMilliseconds - the deadline in epoch milliseconds, or 0 for no deadline
+     */
+    public void setDeadline(long epochMilliseconds) {
+        deadline = epochMilliseconds;
+    }
+
+    /**
+     * Returns when (from 'System.nanoTime()') this Task was scheduled, or 0 if it was not scheduled in this process
+     *
+     * @return - the scheduling time in nanoseconds, or 0
+     */
+    long getScheduledNanoTime() {
+        return scheduledNanoTime;
+    }
+
+    /**
+     * Records when (from 'System.nanoTime()') this Task was scheduled, for measuring how long it waits to start
+     *
+     * @param nanoTime - the scheduling time in nanoseconds
+     */
+    void setScheduledNanoTime(long nanoTime) {
+        scheduledNanoTime = nanoTime;
+    }
+
     /**
      * Creates a user-readable String representation of this Task
      * (Note that a more complete implementation would likely want to separate the output format from this class as
@@ -151,11 +660,40 @@ public abstract class Task {
      */
     @Override
     public String toString() {
-        return (new StringBuilder())
+        TaskState currentState = getState();
+        StringBuilder output = new StringBuilder()
+                .append("Id: ").append(getId()).append("\n")
                 .append("Type: ").append(getTaskType()).append("\n")
-                .append("User: ").append(creator).append("\n")
-                .append("State: ").append(state).append("\n")
-                .append("Result: ").append(results).append("\n")
-                .toString();
+                .append("User: ").append(getCreator()).append("\n")
+                .append("State: ").append(currentState).append("\n");
+
+        // Progress is only of interest while the Task is running
+        if (currentState == TaskState.RUNNING || currentState == TaskState.CANCELLING) {
+            output.append("Progress: ").append((int) (getProgress() * 100)).append("%\n");
+
+            String partial = getPartialResult();
+            if (partial != null) {
+                output.append("Partial result: ").append(partial).append("\n");
+            }
+        }
+
+        return output.append("Result: ").append(getResults()).append("\n").toString();
+    }
+
+    /**
+     * A state transition awaiting delivery to listeners
+     */
+    private static class Transition {
+        final TaskState previousState;
+        final TaskState newState;
+        final long sequence;
+        final CompletableFuture<Task> future;
+
+        Transition(TaskState previousState, TaskState newState, long sequence, CompletableFuture<Task> future) {
+            this.previousState = previousState;
+            this.newState = newState;
+            this.sequence = sequence;
+            this.future = future;
+        }
     }
 }
@@ -0,0 +1,221 @@
+package garpin.taskExecutor.controllers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Deduplicates identical in-flight Tasks ("single flight"). The first Task scheduled for a given computation (see
+ * Task.getCoalescingKey()) becomes the primary and is queued and executed as normal. Identical Tasks scheduled while the
+ * primary is pending or running become followers: they are not queued, but keep their own Task record and creator and
+ * receive the primary's results when it finishes.
+ * Cancellation is tracked per record. The shared work is only marked for cancellation once every Task interested in it
+ * has requested cancellation; until then, cancelled records are simply marked CANCELLED when the work finishes (a
+ * cancelled primary settles as CANCELLED directly, never passing through COMPLETED)
+ */
+public class TaskCoalescer {
+
+    private final HashMap<String, Group> groups = new HashMap<>();
+
+    /**
+     * Registers a newly scheduled Task. If an identical Task is already pending or running, the new Task joins it as
+     * a follower and must not be queued
+     *
+     * @param task - the Task being scheduled
+     * @return - true if the Task joined an existing execution (do not queue it), false if it should be queued
+     */
+    public synchronized boolean join(Task task) {
+        String key = task.getCoalescingKey();
+
+        if (key == null) {
+            return false;
+        }
+
+        Group group = groups.get(key);
+
+        if (group == null) {
+            groups.put(key, new Group(task));
+            return false;
+        }
+
+        // A cancelled execution will not produce results to share; the new Task runs independently (ungrouped)
+        Task.TaskState primaryState = group.primary.getState();
+        if (primaryState == Task.TaskState.CANCELLING || primaryState == Task.TaskState.CANCELLED) {
+            return false;
+        }
+
+        group.followers.add(task);
+
+        if (group.primary.getState() == Task.TaskState.RUNNING) {
+            task.setState(Task.TaskState.RUNNING);
+        }
+
+        return true;
+    }
+
+    /**
+     * Notifies the coalescer that a primary Task is about to start executing, so that its followers show as RUNNING
+     *
+     * @param primary - the Task about to execute
+     */
+    public synchronized void started(Task primary) {
+        Group group = findGroup(primary);
+
+        if (group == null || group.primary != primary) {
+            return;
+        }
+
+        for (Task follower : group.followers) {
+            if (follower.getState() == Task.TaskState.PENDING) {
+                follower.setState(Task.TaskState.RUNNING);
+            }
+        }
+    }
+
+    /**
+     * Notifies the coalescer that a primary Task has finished executing. Copies the outcome of its work to each follower
+     * (or marks it CANCELLED if it requested cancellation) and returns the followers so that they may be recorded as completed
+     *
+     * @param primary - the Task that finished executing
+     * @return - the followers that shared the primary's execution (may be empty)
+     */
+    public List<Task> completed(Task primary) {
+        Group group;
+
+        synchronized (this) {
+            group = findGroup(primary);
+
+            if (group == null || group.primary != primary) {
+                return new ArrayList<>();
+            }
+
+            groups.remove(primary.getCoalescingKey());
+        }
+
+        // The primary's own record has already settled (CANCELLED if it asked to be), but followers take the outcome of
+        // the work itself
+        Task.TaskState outcome = primary.getExecutionOutcome();
+        TaskResult result = primary.getExecutionResult();
+
+        for (Task follower : group.followers) {
+            if (group.cancelled.contains(follower)) {
+                markCancelled(follower);
+            } else {
+                follower.setResult(result);
+                follower.setState(outcome);
+            }
+        }
+
+        return group.followers;
+    }
+
+    /**
+     * Requests cancellation of a single Task record. If the Task shares its execution with other Tasks that have not
+     * been cancelled, only this record is affected; the shared work is cancelled once every member has asked (see
+     * 'Task.requestCancel()': pending work is marked CANCELLED and skipped, running work is marked CANCELLING)
+     *
+     * @param task - the Task to cancel
+     */
+    public synchronized void requestCancel(Task task) {
+        Group group = findGroup(task);
+
+        if (group == null) {
+            task.requestCancel();
+            return;
+        }
+
+        group.cancelled.add(task);
+
+        if (task != group.primary) {
+            task.requestCancel();
+        } else {
+            task.cancelRecord();
+        }
+
+        if (group.cancelled.size() == group.followers.size() + 1) {
+            group.primary.requestCancel();
+        }
+    }
+
+    /**
+     * Withdraws a Task whose scheduling failed. A withdrawn follower simply leaves its group; a withdrawn primary
+     * dissolves its group, returning any followers that joined it, since the shared work will never run
+     *
+     * @param task - the Task that could not be scheduled
+     * @return - followers left without an execution (may be empty)
+     */
+    public synchronized List<Task> withdraw(Task task) {
+        Group group = findGroup(task);
+
+        if (group == null) {
+            return new ArrayList<>();
+        }
+
+        if (group.primary != task) {
+            group.followers.remove(task);
+            group.cancelled.remove(task);
+            return new ArrayList<>();
+        }
+
+        groups.remove(task.getCoalescingKey());
+        return group.followers;
+    }
+
+    /**
+     * Returns every Task sharing an execution with the given Task (including itself)
+     *
+     * @param task - a primary or follower Task
+     * @return - all Tasks in the same execution (just the given Task if it is not shared)
+     */
+    public synchronized List<Task> getMembers(Task task) {
+        List<Task> members = new ArrayList<>();
+        Group group = findGroup(task);
+
+        if (group == null) {
+            members.add(task);
+        } else {
+            members.add(group.primary);
+            members.addAll(group.followers);
+        }
+
+        return members;
+    }
+
+    /**
+     * Finds the in-flight group that the given Task belongs to, if any
+     */
+    private Group findGroup(Task task) {
+        String key = task.getCoalescingKey();
+
+        if (key == null) {
+            return null;
+        }
+
+        Group group = groups.get(key);
+
+        if (group == null || (group.primary != task && !group.followers.contains(task))) {
+            return null;
+        }
+
+        return group;
+    }
+
+    private static void markCancelled(Task task) {
+        task.setResults("Task cancelled before completion");
+        task.setState(Task.TaskState.CANCELLED);
+    }
+
+    /**
+     * A primary Task and the identical Tasks sharing its execution
+     */
+    private static class Group {
+        final Task primary;
+        final List<Task> followers = new ArrayList<>();
+        final HashSet<Task> cancelled = new HashSet<>();
+
+        Group(Task primary) {
+            this.primary = primary;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package garpin.taskExecutor.controllers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts Tasks to and from a binary representation, e.g. for persisting pending tasks. Declared in the controllers
+ * package (like Task itself) so that storage implementations can persist Tasks without knowing which concrete Task
+ * types exist
+ */
+public interface TaskCodec {
+
+    /**
+     * Encodes the given Task
+     *
+     * @param task - the Task to encode
+     * @return - the encoded bytes
+     * @throws Exception - if the Task's type is not supported by this codec
+     */
+    byte[] encode(Task task) throws Exception;
+
+    /**
+     * Decodes a Task from the remaining bytes of the given buffer
+     *
+     * @param buffer - buffer positioned at an encoded Task
+     * @return - the decoded Task
+     * @throws Exception - if the bytes do not describe a supported Task
+     */
+    Task decode(ByteBuffer buffer) throws Exception;
+
+    /**
+     * Decodes a Task to be scheduled on a client's behalf from the remaining bytes of the given buffer. Only what a
+     * client may choose is taken from the encoded Task (its type, arguments, priority and deadline): the Task returned
+     * is PENDING, with no results and no creator, whatever the encoded Task held
+     *
+     * @param buffer - buffer positioned at an encoded Task
+     * @return - a new, PENDING Task
+     * @throws Exception - if the bytes do not describe a supported Task
+     */
+    Task decodeRequest(ByteBuffer buffer) throws Exception;
+}
@@ -0,0 +1,297 @@
+package garpin.taskExecutor.controllers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned, compact binary codec for Tasks. Fields common to every Task are handled here; the arguments of each
+ * concrete Task type are handled by a TaskTypeCodec registered under a numeric type tag, so new Task types can be
+ * supported without changing this class (or relying on Java serialization).
+ * Record layout (version 1), with lengths and tags stored as unsigned variable-length integers ("varints"):
+ * <pre>
+ *   byte    format version
+ *   varint  type tag
+ *   byte    state ordinal
+ *   byte    priority ordinal
+ *   byte    flags (bit 0: deadline present, bit 1: integer results)
+ *   long    deadline (only if flagged)
+ *   varint  creator length, UTF-8 creator bytes
+ *   varint  results length, results bytes (UTF-8, or two's-complement big-endian if flagged as an integer)
+ *   varint  arguments length, type-specific argument bytes
+ * </pre>
+ * Integer results (see TaskResult) are stored in binary, so encoding a Task never renders a large number in decimal.
+ * Encoded records can be inspected in place with 'view()' (see TaskRecord) without creating Task objects
+ */
+public class TaskCodecRegistry implements TaskCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    static final byte FLAG_DEADLINE = 1;
+    static final byte FLAG_INTEGER_RESULTS = 2;
+
+    private final ConcurrentHashMap<Integer, TaskTypeCodec<?>> codecsByTag = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, Integer> tagsByClass = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the codec for a concrete Task type under the given tag. Tags are part of the persisted format and must
+     * never be reused for a different type
+     *
+     * @param typeTag - non-negative tag identifying the Task type in encoded records
+     * @param codec   - codec for the Task type's arguments
+     * @throws InvalidParameterException - if the tag is negative, or the tag or Task type is already registered
+     */
+    public synchronized void register(int typeTag, TaskTypeCodec<?> codec) {
+        if (typeTag < 0) {
+            throw new InvalidParameterException("Invalid task type tag: " + typeTag);
+        }
+
+        if (codecsByTag.containsKey(typeTag) || tagsByClass.containsKey(codec.getTaskClass())) {
+            throw new InvalidParameterException("Task type already registered: " + typeTag + " ("
+                    + codec.getTaskClass().getName() + ")");
+        }
+
+        codecsByTag.put(typeTag, codec);
+        tagsByClass.put(codec.getTaskClass(), typeTag);
+    }
+
+    /**
+     * Returns the number of bytes needed to encode the given Task
+     *
+     * @param task - the Task to encode
+     * @return - encoded size in bytes
+     * @throws Exception - if the Task's type is not registered
+     */
+    public int getEncodedSize(Task task) throws Exception {
+        return getEncodedSize(task, task.getCreator(), task.getResult().toBytes());
+    }
+
+    /**
+     * Returns the number of bytes needed to encode the given Task with the given creator and results, which the caller
+     * has read from the Task once so that the size matches what is then written
+     */
+    private int getEncodedSize(Task task, String creator, byte results[]) {
+        int typeTag = getTypeTag(task);
+
+        int argumentsSize = getArgumentsSize(codecsByTag.get(typeTag), task);
+        int creatorSize = utf8Length(creator);
+        int resultsSize = results.length;
+
+        return 1 + varintSize(typeTag) + 3 + (task.getDeadline() != 0 ? 8 : 0)
+                + varintSize(creatorSize) + creatorSize
+                + varintSize(resultsSize) + resultsSize
+                + varintSize(argumentsSize) + argumentsSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param task - the Task to encode
+     * @return - the encoded bytes
+     * @throws Exception - if the Task's type is not registered
+     */
+    @Override
+    public byte[] encode(Task task) throws Exception {
+        // Read once: results may be large (see TaskResult), and may change while the Task is being encoded
+        String creator = task.getCreator();
+        TaskResult result = task.getResult();
+        byte results[] = result.toBytes();
+
+        ByteBuffer buffer = ByteBuffer.allocate(getEncodedSize(task, creator, results));
+        encode(task, creator, result.getKind(), results, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Encodes the given Task at the buffer's position, advancing it past the record
+     *
+     * @param task   - the Task to encode
+     * @param buffer - destination buffer with at least 'getEncodedSize()' bytes remaining
+     * @throws Exception - if the Task's type is not registered
+     */
+    public void encode(Task task, ByteBuffer buffer) throws Exception {
+        TaskResult result = task.getResult();
+        encode(task, task.getCreator(), result.getKind(), result.toBytes(), buffer);
+    }
+
+    /**
+     * Encodes the given Task with the given creator and results (read from the Task once by the caller)
+     */
+    private void encode(Task task, String creator, byte resultKind, byte results[], ByteBuffer buffer) {
+        int typeTag = getTypeTag(task);
+        TaskTypeCodec<?> codec = codecsByTag.get(typeTag);
+
+        buffer.put(FORMAT_VERSION);
+        putVarint(buffer, typeTag);
+        buffer.put((byte) task.getState().ordinal());
+        buffer.put((byte) task.getPriority().ordinal());
+
+        long deadline = task.getDeadline();
+        byte flags = (resultKind == TaskResult.KIND_INTEGER) ? FLAG_INTEGER_RESULTS : 0;
+
+        if (deadline != 0) {
+            buffer.put((byte) (flags | FLAG_DEADLINE));
+            buffer.putLong(deadline);
+        } else {
+            buffer.put(flags);
+        }
+
+        putString(buffer, creator);
+        putVarint(buffer, results.length);
+        buffer.put(results);
+
+        putVarint(buffer, getArgumentsSize(codec, task));
+        writeArguments(codec, task, buffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Advances the buffer past the decoded record
+     *
+     * @param buffer - buffer positioned at an encoded Task
+     * @return - the decoded Task
+     * @throws Exception - if the record's version or type tag is not supported, or the record is malformed
+     */
+    @Override
+    public Task decode(ByteBuffer buffer) throws Exception {
+        TaskRecord record = view(buffer);
+        Task task = createTask(record);
+
+        task.setCreator(record.getCreator());
+        task.setResult(record.getResult());
+        task.setState(record.getState());
+
+        buffer.position(buffer.position() + record.getEncodedSize());
+
+        return task;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Advances the buffer past the decoded record. The record's state, creator and results are ignored
+     *
+     * @param buffer - buffer positioned at an encoded Task
+     * @return - a new, PENDING Task
+     * @throws Exception - if the record's version or type tag is not supported, or the record is malformed
+     */
+    @Override
+    public Task decodeRequest(ByteBuffer buffer) throws Exception {
+        TaskRecord record = view(buffer);
+        Task task = createTask(record);
+
+        buffer.position(buffer.position() + record.getEncodedSize());
+
+        return task;
+    }
+
+    /**
+     * Creates a new Task of the record's type, populated with the record's arguments, priority and deadline
+     *
+     * @param record - the encoded Task
+     * @return - a new, PENDING Task
+     * @throws Exception - if the record's type tag is not supported or its arguments are malformed
+     */
+    private Task createTask(TaskRecord record) throws Exception {
+        TaskTypeCodec<?> codec = codecsByTag.get(record.getTypeTag());
+        if (codec == null) {
+            throw new InvalidParameterException("Unknown task type tag: " + record.getTypeTag());
+        }
+
+        Task task = codec.createTask();
+        task.setPriority(record.getPriority());
+        task.setDeadline(record.getDeadline());
+        readArguments(codec, task, record.getArguments());
+
+        return task;
+    }
+
+    /**
+     * Returns a read-only view of the record at the buffer's position, without decoding it into a Task. The buffer's
+     * position is not changed
+     *
+     * @param buffer - buffer positioned at an encoded Task
+     * @return - view over the encoded record
+     * @throws Exception - if the record's format version is not supported or the record is malformed
+     */
+    public TaskRecord view(ByteBuffer buffer) throws Exception {
+        return new TaskRecord(buffer);
+    }
+
+    private int getTypeTag(Task task) {
+        Integer typeTag = tagsByClass.get(task.getClass());
+
+        if (typeTag == null) {
+            throw new InvalidParameterException("Unsupported task type: " + task.getClass().getName());
+        }
+
+        return typeTag;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> int getArgumentsSize(TaskTypeCodec<T> codec, Task task) {
+        return codec.getArgumentsSize((T) task);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> void writeArguments(TaskTypeCodec<T> codec, Task task, ByteBuffer buffer) {
+        codec.writeArguments((T) task, buffer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> void readArguments(TaskTypeCodec<T> codec, Task task, ByteBuffer arguments)
+            throws Exception {
+        codec.readArguments((T) task, arguments);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte bytes[] = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                ++i;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes a non-negative int using 7 bits per byte, low bits first, with the high bit marking continuation
+     */
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            ++size;
+        }
+
+        return size;
+    }
+}
@@ -1,5 +1,11 @@
 package garpin.taskExecutor.controllers;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Encapsulation around task storage. This interface allows us to know that tasks can be added and removed to a collection
  * without knowledge of how or where the collection is tracked or ordered. E.g., implementations may choose to store tasks
@@ -14,10 +20,118 @@ public interface TaskCollection {
      */
     void addTask(Task task);
 
+    /**
+     * Adds several Tasks to the collection, in iteration order. The default implementation adds them one at a time;
+     * implementations should override this when they can amortize locking or signalling across the batch
+     *
+     * @param tasks - the Tasks to be added
+     */
+    default void addTasks(Collection<? extends Task> tasks) {
+        for (Task task : tasks) {
+            addTask(task);
+        }
+    }
+
     /**
      * Removes a Task from the collection
      *
      * @return - the removed Task
      */
     Task removeTask();
+
+    /**
+     * Removes a Task from the collection, waiting up to the given time for one to be added if the collection is empty.
+     * The default implementation polls 'removeTask()', parking between attempts for a pause that doubles from 50
+     * microseconds up to 10 milliseconds, so idle consumers neither spin nor miss a Task by more than the longest pause;
+     * implementations backed by blocking storage should override this so that consumers wake as soon as a Task is added
+     *
+     * @param timeout - maximum time to wait for a Task
+     * @param unit    - unit of the timeout argument
+     * @return - the removed Task, or null if none became available in time
+     * @throws InterruptedException - if the calling thread is interrupted while waiting
+     */
+    default Task removeTask(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long pause = TimeUnit.MICROSECONDS.toNanos(50);
+
+        while (true) {
+            Task task = removeTask();
+            if (task != null) {
+                return task;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+
+            LockSupport.parkNanos(this, Math.min(pause, remaining));
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            pause = Math.min(pause * 2, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    /**
+     * Removes up to 'maxTasks' Tasks from the collection without waiting, adding them to the destination in the order
+     * they would have been returned by 'removeTask()'. The default implementation removes them one at a time;
+     * implementations should override this when they can remove a batch more cheaply
+     *
+     * @param destination - collection receiving the removed Tasks
+     * @param maxTasks    - maximum number of Tasks to remove
+     * @return - the number of Tasks removed
+     */
+    default int removeTasks(Collection<? super Task> destination, int maxTasks) {
+        int count = 0;
+
+        while (count < maxTasks) {
+            Task task = removeTask();
+
+            if (task == null) {
+                break;
+            }
+
+            destination.add(task);
+            ++count;
+        }
+
+        return count;
+    }
+
+    /**
+     * Hands back Tasks previously removed from the collection that were never started (e.g., a worker's unstarted
+     * batch when the executor is disabled or shut down), so that other consumers can remove them again. The default
+     * implementation adds them as new Tasks; collections that persist tasks should override this so that they are not
+     * persisted twice
+     *
+     * @param tasks - the unstarted Tasks, in the order they were removed
+     */
+    default void restoreTasks(Collection<? extends Task> tasks) {
+        addTasks(tasks);
+    }
+
+    /**
+     * Notifies the collection that a Task previously removed from it has finished executing (whatever its outcome), or
+     * that a Task it still holds was cancelled before starting (it is skipped when removed). A Task may be acknowledged
+     * more than once. The default implementation does nothing; collections that persist tasks may use this to discard
+     * their copy, similar to acknowledging a message taken from an external queue
+     *
+     * @param task - the finished Task
+     */
+    default void acknowledgeTask(Task task) {
+    }
+
+    /**
+     * Returns the Tasks this collection restored from durable storage (e.g., a journal replayed on startup) and already
+     * holds as pending, so that their owner can track them as it does Tasks it schedules itself. Each restored Task is
+     * returned only once. The default implementation restores nothing
+     *
+     * @return - the restored Tasks, in the order they will be removed (may be empty)
+     */
+    default List<Task> takeRecoveredTasks() {
+        return Collections.emptyList();
+    }
 }
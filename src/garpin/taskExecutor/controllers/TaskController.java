@@ -1,9 +1,22 @@
 package garpin.taskExecutor.controllers;
 
-import garpin.taskExecutor.storage.TaskQueue;
+import garpin.taskExecutor.storage.ArchivedTaskPage;
+import garpin.taskExecutor.storage.PriorityTaskQueue;
+import garpin.taskExecutor.storage.TaskArchive;
+import garpin.taskExecutor.storage.TaskHistoryRing;
 
+import java.io.IOException;
 import java.security.InvalidParameterException;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Manages Task serialization and asynchronous execution.
@@ -15,10 +28,35 @@ public class TaskController {
     public final String USER_STANDARD = "user";
     public final String USER_ADMIN = "admin";
 
-    private String user = USER_STANDARD;
+    private static final String COMPLETED_TASK_DELIMITER = "--------------------\n";
+    private static final int COMPLETED_TASK_STREAM_PAGE_SIZE = 256;
 
-    private TaskCollection tasks = new TaskQueue();
-    private TaskExecutor executor = new TaskExecutor(tasks);
+    // When an archive is configured, cursors below this value are archive rows and cursors from it onwards are
+    //  positions in the history (offset by this value), so that one cursor walks the archive and then the history
+    private static final long HISTORY_CURSOR_OFFSET = 1L << 32;
+
+    // The current user is tracked per calling thread, so that front ends serving several users (e.g., TaskService) can
+    //  act on behalf of each of them concurrently. A single-threaded caller such as the CLI sees one current user
+    private final ThreadLocal<String> user = ThreadLocal.withInitial(() -> USER_STANDARD);
+
+    private TaskCollection tasks = new PriorityTaskQueue();
+    private TaskHistory history = new TaskHistoryRing(TaskHistoryRing.DEFAULT_CAPACITY);
+    private TaskArchive archive = null;
+    private TaskCoalescer coalescer = new TaskCoalescer();
+    private final TaskMetrics metrics = new TaskMetrics();
+    private final List<TaskStateListener> stateListeners = new CopyOnWriteArrayList<>();
+    private final TaskStateListener stateDispatcher = this::notifyStateListeners;
+
+    // Scheduled Tasks that have not yet finished, by id, so that they can be cancelled by handle
+    private final ConcurrentHashMap<Long, Task> activeTasks = new ConcurrentHashMap<>();
+    private volatile boolean interruptOnCancel = false;
+    private TaskExecutor executor = new TaskExecutor(tasks, history);
+
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+    private List<Thread> workers = new ArrayList<>();
+    private int virtualThreadLimit = 0;
+    private int workerBatchSize = 1;
+    private ForkJoinPool subtaskPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     private static TaskController instance = new TaskController();
 
@@ -31,24 +69,200 @@ public class TaskController {
         return instance;
     }
 
-    // Private constructor for singleton pattern
-    private TaskController() {
+    /**
+     * Creates a controller independent of the singleton, with its own queue, history and executor (e.g., so that each
+     * test or embedded service starts from a clean state). Most callers should use 'getInstance()'
+     */
+    public TaskController() {
+    }
+
+    /**
+     * Replaces the collection used to store pending Tasks (e.g., with a lock-free or non-FIFO implementation).
+     * Must be called before the executor process is started
+     *
+     * @param collection - TaskCollection to store pending Tasks in
+     * @throws Exception - if the collection is null or the executor process is already running
+     */
+    public synchronized void setTaskCollection(TaskCollection collection) throws Exception {
+        if (collection == null) {
+            throw new InvalidParameterException("Missing task collection");
+        }
+
+        verifyNotStarted();
+
+        tasks = collection;
+        executor = createExecutor();
+
+        adoptRecoveredTasks();
+    }
+
+    /**
+     * Starts tracking the Tasks that the pending collection restored from durable storage, as though they had been
+     * scheduled through this controller: they notify its listeners, can be cancelled by id and are counted by its
+     * metrics. They are already queued, so they do not share executions with identical Tasks
+     */
+    private void adoptRecoveredTasks() {
+        for (Task task : tasks.takeRecoveredTasks()) {
+            task.addStateListener(stateDispatcher);
+            activeTasks.put(task.getId(), task);
+            metrics.taskScheduled(task);
+        }
+    }
+
+    /**
+     * Replaces the store used to retain completed Tasks (e.g., with a different size cap or retention period).
+     * Must be called before the executor process is started
+     *
+     * @param completedTasks - TaskHistory to retain completed Tasks in
+     * @throws Exception - if the history is null or the executor process is already running
+     */
+    public synchronized void setCompletedTaskHistory(TaskHistory completedTasks) throws Exception {
+        if (completedTasks == null) {
+            throw new InvalidParameterException("Missing task history");
+        }
+
+        verifyNotStarted();
+
+        history = completedTasks;
+        archive = null;
+        executor = createExecutor();
+    }
+
+    /**
+     * Retains the most recent completed Tasks in a TaskHistoryRing of the given capacity and moves older ones to the
+     * given archive instead of discarding them. Completed-task queries then return the archived records (oldest first)
+     * followed by those still in the ring. Replaces any history set by 'setCompletedTaskHistory()'.
+     * Must be called before the executor process is started
+     *
+     * @param capacity       - maximum number of completed Tasks retained on the heap (1 - n)
+     * @param completedTasks - TaskArchive receiving the records evicted from the ring
+     * @throws Exception - if the archive is null, the capacity is invalid or the executor process is already running
+     */
+    public synchronized void setCompletedTaskArchive(int capacity, TaskArchive completedTasks) throws Exception {
+        if (completedTasks == null) {
+            throw new InvalidParameterException("Missing task archive");
+        }
+
+        verifyNotStarted();
+
+        history = new TaskHistoryRing(capacity, 0, completedTasks);
+        archive = completedTasks;
+        executor = createExecutor();
+    }
+
+    /**
+     * Sets the number of worker threads used to execute Tasks. Defaults to the number of available processors.
+     * Must be called before the executor process is started
+     *
+     * @param count - number of worker threads (1 - n)
+     * @throws Exception - if the count is not positive or the executor process is already running
+     */
+    public synchronized void setWorkerCount(int count) throws Exception {
+        if (count <= 0) {
+            throw new InvalidParameterException("Invalid worker count: " + count);
+        }
+
+        verifyNotStarted();
+
+        workerCount = count;
+    }
+
+    /**
+     * Returns the number of worker threads used to execute Tasks
+     *
+     * @return - number of worker threads
+     */
+    public synchronized int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Switches Task execution to the virtual-thread backend: each Task runs on its own virtual thread, with at most
+     * 'maxConcurrency' Tasks running at once. Intended for Tasks that block (e.g., on I/O). Requires Java 21 or later.
+     * Must be called before the executor process is started
+     *
+     * @param maxConcurrency - maximum number of Tasks running at once (1 - n)
+     * @throws Exception - if the limit is invalid, virtual threads are unsupported or the executor is already running
+     */
+    public synchronized void useVirtualThreadExecution(int maxConcurrency) throws Exception {
+        if (maxConcurrency <= 0) {
+            throw new InvalidParameterException("Invalid concurrency limit: " + maxConcurrency);
+        }
+
+        verifyNotStarted();
+
+        executor = new VirtualThreadTaskExecutor(tasks, history, maxConcurrency);
+        virtualThreadLimit = maxConcurrency;
     }
 
     /**
-     * Creates and starts a Thread running TaskExecutor asynchronously
+     * Sets how many pending Tasks each worker claims at a time. Batches larger than 1 reduce contention on the pending
+     * collection for workloads of many short Tasks, at the cost of less even spreading of long ones. Must be called
+     * before the executor process is started
      *
-     * @throws Exception
+     * @param batchSize - maximum number of Tasks a worker claims at once (1 - n)
+     * @throws Exception - if the batch size is less than 1 or the executor process is already running
      */
-    public void startExecutorProcess() throws Exception {
-        (new Thread(executor)).start();
+    public synchronized void setWorkerBatchSize(int batchSize) throws Exception {
+        if (batchSize < 1) {
+            throw new InvalidParameterException("Invalid worker batch size: " + batchSize);
+        }
+
+        verifyNotStarted();
+
+        workerBatchSize = batchSize;
     }
 
     /**
-     * Signals system to shut down asynchronous processing. (Notifies threaded process)
+     * Enables or disables parallel execution of individual Tasks. When enabled, Tasks that support it split their work
+     * into subtasks executed on a shared work-stealing pool, so a single large Task can use every core. Must be called
+     * before the executor process is started
+     *
+     * @param enabled - whether Tasks may split work into parallel subtasks
+     * @throws Exception - if the executor process is already running
      */
-    public void shutdownExecutorProcess() {
+    public synchronized void setParallelTaskExecution(boolean enabled) throws Exception {
+        verifyNotStarted();
+
+        if (!enabled) {
+            subtaskPool = null;
+        } else if (subtaskPool == null) {
+            subtaskPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Creates and starts a pool of worker Threads, each running the shared TaskExecutor asynchronously
+     *
+     * @throws Exception - if the executor process is already running
+     */
+    public synchronized void startExecutorProcess() throws Exception {
+        verifyNotStarted();
+
+        executor.setForkJoinPool(subtaskPool);
+        executor.setTaskCoalescer(coalescer);
+        executor.setTaskMetrics(metrics);
+        executor.setBatchSize(workerBatchSize);
+
+        // The virtual-thread backend needs only a single dispatcher; it bounds concurrency itself
+        int dispatcherCount = (virtualThreadLimit > 0) ? 1 : workerCount;
+
+        for (int i = 0; i < dispatcherCount; ++i) {
+            Thread worker = new Thread(executor, "task-worker-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Signals system to shut down asynchronous processing. (Notifies all worker threads)
+     */
+    public synchronized void shutdownExecutorProcess() {
         executor.shutdown();
+
+        if (subtaskPool != null) {
+            subtaskPool.shutdown();
+        }
     }
 
     /**
@@ -74,12 +288,14 @@ public class TaskController {
     }
 
     /**
-     * Validates given Task and adds it to the pending queue
+     * Validates given Task and adds it to the pending queue. If an identical Task is already pending or running, the
+     * given Task shares that execution instead of being queued (it keeps its own record and receives the same results)
      *
      * @param task - Task to be scheduled
-     * @throws Exception - if task execution is not enabled or Task is not valid
+     * @return - handle completing with the Task once it reaches COMPLETED, CANCELLED or ERROR
+     * @throws Exception - if task execution is not enabled or Task is not valid (or not PENDING)
      */
-    public void scheduleTask(Task task) throws Exception {
+    public CompletableFuture<Task> scheduleTask(Task task) throws Exception {
 
         // Relying on the executor's state here is somewhat awkward, however, the alternative is to push this logic
         //  into the Executor which increases coupling and puts more responsibility on that class. Could also have
@@ -88,15 +304,160 @@ public class TaskController {
             throw new Exception("Task scheduler is not enabled");
         }
 
-        task.setCreator(user);
+        verifyPending(task);
+        task.setCreator(user.get());
 
         task.validateTask();
 
-        tasks.addTask(task);
+        task.addStateListener(stateDispatcher);
+        CompletableFuture<Task> completion = task.getCompletion();
+        activeTasks.put(task.getId(), task);
+
+        if (coalescer.join(task)) {
+            metrics.taskCoalesced(task);
+            return completion;
+        }
+
+        metrics.taskScheduled(task);
+
+        try {
+            tasks.addTask(task);
+
+        } catch (RuntimeException ex) {
+            // E.g., a journaled collection that is closed or cannot encode the Task
+            withdrawTasks(Collections.singletonList(task), Collections.singletonList(task), ex);
+            throw ex;
+        }
+
+        return completion;
     }
 
     /**
-     * Flags a task to be cancelled if it is currently executing and is not already in a terminal state.
+     * Validates the given Tasks and adds them to the pending collection as a single batch, amortizing the executor
+     * check and the collection's locking across the batch. Tasks are validated before any is scheduled, so an invalid
+     * Task causes none of them to be scheduled. As with 'scheduleTask()', a Task identical to one already pending or
+     * running shares that execution instead of being queued
+     *
+     * @param newTasks - Tasks to be scheduled, in order
+     * @return - completion handles for the Tasks, in the same order (see 'scheduleTask()')
+     * @throws Exception - if task execution is not enabled or any Task is not valid (or not PENDING)
+     */
+    public List<CompletableFuture<Task>> scheduleTasks(Collection<? extends Task> newTasks) throws Exception {
+        if (!executor.isEnabled()) {
+            throw new Exception("Task scheduler is not enabled");
+        }
+
+        for (Task task : newTasks) {
+            verifyPending(task);
+            task.setCreator(user.get());
+
+            task.validateTask();
+        }
+
+        List<Task> queued = new ArrayList<>(newTasks.size());
+        List<CompletableFuture<Task>> completions = new ArrayList<>(newTasks.size());
+
+        for (Task task : newTasks) {
+            task.addStateListener(stateDispatcher);
+            completions.add(task.getCompletion());
+            activeTasks.put(task.getId(), task);
+
+            if (coalescer.join(task)) {
+                metrics.taskCoalesced(task);
+                continue;
+            }
+
+            metrics.taskScheduled(task);
+            queued.add(task);
+        }
+
+        try {
+            tasks.addTasks(queued);
+
+        } catch (RuntimeException ex) {
+            withdrawTasks(newTasks, queued, ex);
+            throw ex;
+        }
+
+        return completions;
+    }
+
+    /**
+     * Undoes the registration of Tasks that could not be added to the pending collection, so that they are no longer
+     * tracked or shared. Tasks from other callers that had joined one of them as followers are marked ERROR, since the
+     * execution they were waiting for will never run
+     *
+     * @param failed - the Tasks that could not be scheduled
+     * @param queued - those of the Tasks that were to be queued (rather than share an execution)
+     * @param cause  - why the pending collection rejected them
+     */
+    private void withdrawTasks(Collection<? extends Task> failed, Collection<Task> queued, RuntimeException cause) {
+        List<Task> orphans = new ArrayList<>();
+
+        for (Task task : failed) {
+            orphans.addAll(coalescer.withdraw(task));
+
+            task.removeStateListener(stateDispatcher);
+            activeTasks.remove(task.getId(), task);
+        }
+
+        for (Task task : queued) {
+            metrics.taskRejected(task);
+        }
+
+        orphans.removeAll(failed);
+
+        for (Task orphan : orphans) {
+            orphan.failScheduling("Unable to schedule task: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Registers a listener to be notified of state transitions of every Task subsequently scheduled through this
+     * controller (see TaskStateListener for threading considerations)
+     *
+     * @param listener - the listener to add
+     */
+    public void addStateListener(TaskStateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously added with 'addStateListener()'
+     *
+     * @param listener - the listener to remove
+     */
+    public void removeStateListener(TaskStateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    /**
+     * Forwards a scheduled Task's state transition to the controller-level listeners, and stops tracking the Task once
+     * it has finished
+     *
+     * @param task          - the Task whose state changed
+     * @param previousState - the state before the transition
+     * @param newState      - the state after the transition
+     * @param sequence      - the transition's number among the Task's transitions
+     */
+    private void notifyStateListeners(Task task, Task.TaskState previousState, Task.TaskState newState,
+                                      long sequence) {
+        if (Task.isTerminal(newState)) {
+            activeTasks.remove(task.getId(), task);
+        }
+
+        for (TaskStateListener listener : stateListeners) {
+            try {
+                listener.stateChanged(task, previousState, newState, sequence);
+            } catch (RuntimeException ignored) {
+                // As for per-Task listeners, one misbehaving listener must not prevent others being notified
+            }
+        }
+    }
+
+    /**
+     * Flags each currently executing task (one per busy worker), along with any Tasks sharing its execution, to be
+     * cancelled if it is not already in a terminal state.
      * Note that this is just *marking* a Task for cancellation. The Task implementation may not respond to
      * the cancel request immediately or ever
      *
@@ -105,78 +466,317 @@ public class TaskController {
     public void requestCancelCurrentTask() throws Exception {
         verifyIsAdmin();
 
-        Task currentTask = getCurrentTask();
+        for (Task currentTask : getCurrentTasks()) {
+            for (Task member : coalescer.getMembers(currentTask)) {
+                coalescer.requestCancel(member);
+            }
+
+            if (interruptOnCancel) {
+                executor.interruptTask(currentTask);
+            }
+        }
+    }
+
+    /**
+     * Requests cancellation of a scheduled Task by id. A pending Task is marked CANCELLED immediately and is skipped
+     * when a worker reaches it (it is not searched for in the pending collection); a running Task is marked CANCELLING
+     * and, if enabled via 'setInterruptOnCancel()', its worker thread is interrupted. A Task sharing its execution with
+     * identical Tasks only stops the shared work once every one of them has been cancelled.
+     * Users may cancel their own Tasks; the admin user may cancel any Task
+     *
+     * @param taskId - id of the Task to cancel (see 'Task.getId()')
+     * @return - true if cancellation was requested, false if no such Task is pending or running
+     * @throws Exception - if the current user did not create the Task and is not an admin
+     */
+    public boolean cancelTask(long taskId) throws Exception {
+        Task task = activeTasks.get(taskId);
+
+        if (task == null) {
+            return false;
+        }
 
-        if (currentTask == null) {
-            return;
+        if (!user.get().equalsIgnoreCase(task.getCreator())) {
+            verifyIsAdmin();
         }
 
-        // If task not in a terminal state, mark for cancellation (otherwise, there is nothing to cancel)
-        switch (currentTask.getState()) {
-            case PENDING:
-            case RUNNING:
-                currentTask.setState(Task.TaskState.CANCELLING);
-                break;
+        coalescer.requestCancel(task);
+
+        for (Task member : coalescer.getMembers(task)) {
+            if (member.getState() == Task.TaskState.CANCELLED) {
+                // A pending Task stays in the collection until a worker skips it; acknowledge it now so that a durable
+                // collection does not restore (and run) it after a restart in between
+                tasks.acknowledgeTask(member);
+
+            } else if (interruptOnCancel && member.getState() == Task.TaskState.CANCELLING) {
+                executor.interruptTask(member);
+            }
         }
+
+        return true;
+    }
+
+    /**
+     * Enables or disables interrupting a running Task's worker thread when the Task is cancelled. Tasks that block in
+     * interruptible operations then notice cancellation promptly; Tasks that only check 'Task.checkCancellation()' are
+     * unaffected. Disabled by default
+     *
+     * @param enabled - whether cancellation interrupts the running Task's worker thread
+     */
+    public void setInterruptOnCancel(boolean enabled) {
+        interruptOnCancel = enabled;
     }
 
     /**
-     * Returns a String summary of the currently executing Task. If no Task is currently being executed, a placeholder
-     * String is returned
+     * Returns a String summary of the currently executing Tasks (one per busy worker). If no Task is currently being
+     * executed, a placeholder String is returned
      *
-     * @return - String summary of any currently executing Task or a placeholder
+     * @return - String summary of any currently executing Tasks or a placeholder
      * @throws Exception - if current user does not have sufficient permission
      */
     public String fetchCurrentTaskInfo() throws Exception {
         verifyIsAdmin();
 
-        Task currentTask = getCurrentTask();
+        List<Task> currentTasks = getCurrentTasks();
 
-        if (currentTask == null) {
+        if (currentTasks.isEmpty()) {
             return "<No task>";
         }
 
-        return currentTask.toString();
+        StringBuilder output = new StringBuilder();
+
+        for (Task t : currentTasks) {
+            if (output.length() > 0) {
+                output.append("\n");
+            }
+            output.append(t.toString());
+        }
+
+        return output.toString();
     }
 
     /**
-     * Returns any currently executing Task from the asynchronously running TaskExecutor.
-     * May be null.
+     * Returns the currently executing Tasks (one per busy worker)
      *
-     * @return - any currently executing Task from the asynchronously running TaskExecutor
+     * @return - List of currently executing Tasks (may be empty)
+     * @throws Exception - if current user does not have sufficient permission
+     */
+    public List<Task> fetchCurrentTasks() throws Exception {
+        verifyIsAdmin();
+
+        return getCurrentTasks();
+    }
+
+    /**
+     * Returns the metrics recorded for scheduled and executed Tasks
+     *
+     * @return - TaskMetrics for this controller
      */
-    private synchronized Task getCurrentTask() {
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns a String summary of executor metrics: Task counts, approximate queue depth, throughput and, per task type,
+     * wait and run time distributions
+     *
+     * @return - String summary of executor metrics
+     */
+    public String fetchMetricsInfo() {
+        StringBuilder output = new StringBuilder()
+                .append("Queue depth: ").append(metrics.getQueueDepth()).append("\n")
+                .append("Scheduled: ").append(metrics.getScheduledCount())
+                .append(" (plus ").append(metrics.getCoalescedCount()).append(" sharing an execution)\n")
+                .append("Started: ").append(metrics.getStartedCount()).append("\n")
+                .append("Completed: ").append(metrics.getCompletedCount())
+                .append(", Cancelled: ").append(metrics.getCancelledCount())
+                .append(", Errors: ").append(metrics.getFailedCount())
+                .append(", Cancelled before starting: ").append(metrics.getDiscardedCount()).append("\n")
+                .append(String.format("Throughput: %.2f tasks/s%n", metrics.getThroughput()));
+
+        for (String type : metrics.getTaskTypes()) {
+            output.append(type).append("\n");
+            appendLatencyInfo(output, "Wait", metrics.getWaitTimes(type));
+            appendLatencyInfo(output, "Run", metrics.getRunTimes(type));
+        }
 
-        return executor.getCurrentTask();
+        return output.toString();
     }
 
     /**
-     * Creates and returns a String summary of all previously completed Tasks
-     * Note that this is not a very robust solution and could be greatly expanded
+     * Appends a single-line summary of a latency distribution (recorded in nanoseconds), in milliseconds
+     *
+     * @param output    - destination for the summary
+     * @param label     - name of the measured interval
+     * @param histogram - the recorded distribution
+     */
+    private static void appendLatencyInfo(StringBuilder output, String label, LatencyHistogram histogram) {
+        output.append(String.format("\t%s (ms): count=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f%n", label,
+                histogram.getCount(), histogram.getMean() / 1e6, histogram.getPercentile(50) / 1e6,
+                histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6));
+    }
+
+    /**
+     * Returns the Tasks currently being executed by the asynchronously running TaskExecutor workers.
+     * May be empty.
+     *
+     * @return - the currently executing Tasks
+     */
+    private List<Task> getCurrentTasks() {
+
+        return executor.getCurrentTasks();
+    }
+
+    /**
+     * Creates and returns a String summary of all retained completed Tasks.
+     * Builds the whole summary in memory; prefer 'writeCompletedTasksInfo()' or 'fetchCompletedTasksPage()' when the
+     * history may be large
      *
      * @return - A String summary of all completed Tasks
      */
     public String fetchCompletedTasksInfo() {
-        Vector<Task> tasks = executor.getCompletedTasks();
-
         StringBuilder output = new StringBuilder();
 
-        final String delimiter = "--------------------\n";
+        try {
+            writeCompletedTasksInfo(output, null);
+
+        } catch (IOException ignored) {
+            // StringBuilder does not throw IOExceptions
+        }
+
+        return output.toString();
+    }
+
+    /**
+     * Incrementally writes a summary of the retained completed Tasks matching the filter to the given output, one
+     * Task at a time, without first building the whole summary in memory
+     *
+     * @param output - destination for the summary
+     * @param filter - criteria Tasks must match, or null for all Tasks
+     * @throws IOException - if writing to the output fails
+     */
+    public void writeCompletedTasksInfo(Appendable output, TaskFilter filter) throws IOException {
+        Iterator<CompletedTask> completedTasks = streamCompletedTasks(filter);
+
+        while (completedTasks.hasNext()) {
+            output.append(COMPLETED_TASK_DELIMITER);
+            output.append(completedTasks.next().toString());
+            output.append("\n");
+        }
+
+        output.append(COMPLETED_TASK_DELIMITER);
+    }
+
+    /**
+     * Returns a single page of retained completed Tasks matching the filter, oldest first.
+     * Pass a cursor of 0 for the first page and the previous page's 'getNextCursor()' for subsequent pages. When an
+     * archive is configured (see 'setCompletedTaskArchive()'), pages cover the archived records before those still in
+     * the history; records evicted into the archive after the cursor has moved on to the history are skipped
+     *
+     * @param cursor   - position to resume from (0 for the beginning)
+     * @param pageSize - maximum number of Tasks on the page (1 - n)
+     * @param filter   - criteria Tasks must match, or null for all Tasks
+     * @return - the requested page of completed Tasks
+     * @throws Exception - if the page size is invalid
+     */
+    public TaskPage<CompletedTask> fetchCompletedTasksPage(long cursor, int pageSize, TaskFilter filter)
+            throws Exception {
+        if (pageSize <= 0) {
+            throw new InvalidParameterException("Invalid page size: " + pageSize);
+        }
+
+        return getCompletedTasksPage(cursor, pageSize, filter);
+    }
+
+    private TaskPage<CompletedTask> getCompletedTasksPage(long cursor, int pageSize, TaskFilter filter) {
+        List<CompletedTask> output = new ArrayList<>();
+
+        if (archive == null) {
+            TaskPage<Task> page = history.getPage(cursor, pageSize, filter);
+            output.addAll(page.getTasks());
+
+            return new TaskPage<>(output, page.getNextCursor(), page.hasMore());
+        }
+
+        long historyCursor = cursor - HISTORY_CURSOR_OFFSET;
+
+        if (cursor < HISTORY_CURSOR_OFFSET) {
+            ArchivedTaskPage archived = archive.getPage(cursor, pageSize, filter);
+            output.addAll(archived.getTasks());
+
+            if (archived.hasMore() || output.size() == pageSize) {
+                long next = archived.hasMore() ? archived.getNextCursor() : HISTORY_CURSOR_OFFSET;
+                return new TaskPage<>(output, next, true);
+            }
 
-        for (Task t : tasks) {
-            output.append(delimiter);
+            historyCursor = 0;
+        }
+
+        TaskPage<Task> page = history.getPage(historyCursor, pageSize - output.size(), filter);
+        output.addAll(page.getTasks());
+
+        return new TaskPage<>(output, HISTORY_CURSOR_OFFSET + page.getNextCursor(), page.hasMore());
+    }
+
+    /**
+     * Returns an iterator over the retained completed Tasks matching the filter, oldest first, including archived
+     * records (see 'fetchCompletedTasksPage()'). Records are fetched a page at a time as the iterator advances
+     *
+     * @param filter - criteria Tasks must match, or null for all Tasks
+     * @return - an Iterator over matching completed Tasks
+     */
+    public Iterator<CompletedTask> streamCompletedTasks(TaskFilter filter) {
+        return new Iterator<CompletedTask>() {
+            private TaskPage<CompletedTask> page = getCompletedTasksPage(0, COMPLETED_TASK_STREAM_PAGE_SIZE, filter);
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (position >= page.getTasks().size()) {
+                    if (!page.hasMore()) {
+                        return false;
+                    }
+
+                    page = getCompletedTasksPage(page.getNextCursor(), COMPLETED_TASK_STREAM_PAGE_SIZE, filter);
+                    position = 0;
+                }
+
+                return true;
+            }
+
+            @Override
+            public CompletedTask next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return page.getTasks().get(position++);
+            }
+        };
+    }
+
+    /**
+     * Renders a summary of the Tasks on the given page
+     *
+     * @param page - a page returned by 'fetchCompletedTasksPage()'
+     * @return - A String summary of the page's Tasks
+     */
+    public String renderTaskPage(TaskPage<? extends CompletedTask> page) {
+        StringBuilder output = new StringBuilder();
+
+        for (CompletedTask t : page.getTasks()) {
+            output.append(COMPLETED_TASK_DELIMITER);
             output.append(t.toString());
             output.append("\n");
         }
 
-        output.append(delimiter);
+        output.append(COMPLETED_TASK_DELIMITER);
 
         return output.toString();
     }
 
     /**
-     * Sets the current user of the system to be used for tracking Task creators and whether users have permission to
-     * perform activities.
+     * Sets the current user of the calling thread to be used for tracking Task creators and whether users have
+     * permission to perform activities.
      * Note that for this project, the implementation only accepts two hardcoded user names and does no validation at
      * all. In a production environment, this must be replaced by a robust system.
      *
@@ -190,17 +790,64 @@ public class TaskController {
             throw new InvalidParameterException("Unknown user: " + newUser);
         }
 
-        user = newUser;
+        user.set(newUser);
+    }
+
+    /**
+     * Returns the current user of the calling thread (see 'setUser()')
+     *
+     * @return - the current user name
+     */
+    public String getUser() {
+        return user.get();
+    }
+
+    /**
+     * Creates a TaskExecutor for the currently configured backend, pending collection and completed history
+     *
+     * @return - a new TaskExecutor
+     * @throws Exception - if the configured backend is not supported
+     */
+    private TaskExecutor createExecutor() throws Exception {
+        if (virtualThreadLimit > 0) {
+            return new VirtualThreadTaskExecutor(tasks, history, virtualThreadLimit);
+        }
+
+        return new TaskExecutor(tasks, history);
+    }
+
+    /**
+     * Verifies that the executor process has not been started yet. If it has, an exception is thrown.
+     *
+     * @throws Exception if the executor process is already running
+     */
+    private void verifyNotStarted() throws Exception {
+        if (!workers.isEmpty()) {
+            throw new Exception("Executor process is already running");
+        }
+    }
+
+    /**
+     * Verifies that a Task to be scheduled has not already run (or been scheduled), so that no outcome or results can
+     * be supplied by the caller
+     *
+     * @param task - the Task to be scheduled
+     * @throws InvalidParameterException - if the Task is not PENDING
+     */
+    private static void verifyPending(Task task) {
+        if (task.getState() != Task.TaskState.PENDING) {
+            throw new InvalidParameterException("Task cannot be scheduled in state " + task.getState());
+        }
     }
 
     /**
      * Verifies that the current user is an administrator. If not, an execption is thrown.
      *
-     * @throws Exception if the current user is not an administrator
+     * @throws PermissionDeniedException if the current user is not an administrator
      */
-    private void verifyIsAdmin() throws Exception {
-        if (user.compareToIgnoreCase(USER_ADMIN) != 0) {
-            throw new InvalidParameterException("Admin user required");
+    private void verifyIsAdmin() throws PermissionDeniedException {
+        if (user.get().compareToIgnoreCase(USER_ADMIN) != 0) {
+            throw new PermissionDeniedException("Admin user required");
         }
     }
 }
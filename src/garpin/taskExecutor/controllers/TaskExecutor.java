@@ -1,54 +1,127 @@
 package garpin.taskExecutor.controllers;
 
-import java.util.Vector;
+import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Responsible for executing tasks from an external task queue. Supports being run in a separate thread
+ * Responsible for executing tasks from an external task queue. Supports being run in a separate thread. The same
+ * instance may be run by several worker threads at once, in which case each worker drains the shared TaskCollection
+ * and tracks its own current Task
  */
 public class TaskExecutor implements Runnable {
 
+    // Upper bound on how long an idle worker blocks waiting for a Task. Tasks wake workers immediately; this only
+    // bounds how long an idle worker takes to notice a shutdown request
+    protected static final long IDLE_WAIT_MILLISECONDS = 500;
+
     private boolean enabled = true;
-    private boolean shuttingDown = false;
+    private volatile boolean shuttingDown = false;
     private TaskCollection pendingTasks = null;
-    private Vector<Task> completedTasks = new Vector<>();
-    private Task currentTask = null;
+    private TaskHistory completedTasks = null;
+    private ConcurrentHashMap<Thread, Task> currentTasks = new ConcurrentHashMap<>();
+    private volatile ForkJoinPool forkJoinPool = null;
+    private volatile TaskCoalescer coalescer = null;
+    private volatile TaskMetrics metrics = null;
+    private volatile int batchSize = 1;
+
+    // Tasks a worker has removed from the pending collection in a batch, but not yet started. Handed back to the
+    //  collection when the worker parks or exits, so that they are neither stranded nor hidden from other workers
+    private final ThreadLocal<ArrayDeque<Task>> claimedTasks = ThreadLocal.withInitial(ArrayDeque::new);
 
     /**
-     * Constructor - initializes TaskExecutor with a reference to a collection serving tasks to be executed
+     * Constructor - initializes TaskExecutor with a reference to a collection serving tasks to be executed and a store
+     * for completed tasks
      *
-     * @param tasks - TaskCollection tracking Tasks to be executed. (Note that this is not owned by TaskExecutor,
-     *              merely consumed)
+     * @param tasks          - TaskCollection tracking Tasks to be executed. (Note that this is not owned by
+     *                       TaskExecutor, merely consumed)
+     * @param completedTasks - TaskHistory receiving Tasks once they finish
      */
-    public TaskExecutor(TaskCollection tasks) {
+    public TaskExecutor(TaskCollection tasks, TaskHistory completedTasks) {
         pendingTasks = tasks;
+        this.completedTasks = completedTasks;
+    }
+
+    /**
+     * Returns a snapshot of the Tasks currently being executed, one per busy worker thread. The list is empty when no
+     * worker is executing a Task
+     *
+     * @return - List of currently executing Tasks (may be empty)
+     */
+    public List<Task> getCurrentTasks() {
+        return new ArrayList<>(currentTasks.values());
+    }
+
+    /**
+     * Sets the work-stealing pool handed to each Task so that it may split its work into parallel subtasks. Null
+     * disables parallel execution (each Task runs entirely on its worker thread)
+     *
+     * @param pool - ForkJoinPool for Task subtasks, or null
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        forkJoinPool = pool;
     }
 
     /**
-     * Returns the currently executing Task if there is one, null otherwise
+     * Sets the coalescer tracking Tasks that share an execution, so that they are updated when the executing Task
+     * starts and finishes. Null disables coalescing support
      *
-     * @return - currently executing Task or null
+     * @param taskCoalescer - TaskCoalescer shared with the Task scheduler, or null
      */
-    public Task getCurrentTask() {
-        return currentTask;
+    public void setTaskCoalescer(TaskCoalescer taskCoalescer) {
+        coalescer = taskCoalescer;
+    }
+
+    /**
+     * Sets the metrics recording when Tasks start and finish. Null disables instrumentation
+     *
+     * @param taskMetrics - TaskMetrics shared with the Task scheduler, or null
+     */
+    public void setTaskMetrics(TaskMetrics taskMetrics) {
+        metrics = taskMetrics;
+    }
+
+    /**
+     * Sets how many Tasks a worker removes from the pending collection at a time. Larger batches reduce contention on
+     * the collection when Tasks are short, but a worker holding a batch cannot share it with idle workers, so the
+     * default of 1 keeps long-running Tasks evenly spread
+     *
+     * @param size - maximum number of Tasks claimed per removal (1 - n)
+     * @throws InvalidParameterException - if the size is less than 1
+     */
+    public void setBatchSize(int size) {
+        if (size < 1) {
+            throw new InvalidParameterException("Invalid batch size: " + size);
+        }
+
+        batchSize = size;
     }
 
     /**
-     * Signals the TaskExecutor to shut down (i.e., to stop executing tasks and to exit the processing loop)
+     * Signals the TaskExecutor to shut down (i.e., to stop executing tasks and to exit the processing loop). Wakes any
+     * workers parked while the executor is disabled
      */
-    public void shutdown() {
+    public synchronized void shutdown() {
         shuttingDown = true;
+        notifyAll();
     }
 
     /**
-     * Enables the TaskExecutor allowing it to process tasks
+     * Enables the TaskExecutor allowing it to process tasks. Wakes any workers parked while the executor was disabled
      */
     public synchronized void enable() {
         enabled = true;
+        notifyAll();
     }
 
     /**
-     * Disables the TaskExecutor preventing it from processing tasks. (Note that the processing loop is still active,
-     * but does not read or execute any new tasks)
+     * Disables the TaskExecutor preventing it from processing tasks. (Note that worker threads remain alive, but park
+     * without reading or executing any new tasks until the executor is enabled or shut down)
      */
     public synchronized void disable() {
         enabled = false;
@@ -67,51 +140,210 @@ public class TaskExecutor implements Runnable {
      * {@inheritDoc}
      * Creates a loop that executes tasks from the pending queue until TaskExecutor is marked for shutdown.
      * Even when marked for shutdown, any active Task will continue to be processed (although Task may terminate itself
-     * early if desired)
+     * early if desired). Tasks claimed in a batch but not yet started are returned to the pending collection when the
+     * worker parks because the executor is disabled, and when it exits
      */
     @Override
     public void run() {
-        while (!shuttingDown) {
-            processNextTask();
+        try {
+            while (!shuttingDown) {
+                try {
+                    if (!isEnabled()) {
+                        restoreClaimedTasks();
+                    }
 
-            // Sleep briefly to help make queue draining visible for this exercise. In a production environment, we may
-            // still want to sleep when pending queue is empty to avoid excessive thrashing
-            try {
-                final long sleepMilliseconds = 1000;
-                Thread.sleep(sleepMilliseconds);
+                    awaitEnabled();
 
-            } catch (InterruptedException ignored) {
+                    processNextTask();
+
+                } catch (InterruptedException ignored) {
+                }
             }
+
+        } finally {
+            restoreClaimedTasks();
+        }
+    }
+
+    /**
+     * Returns the calling worker's claimed but unstarted Tasks to the pending collection
+     */
+    private void restoreClaimedTasks() {
+        ArrayDeque<Task> claimed = claimedTasks.get();
+
+        if (!claimed.isEmpty()) {
+            List<Task> unstarted = new ArrayList<>(claimed);
+            claimed.clear();
+            pendingTasks.restoreTasks(unstarted);
+        }
+    }
+
+    /**
+     * Parks the calling worker while the TaskExecutor is disabled. Returns once it is enabled or shutting down
+     *
+     * @throws InterruptedException - if the worker is interrupted while parked
+     */
+    private synchronized void awaitEnabled() throws InterruptedException {
+        while (!enabled && !shuttingDown) {
+            wait();
         }
     }
 
     /**
-     * Retrieves and executes a single task from the pending queue
+     * Returns whether the TaskExecutor has been signalled to shut down
+     *
+     * @return - whether the TaskExecutor is shutting down
+     */
+    protected boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    /**
+     * Retrieves and executes a single task from the pending queue on the calling worker thread. Blocks briefly waiting
+     * for a task when the queue is empty, waking as soon as one is added
+     *
+     * @throws InterruptedException - if the worker is interrupted while waiting for a task
      */
-    protected void processNextTask() {
+    protected void processNextTask() throws InterruptedException {
 
         if (!isEnabled()) {
             return;
         }
 
-        currentTask = pendingTasks.removeTask();
+        Task task = takeNextTask();
+
+        if (task == null) {
+            return;
+        }
+
+        executeTask(task);
+    }
+
+    /**
+     * Returns the next Task for the calling thread: the next one it has already claimed, otherwise one removed from
+     * the pending collection (waiting briefly if it is empty) along with up to 'batchSize - 1' more claimed for later
+     *
+     * @return - the next Task, or null if none became available in time
+     * @throws InterruptedException - if the thread is interrupted while waiting for a task
+     */
+    protected Task takeNextTask() throws InterruptedException {
+        ArrayDeque<Task> claimed = claimedTasks.get();
+
+        Task task = claimed.poll();
+        if (task != null) {
+            return task;
+        }
+
+        task = pendingTasks.removeTask(IDLE_WAIT_MILLISECONDS, TimeUnit.MILLISECONDS);
+
+        int size = batchSize;
+        if (task != null && size > 1) {
+            pendingTasks.removeTasks(claimed, size - 1);
+        }
+
+        return task;
+    }
 
-        if (currentTask == null) {
+    /**
+     * Executes a single, already dequeued task on the calling thread, tracking it as that thread's current Task and
+     * recording it (and any Tasks sharing its execution) as completed once it finishes
+     *
+     * @param task - the Task to execute
+     */
+    protected void executeTask(Task task) {
+        TaskCoalescer taskCoalescer = coalescer;
+        TaskMetrics taskMetrics = metrics;
+
+        // Tasks cancelled while pending are left in the collection as tombstones (rather than searched for and
+        // removed), so they are recorded as finished here without being run
+        if (Task.isTerminal(task.getState())) {
+            if (taskMetrics != null) {
+                taskMetrics.taskDiscarded(task);
+            }
+
+            finishTask(task, taskCoalescer);
             return;
         }
 
-        currentTask.startTask();
+        Thread worker = Thread.currentThread();
+        currentTasks.put(worker, task);
+
+        try {
+            task.setForkJoinPool(forkJoinPool);
+
+            if (taskCoalescer != null) {
+                taskCoalescer.started(task);
+            }
+
+            long startNanos = (taskMetrics == null) ? 0 : taskMetrics.taskStarted(task);
+
+            task.startTask();
+
+            if (taskMetrics != null) {
+                taskMetrics.taskFinished(task, startNanos);
+            }
+
+        } finally {
+            // Under the Task's monitor, so that 'interruptTask()' cannot interrupt this thread once it has moved on;
+            // any interrupt delivered while the Task ran is then cleared so it does not affect the next Task
+            synchronized (task) {
+                currentTasks.remove(worker);
+            }
+
+            Thread.interrupted();
+        }
+
+        finishTask(task, taskCoalescer);
+    }
+
+    /**
+     * Acknowledges a finished Task to the pending collection and records it (and any Tasks sharing its execution) as
+     * completed
+     *
+     * @param task          - the finished Task
+     * @param taskCoalescer - the coalescer tracking Tasks sharing its execution, or null
+     */
+    private void finishTask(Task task, TaskCoalescer taskCoalescer) {
+        pendingTasks.acknowledgeTask(task);
+
+        List<Task> followers = (taskCoalescer == null) ? null : taskCoalescer.completed(task);
+
+        completedTasks.addTask(task);
+
+        if (followers != null) {
+            for (Task follower : followers) {
+                completedTasks.addTask(follower);
+            }
+        }
+    }
+
+    /**
+     * Interrupts the worker thread currently executing the given Task, if any, so that a Task blocked in an
+     * interruptible operation notices a cancellation request promptly. Has no effect once the Task has finished
+     *
+     * @param task - the Task whose worker should be interrupted
+     */
+    public void interruptTask(Task task) {
+        for (Map.Entry<Thread, Task> entry : currentTasks.entrySet()) {
+            if (entry.getValue() != task) {
+                continue;
+            }
 
-        completedTasks.add(currentTask);
+            synchronized (task) {
+                if (currentTasks.get(entry.getKey()) == task) {
+                    entry.getKey().interrupt();
+                }
+            }
+        }
     }
 
     /**
-     * Returns a copy of all completed Task records
+     * Returns a snapshot of the retained completed Task records (oldest first)
      *
-     * @return - Vector containing all completed Task records
+     * @return - List containing the retained completed Task records
      */
-    public Vector<Task> getCompletedTasks() {
+    public List<Task> getCompletedTasks() {
 
-        return (Vector<Task>) completedTasks.clone();
+        return completedTasks.getTasks();
     }
 }
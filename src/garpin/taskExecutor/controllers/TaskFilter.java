@@ -0,0 +1,84 @@
+package garpin.taskExecutor.controllers;
+
+/**
+ * Criteria for selecting Task records (e.g., when querying completed tasks). Each criterion is optional; an unset
+ * (null) criterion matches every Task
+ */
+public class TaskFilter {
+
+    private Task.TaskState state = null;
+    private String creator = null;
+    private String taskType = null;
+
+    /**
+     * Restricts matches to Tasks in the given state
+     *
+     * @param newState - required TaskState, or null for any state
+     */
+    public void setState(Task.TaskState newState) {
+        state = newState;
+    }
+
+    /**
+     * Returns the required TaskState, or null if any value matches
+     *
+     * @return - the required TaskState, or null
+     */
+    public Task.TaskState getState() {
+        return state;
+    }
+
+    /**
+     * Restricts matches to Tasks created by the given user (case-insensitive)
+     *
+     * @param user - required creator, or null for any creator
+     */
+    public void setCreator(String user) {
+        creator = user;
+    }
+
+    /**
+     * Returns the required creator, or null if any value matches
+     *
+     * @return - the required creator, or null
+     */
+    public String getCreator() {
+        return creator;
+    }
+
+    /**
+     * Restricts matches to Tasks of the given type (case-insensitive, e.g., "Fibonacci")
+     *
+     * @param type - required task type, or null for any type
+     */
+    public void setTaskType(String type) {
+        taskType = type;
+    }
+
+    /**
+     * Returns the required task type, or null if any value matches
+     *
+     * @return - the required task type, or null
+     */
+    public String getTaskType() {
+        return taskType;
+    }
+
+    /**
+     * Returns whether the given Task satisfies every criterion of this filter
+     *
+     * @param task - the Task to check
+     * @return - whether the Task matches
+     */
+    public boolean matches(Task task) {
+        if (state != null && task.getState() != state) {
+            return false;
+        }
+
+        if (creator != null && !creator.equalsIgnoreCase(task.getCreator())) {
+            return false;
+        }
+
+        return taskType == null || taskType.equalsIgnoreCase(task.getTaskType());
+    }
+}
@@ -0,0 +1,78 @@
+package garpin.taskExecutor.controllers;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Encapsulation around completed task storage. Kept separate from TaskCollection so that pending and completed tasks
+ * can be stored differently (see considerations.md). Implementations decide how many completed tasks are retained and
+ * for how long
+ */
+public interface TaskHistory {
+
+    /**
+     * Records a Task that has finished executing. May evict older records
+     *
+     * @param task - the completed Task
+     */
+    void addTask(Task task);
+
+    /**
+     * Returns a snapshot of the currently retained completed Tasks, oldest first
+     *
+     * @return - List of retained completed Tasks
+     */
+    List<Task> getTasks();
+
+    /**
+     * Returns up to 'limit' retained Tasks matching the filter, oldest first, starting at the given cursor.
+     * Pass 0 to start from the oldest retained record, then the previous page's 'getNextCursor()' to continue.
+     * Records evicted since the previous page are skipped
+     *
+     * @param cursor - position to resume from (0 for the beginning)
+     * @param limit  - maximum number of Tasks on the page (1 - n)
+     * @param filter - criteria Tasks must match, or null for all Tasks
+     * @return - the requested page
+     */
+    TaskPage<Task> getPage(long cursor, int limit, TaskFilter filter);
+
+    /**
+     * Returns an iterator that walks the retained Tasks matching the filter, oldest first, fetching them a page at a
+     * time so that only the records being consumed are touched. Records added while iterating may be included
+     *
+     * @param filter - criteria Tasks must match, or null for all Tasks
+     * @return - an Iterator over matching Tasks
+     */
+    default Iterator<Task> iterator(TaskFilter filter) {
+        final int pageSize = 256;
+
+        return new Iterator<Task>() {
+            private TaskPage<Task> page = getPage(0, pageSize, filter);
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (position >= page.getTasks().size()) {
+                    if (!page.hasMore()) {
+                        return false;
+                    }
+
+                    page = getPage(page.getNextCursor(), pageSize, filter);
+                    position = 0;
+                }
+
+                return true;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return page.getTasks().get(position++);
+            }
+        };
+    }
+}
@@ -0,0 +1,244 @@
+package garpin.taskExecutor.controllers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead instrumentation of Task execution. Counts Tasks at each state transition (scheduled, started, finished
+ * by final state) and records, per task type, how long Tasks waited between being scheduled and started and how long
+ * they ran. Recording costs two 'System.nanoTime()' calls, a few striped counter updates and two updates of striped
+ * histograms per Task: about 0.1 microseconds (see MetricsOverheadBenchmark), most of it the clock reads. That is
+ * under 1% only for Tasks running longer than about 10 microseconds; for a Fibonacci(20) Task (about 1 microsecond) it
+ * is about 12%, and for a Task doing no work at all it is about 40%
+ */
+public class TaskMetrics {
+
+    private final long createdNanos = System.nanoTime();
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    private final ConcurrentHashMap<String, LatencyHistogram> waitTimes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> runTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Records that a Task is about to be added to the pending collection
+     *
+     * @param task - the scheduled Task
+     */
+    public void taskScheduled(Task task) {
+        task.setScheduledNanoTime(System.nanoTime());
+        scheduled.increment();
+    }
+
+    /**
+     * Records that a Task recorded by 'taskScheduled()' could not be added to the pending collection after all
+     *
+     * @param task - the rejected Task
+     */
+    public void taskRejected(Task task) {
+        scheduled.decrement();
+    }
+
+    /**
+     * Records that a Task was scheduled but shares the execution of an identical Task instead of being queued
+     *
+     * @param task - the coalesced Task
+     */
+    public void taskCoalesced(Task task) {
+        coalesced.increment();
+    }
+
+    /**
+     * Records that a Task is about to start executing, along with how long it waited since it was scheduled
+     *
+     * @param task - the starting Task
+     * @return - the start time (from 'System.nanoTime()') to pass to 'taskFinished()'
+     */
+    public long taskStarted(Task task) {
+        long now = System.nanoTime();
+        started.increment();
+
+        // Tasks recovered from a journal were not scheduled in this process, so have no wait time
+        long scheduledNanos = task.getScheduledNanoTime();
+        if (scheduledNanos != 0) {
+            histogram(waitTimes, task.getTaskType()).record(now - scheduledNanos);
+        }
+
+        return now;
+    }
+
+    /**
+     * Records that a Task has finished executing, counting it by its final state
+     *
+     * @param task       - the finished Task
+     * @param startNanos - the value returned by 'taskStarted()'
+     */
+    public void taskFinished(Task task, long startNanos) {
+        histogram(runTimes, task.getTaskType()).record(System.nanoTime() - startNanos);
+
+        switch (task.getState()) {
+            case COMPLETED: {
+                completed.increment();
+                break;
+            }
+            case CANCELLED: {
+                cancelled.increment();
+                break;
+            }
+            default: {
+                failed.increment();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Records that a Task cancelled while pending was dequeued and discarded without being run
+     *
+     * @param task - the discarded Task
+     */
+    public void taskDiscarded(Task task) {
+        discarded.increment();
+    }
+
+    /**
+     * Returns the number of Tasks scheduled but not yet started. Tasks recovered from a journal are not included
+     *
+     * @return - approximate pending queue depth
+     */
+    public long getQueueDepth() {
+        return Math.max(0, scheduled.sum() - started.sum() - discarded.sum());
+    }
+
+    /**
+     * Returns the number of Tasks queued for execution
+     *
+     * @return - count of scheduled Tasks
+     */
+    public long getScheduledCount() {
+        return scheduled.sum();
+    }
+
+    /**
+     * Returns the number of Tasks that shared another Task's execution instead of being queued
+     *
+     * @return - count of coalesced Tasks
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the number of Tasks that have started executing
+     *
+     * @return - count of started Tasks
+     */
+    public long getStartedCount() {
+        return started.sum();
+    }
+
+    /**
+     * Returns the number of executed Tasks that completed successfully
+     *
+     * @return - count of completed Tasks
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the number of executed Tasks that were cancelled while running
+     *
+     * @return - count of cancelled Tasks
+     */
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    /**
+     * Returns the number of Tasks cancelled while pending, and so discarded without being run
+     *
+     * @return - count of discarded Tasks
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    /**
+     * Returns the number of executed Tasks that failed with an error
+     *
+     * @return - count of failed Tasks
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the average number of Tasks finished per second since these metrics were created
+     *
+     * @return - Tasks finished per second
+     */
+    public double getThroughput() {
+        double elapsedSeconds = Math.max(1, System.nanoTime() - createdNanos) / 1e9;
+        return (completed.sum() + cancelled.sum() + failed.sum()) / elapsedSeconds;
+    }
+
+    /**
+     * Returns the task types for which wait or run times have been recorded, sorted by name
+     *
+     * @return - List of task types
+     */
+    public List<String> getTaskTypes() {
+        List<String> types = new ArrayList<>(runTimes.keySet());
+
+        for (String type : waitTimes.keySet()) {
+            if (!types.contains(type)) {
+                types.add(type);
+            }
+        }
+
+        Collections.sort(types);
+        return types;
+    }
+
+    /**
+     * Returns the distribution of times (in nanoseconds) Tasks of the given type waited between being scheduled and
+     * started
+     *
+     * @param taskType - the task type (e.g., "Fibonacci")
+     * @return - LatencyHistogram of wait times (empty if none recorded)
+     */
+    public LatencyHistogram getWaitTimes(String taskType) {
+        return histogram(waitTimes, taskType);
+    }
+
+    /**
+     * Returns the distribution of times (in nanoseconds) Tasks of the given type spent executing
+     *
+     * @param taskType - the task type (e.g., "Fibonacci")
+     * @return - LatencyHistogram of run times (empty if none recorded)
+     */
+    public LatencyHistogram getRunTimes(String taskType) {
+        return histogram(runTimes, taskType);
+    }
+
+    private static LatencyHistogram histogram(ConcurrentHashMap<String, LatencyHistogram> histograms, String type) {
+        LatencyHistogram histogram = histograms.get(type);
+
+        // Avoid computeIfAbsent's locking on the hot path once the type's histogram exists
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(type, key -> new LatencyHistogram());
+        }
+
+        return histogram;
+    }
+}
@@ -0,0 +1,56 @@
+package garpin.taskExecutor.controllers;
+
+import java.util.List;
+
+/**
+ * A single page of Task records returned by a paged query, along with the cursor from which to request the next page
+ *
+ * @param <T> - type of the records on the page (Task for a TaskHistory, CompletedTask when archived records may be
+ *            included)
+ */
+public class TaskPage<T extends CompletedTask> {
+
+    private final List<T> tasks;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    /**
+     * Constructor
+     *
+     * @param tasks      - the Tasks on this page
+     * @param nextCursor - cursor to pass to the query to continue after this page
+     * @param hasMore    - whether records remain beyond this page (they may not all match the query's filter)
+     */
+    public TaskPage(List<T> tasks, long nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Returns the Tasks on this page
+     *
+     * @return - List of Tasks (may be empty)
+     */
+    public List<T> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the cursor to pass to the query to continue after this page
+     *
+     * @return - cursor for the next page
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns whether records remain beyond this page
+     *
+     * @return - whether another page may be requested
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,236 @@
+package garpin.taskExecutor.controllers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+
+/**
+ * Read-only view over a Task record encoded by TaskCodecRegistry. Reads fields directly from the underlying buffer, so
+ * records can be filtered or inspected (e.g., by state or creator) without creating Task objects. Only field offsets are
+ * computed up front; strings are decoded when requested and arguments are exposed as a slice of the buffer
+ */
+public class TaskRecord {
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int typeTag;
+    private final Task.TaskState state;
+    private final Task.TaskPriority priority;
+    private final int creatorOffset;
+    private final int creatorLength;
+    private final int resultsOffset;
+    private final int resultsLength;
+    private final int argumentsOffset;
+    private final int argumentsLength;
+    private final boolean hasDeadline;
+    private final boolean hasIntegerResults;
+    private final int flagsOffset;
+
+    /**
+     * Constructor - parses and validates the record header at the buffer's position (without changing the position).
+     * Every field must lie within the buffer's limit, so a truncated or corrupt record is rejected here rather than
+     * failing later when a field is read
+     *
+     * @param buffer - buffer positioned at an encoded Task
+     * @throws Exception - if the record's format version is not supported or the record is malformed
+     */
+    TaskRecord(ByteBuffer buffer) throws Exception {
+        this.buffer = buffer;
+        start = buffer.position();
+
+        int[] cursor = {start};
+
+        requireBytes(cursor[0], 1, "version");
+        byte version = buffer.get(cursor[0]++);
+        if (version != TaskCodecRegistry.FORMAT_VERSION) {
+            throw new InvalidParameterException("Unsupported task record version: " + version);
+        }
+
+        typeTag = getVarint(cursor, "type tag");
+
+        requireBytes(cursor[0], 3, "state, priority and flags");
+        state = getOrdinal(Task.TaskState.values(), buffer.get(cursor[0]), "state");
+        priority = getOrdinal(Task.TaskPriority.values(), buffer.get(cursor[0] + 1), "priority");
+
+        flagsOffset = cursor[0] + 2;
+        byte flags = buffer.get(flagsOffset);
+        if ((flags & ~(TaskCodecRegistry.FLAG_DEADLINE | TaskCodecRegistry.FLAG_INTEGER_RESULTS)) != 0) {
+            throw new InvalidParameterException("Corrupt task record: unknown flags " + flags);
+        }
+
+        hasDeadline = (flags & TaskCodecRegistry.FLAG_DEADLINE) != 0;
+        hasIntegerResults = (flags & TaskCodecRegistry.FLAG_INTEGER_RESULTS) != 0;
+        cursor[0] = flagsOffset + 1;
+
+        if (hasDeadline) {
+            requireBytes(cursor[0], 8, "deadline");
+            cursor[0] += 8;
+        }
+
+        creatorLength = getVarint(cursor, "creator length");
+        creatorOffset = cursor[0];
+        requireBytes(creatorOffset, creatorLength, "creator");
+        cursor[0] += creatorLength;
+
+        resultsLength = getVarint(cursor, "results length");
+        resultsOffset = cursor[0];
+        requireBytes(resultsOffset, resultsLength, "results");
+        if (hasIntegerResults && resultsLength == 0) {
+            throw new InvalidParameterException("Corrupt task record: empty integer results");
+        }
+        cursor[0] += resultsLength;
+
+        argumentsLength = getVarint(cursor, "arguments length");
+        argumentsOffset = cursor[0];
+        requireBytes(argumentsOffset, argumentsLength, "arguments");
+    }
+
+    /**
+     * Returns the tag identifying the record's Task type
+     *
+     * @return - the type tag
+     */
+    public int getTypeTag() {
+        return typeTag;
+    }
+
+    /**
+     * Returns the Task's state when it was encoded
+     *
+     * @return - the TaskState
+     */
+    public Task.TaskState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the Task's priority
+     *
+     * @return - the TaskPriority
+     */
+    public Task.TaskPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns the Task's deadline in epoch milliseconds, or 0 if it has none
+     *
+     * @return - the deadline
+     */
+    public long getDeadline() {
+        return hasDeadline ? buffer.getLong(flagsOffset + 1) : 0;
+    }
+
+    /**
+     * Returns the name of the user who created the Task
+     *
+     * @return - the creator
+     */
+    public String getCreator() {
+        return getString(creatorOffset, creatorLength);
+    }
+
+    /**
+     * Returns the Task's results when it was encoded, rendered as a String
+     *
+     * @return - the results
+     */
+    public String getResults() {
+        return hasIntegerResults ? getResult().toString() : getString(resultsOffset, resultsLength);
+    }
+
+    /**
+     * Returns the Task's results when it was encoded, in their native form (integer results are not rendered until
+     * requested; see TaskResult)
+     *
+     * @return - the results
+     */
+    public TaskResult getResult() {
+        return TaskResult.fromBytes(hasIntegerResults ? TaskResult.KIND_INTEGER : TaskResult.KIND_TEXT,
+                getBytes(resultsOffset, resultsLength));
+    }
+
+    /**
+     * Returns the type-specific argument bytes as a read-only slice of the underlying buffer (no copy)
+     *
+     * @return - buffer holding exactly the encoded arguments
+     */
+    public ByteBuffer getArguments() {
+        ByteBuffer arguments = buffer.asReadOnlyBuffer();
+        arguments.limit(argumentsOffset + argumentsLength);
+        arguments.position(argumentsOffset);
+        return arguments.slice();
+    }
+
+    /**
+     * Returns the total size of the encoded record in bytes
+     *
+     * @return - encoded size in bytes
+     */
+    public int getEncodedSize() {
+        return argumentsOffset + argumentsLength - start;
+    }
+
+    private String getString(int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+
+        return new String(getBytes(offset, length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] getBytes(int offset, int length) {
+        byte bytes[] = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Reads a varint written by 'TaskCodecRegistry.putVarint()', rejecting one that runs past the buffer's limit or
+     * does not encode a non-negative int
+     */
+    private int getVarint(int[] cursor, String field) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            if (cursor[0] >= buffer.limit() || shift > 28) {
+                throw new InvalidParameterException("Corrupt task record: invalid " + field);
+            }
+
+            b = buffer.get(cursor[0]++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        if (value < 0) {
+            throw new InvalidParameterException("Corrupt task record: invalid " + field);
+        }
+
+        return value;
+    }
+
+    /**
+     * Verifies that 'length' bytes starting at 'offset' lie within the buffer's limit
+     */
+    private void requireBytes(int offset, int length, String field) {
+        if (length > buffer.limit() - offset) {
+            throw new InvalidParameterException("Corrupt task record: truncated " + field);
+        }
+    }
+
+    /**
+     * Returns the enum constant with the given ordinal, rejecting an ordinal outside the enum's range
+     */
+    private static <E> E getOrdinal(E[] values, byte ordinal, String field) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new InvalidParameterException("Corrupt task record: invalid " + field + " " + ordinal);
+        }
+
+        return values[ordinal];
+    }
+}
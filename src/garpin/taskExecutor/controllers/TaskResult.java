@@ -0,0 +1,136 @@
+package garpin.taskExecutor.controllers;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+
+/**
+ * Holds a Task's output in its native form (e.g., a BigInteger) and renders it as a String only when first requested.
+ * Rendering a very large number can cost more than computing it, and most results are never viewed, so Tasks store
+ * their typed value here rather than converting it as soon as they finish. Stores that copy results (e.g., the task
+ * codec and TaskArchive) keep them in the same native form via 'toBytes()' and 'fromBytes()'
+ */
+public class TaskResult {
+
+    public static final TaskResult EMPTY = new TaskResult("");
+
+    // Kinds of stored result bytes (part of persisted formats, so values must never be reused)
+    public static final byte KIND_TEXT = 0;
+    public static final byte KIND_INTEGER = 1;
+
+    private final Object value;
+
+    // Rendered on first use. Rendering is idempotent, so concurrent first uses may each render without harm
+    private volatile String rendered = null;
+
+    /**
+     * Constructor
+     *
+     * @param value - the Task's output (rendered with its 'toString()'), or null for an empty result
+     */
+    public TaskResult(Object value) {
+        this.value = value;
+
+        if (value == null) {
+            rendered = "";
+        } else if (value instanceof String) {
+            rendered = (String) value;
+        }
+    }
+
+    /**
+     * Returns the Task's output in its native form
+     *
+     * @return - the output value, or null for an empty result
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Recreates a result from bytes produced by 'toBytes()'. An integer result is not rendered until it is requested
+     *
+     * @param kind  - KIND_TEXT or KIND_INTEGER, as returned by 'getKind()'
+     * @param bytes - the stored bytes
+     * @return - the TaskResult
+     * @throws InvalidParameterException - if the kind is unknown or an integer result has no bytes
+     */
+    public static TaskResult fromBytes(byte kind, byte bytes[]) {
+        if (kind == KIND_TEXT) {
+            return new TaskResult(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        if (kind == KIND_INTEGER && bytes.length > 0) {
+            return new TaskResult(new BigInteger(bytes));
+        }
+
+        throw new InvalidParameterException("Invalid result encoding: kind " + kind + ", " + bytes.length + " bytes");
+    }
+
+    /**
+     * Returns how 'toBytes()' stores this result: KIND_INTEGER for a BigInteger, otherwise KIND_TEXT
+     *
+     * @return - the kind of stored bytes
+     */
+    public byte getKind() {
+        return (value instanceof BigInteger) ? KIND_INTEGER : KIND_TEXT;
+    }
+
+    /**
+     * Returns the result in a compact form for storage, without rendering a BigInteger: its two's-complement bytes
+     * (see 'BigInteger.toByteArray()') for KIND_INTEGER, or the rendered output as UTF-8 for KIND_TEXT
+     *
+     * @return - the stored bytes
+     */
+    public byte[] toBytes() {
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).toByteArray();
+        }
+
+        return toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Estimates the heap retained by this result in bytes, including the String it renders to (whether or not it has
+     * been rendered yet, as it may be once viewed). A BigInteger is measured without rendering it
+     *
+     * @return - estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        if (value instanceof BigInteger) {
+            long bits = ((BigInteger) value).bitLength();
+
+            // Magnitude words plus about log10(2) decimal digits per bit, one byte each in a compact String
+            return bits / 8 + (long) (bits * 0.302) + 2;
+        }
+
+        return toString().length();
+    }
+
+    /**
+     * Returns whether the output has been rendered as a String yet
+     *
+     * @return - true if 'toString()' will not need to render the value
+     */
+    public boolean isRendered() {
+        return rendered != null;
+    }
+
+    /**
+     * Returns the output rendered as a String, rendering it on first use. A BigInteger is rendered in decimal using
+     * the JDK's recursive (divide-and-conquer) conversion, which is subquadratic for large values
+     *
+     * @return - String representation of the output
+     */
+    @Override
+    public String toString() {
+        String text = rendered;
+
+        if (text == null) {
+            text = value.toString();
+            rendered = text;
+        }
+
+        return text;
+    }
+}
@@ -0,0 +1,22 @@
+package garpin.taskExecutor.controllers;
+
+/**
+ * Receives notifications of Task state transitions (e.g., PENDING to RUNNING, RUNNING to COMPLETED). Listeners are
+ * invoked synchronously on the thread making the transition (often a worker thread), or on a thread delivering an
+ * earlier transition of the same Task, so they should return quickly and hand any lengthy work off to another thread.
+ * Each Task's transitions are delivered one at a time, in the order they were made. Exceptions thrown by listeners are
+ * ignored
+ */
+public interface TaskStateListener {
+
+    /**
+     * Called after a Task's state has changed
+     *
+     * @param task          - the Task whose state changed
+     * @param previousState - the state before the transition
+     * @param newState      - the state after the transition
+     * @param sequence      - the transition's number among the Task's transitions (1 for the first), so that
+     *                      transitions handed on to other threads can be put back in order
+     */
+    void stateChanged(Task task, Task.TaskState previousState, Task.TaskState newState, long sequence);
+}
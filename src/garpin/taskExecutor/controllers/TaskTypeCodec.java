@@ -0,0 +1,51 @@
+package garpin.taskExecutor.controllers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the type-specific part (i.e., the arguments) of one concrete Task type. Registered with a TaskCodecRegistry,
+ * which handles the fields common to every Task
+ *
+ * @param <T> - the concrete Task type
+ */
+public interface TaskTypeCodec<T extends Task> {
+
+    /**
+     * Returns the concrete Task class handled by this codec
+     *
+     * @return - the Task class
+     */
+    Class<T> getTaskClass();
+
+    /**
+     * Creates a new, unpopulated Task of this codec's type
+     *
+     * @return - a new Task
+     */
+    T createTask();
+
+    /**
+     * Returns the number of bytes 'writeArguments()' will write for the given Task
+     *
+     * @param task - the Task to be encoded
+     * @return - size of the encoded arguments in bytes
+     */
+    int getArgumentsSize(T task);
+
+    /**
+     * Writes the Task's arguments at the buffer's position
+     *
+     * @param task   - the Task to be encoded
+     * @param buffer - destination buffer with at least 'getArgumentsSize()' bytes remaining
+     */
+    void writeArguments(T task, ByteBuffer buffer);
+
+    /**
+     * Reads arguments previously written by 'writeArguments()' into the given Task
+     *
+     * @param task      - the Task being decoded
+     * @param arguments - buffer holding exactly the encoded arguments
+     * @throws Exception - if the arguments are malformed
+     */
+    void readArguments(T task, ByteBuffer arguments) throws Exception;
+}
@@ -0,0 +1,156 @@
+package garpin.taskExecutor.controllers;
+
+import java.security.InvalidParameterException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskExecutor backend that runs each dequeued Task on its own virtual thread. Suited to Tasks that spend most of their
+ * time blocked (e.g., on I/O), where a small pool of platform threads would leave cores idle. A single dispatcher
+ * thread running this executor is sufficient; the number of Tasks running at once is bounded by a concurrency limit.
+ * Enable, disable and shutdown behave as in TaskExecutor: disabling stops new Tasks from being dequeued and shutting
+ * down lets running Tasks finish.
+ * Virtual threads require Java 21 or later. They are looked up reflectively so that the rest of the project still
+ * builds and runs on Java 8 (see isSupported())
+ */
+public class VirtualThreadTaskExecutor extends TaskExecutor {
+
+    private final Semaphore permits;
+    private final ExecutorService threads;
+
+    /**
+     * Constructor - initializes the executor with a collection serving tasks and a limit on concurrently running tasks
+     *
+     * @param tasks          - TaskCollection tracking Tasks to be executed (consumed, not owned)
+     * @param completedTasks - TaskHistory receiving Tasks once they finish
+     * @param maxConcurrency - maximum number of Tasks running at once (1 - n)
+     * @throws Exception - if the limit is not positive or the running JVM does not support virtual threads
+     */
+    public VirtualThreadTaskExecutor(TaskCollection tasks, TaskHistory completedTasks, int maxConcurrency)
+            throws Exception {
+        this(tasks, completedTasks, maxConcurrency, createVirtualThreadExecutor());
+    }
+
+    /**
+     * Constructor - as above, but running Tasks on the given ExecutorService (e.g., for testing on JVMs without
+     * virtual threads)
+     *
+     * @param tasks          - TaskCollection tracking Tasks to be executed (consumed, not owned)
+     * @param completedTasks - TaskHistory receiving Tasks once they finish
+     * @param maxConcurrency - maximum number of Tasks running at once (1 - n)
+     * @param threads        - ExecutorService starting a thread per Task (owned; shut down with this executor)
+     */
+    VirtualThreadTaskExecutor(TaskCollection tasks, TaskHistory completedTasks, int maxConcurrency,
+                              ExecutorService threads) {
+        super(tasks, completedTasks);
+
+        if (maxConcurrency <= 0) {
+            threads.shutdown();
+            throw new InvalidParameterException("Invalid concurrency limit: " + maxConcurrency);
+        }
+
+        permits = new Semaphore(maxConcurrency);
+        this.threads = threads;
+    }
+
+    /**
+     * Returns whether the running JVM supports virtual threads (Java 21 or later)
+     *
+     * @return - whether this backend can be used
+     */
+    public static boolean isSupported() {
+        try {
+            createVirtualThreadExecutor().shutdown();
+            return true;
+
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an ExecutorService that starts a new virtual thread per submitted task. Uses reflection so that this
+     * class compiles against Java 8
+     *
+     * @return - a virtual-thread-per-task ExecutorService
+     * @throws Exception - if virtual threads are not available in the running JVM
+     */
+    private static ExecutorService createVirtualThreadExecutor() throws Exception {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            throw new Exception("Virtual threads require Java 21 or later", ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Signals the executor to shut down. Tasks already running on virtual threads are allowed to finish
+     */
+    @Override
+    public synchronized void shutdown() {
+        super.shutdown();
+
+        threads.shutdown();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Waits for a free concurrency slot, then dequeues a task and hands it to a new virtual thread. The dispatcher does
+     * not wait for the Task to finish, unless the executor was shut down while the task was being dequeued, in which
+     * case the dispatcher runs it rather than lose it
+     *
+     * @throws InterruptedException - if the dispatcher is interrupted while waiting
+     */
+    @Override
+    protected void processNextTask() throws InterruptedException {
+
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (!permits.tryAcquire(IDLE_WAIT_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+            return;
+        }
+
+        Task task = null;
+
+        try {
+            if (!isShuttingDown()) {
+                task = takeNextTask();
+            }
+
+        } finally {
+            if (task == null) {
+                permits.release();
+            }
+        }
+
+        if (task == null) {
+            return;
+        }
+
+        final Task dequeued = task;
+
+        Runnable execution = () -> {
+            try {
+                executeTask(dequeued);
+
+            } finally {
+                permits.release();
+            }
+        };
+
+        try {
+            threads.execute(execution);
+
+        } catch (RejectedExecutionException ex) {
+            // 'shutdown()' ran while 'takeNextTask()' was waiting; the Task is already dequeued, so finish it here
+            execution.run();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.CompletedTask;
+import garpin.taskExecutor.controllers.Task;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Minimal JSON rendering for the HTTP front end. Values are written straight to the output, so large results need not
+ * be copied into an intermediate String
+ */
+class Json {
+
+    /**
+     * Writes a String as a quoted, escaped JSON string (or null)
+     *
+     * @param output - destination
+     * @param value  - String to write, or null
+     * @throws IOException - if the destination cannot be written
+     */
+    static void writeString(Appendable output, String value) throws IOException {
+        if (value == null) {
+            output.append("null");
+            return;
+        }
+
+        output.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    output.append("\\\"");
+                    break;
+                case '\\':
+                    output.append("\\\\");
+                    break;
+                case '\n':
+                    output.append("\\n");
+                    break;
+                case '\r':
+                    output.append("\\r");
+                    break;
+                case '\t':
+                    output.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        output.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        output.append(c);
+                    }
+            }
+        }
+
+        output.append('"');
+    }
+
+    /**
+     * Writes a Task as a JSON object with its id, type, creator, state, progress and results. Archived records do not
+     * retain their progress, so it is omitted for them
+     *
+     * @param output - destination
+     * @param task   - Task or archived record to write
+     * @throws IOException - if the destination cannot be written
+     */
+    static void writeTask(Appendable output, CompletedTask task) throws IOException {
+        output.append("{\"id\":").append(Long.toString(task.getId()));
+        output.append(",\"type\":");
+        writeString(output, task.getTaskType());
+        output.append(",\"user\":");
+        writeString(output, task.getCreator());
+        output.append(",\"state\":\"").append(task.getState().name()).append('"');
+        if (task instanceof Task) {
+            output.append(",\"progress\":").append(String.format(Locale.ROOT, "%.3f", ((Task) task).getProgress()));
+        }
+        output.append(",\"result\":");
+        writeString(output, task.getResults());
+        output.append('}');
+    }
+
+    /**
+     * Writes a TaskEvent as a JSON object with the Task's id, type and creator, and the previous and new states
+     *
+     * @param output - destination
+     * @param event  - TaskEvent to write
+     * @throws IOException - if the destination cannot be written
+     */
+    static void writeEvent(Appendable output, TaskEvent event) throws IOException {
+        output.append("{\"id\":").append(Long.toString(event.getTaskId()));
+        output.append(",\"type\":");
+        writeString(output, event.getTaskType());
+        output.append(",\"user\":");
+        writeString(output, event.getCreator());
+        output.append(",\"previousState\":\"").append(event.getPreviousState().name()).append('"');
+        output.append(",\"state\":\"").append(event.getState().name()).append('"');
+        output.append(",\"sequence\":").append(Long.toString(event.getSequence()));
+        output.append('}');
+    }
+}
@@ -0,0 +1,52 @@
+package garpin.taskExecutor.service;
+
+/**
+ * A page of completed Tasks fetched from a TaskService, rendered by the service, along with the cursor from which to
+ * request the next page
+ */
+public class RemoteTaskPage {
+
+    private final String info;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    /**
+     * Constructor
+     *
+     * @param info       - the rendered Tasks on this page
+     * @param nextCursor - cursor to pass to the query to continue after this page
+     * @param hasMore    - whether records remain beyond this page
+     */
+    public RemoteTaskPage(String info, long nextCursor, boolean hasMore) {
+        this.info = info;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Returns the rendered Tasks on this page (see 'TaskController.renderTaskPage()')
+     *
+     * @return - String summary of the page's Tasks
+     */
+    public String getInfo() {
+        return info;
+    }
+
+    /**
+     * Returns the cursor to pass to the query to continue after this page
+     *
+     * @return - cursor for the next page
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns whether records remain beyond this page
+     *
+     * @return - true if another page may be requested
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
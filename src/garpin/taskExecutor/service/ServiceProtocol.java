@@ -0,0 +1,117 @@
+package garpin.taskExecutor.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+
+/**
+ * Wire format shared by TaskService and TaskServiceClient.
+ * Every message is a frame: body length (int), request id (long), code (byte), payload. For a request the code is
+ * the operation; for a response it is a status, and the request id is echoed back so that a client may pipeline
+ * several requests on one connection and match responses as they arrive. All integers are big-endian and strings are
+ * a length (int) followed by UTF-8 bytes.
+ * Requests on one connection are executed in the order they were sent
+ */
+class ServiceProtocol {
+
+    // Request id (long) and code (byte)
+    static final int FRAME_HEADER_BYTES = 8 + 1;
+
+    // Upper bound on a frame body, protecting the service from malformed or hostile length prefixes
+    static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    // Operations. Never reuse or renumber these
+    static final byte OP_SET_USER = 1;            // payload: user (string) -> empty
+    static final byte OP_SCHEDULE_TASK = 2;       // payload: TaskCodecRegistry record -> Task id (long)
+    static final byte OP_CANCEL_TASK = 3;         // payload: Task id (long) -> requested (byte)
+    static final byte OP_CANCEL_CURRENT_TASK = 4; // payload: none -> empty
+    static final byte OP_CURRENT_TASK_INFO = 5;   // payload: none -> info (string)
+    static final byte OP_COMPLETED_TASKS = 6;     // payload: cursor (long), page size (int) -> info (string),
+                                                  //  next cursor (long), has more (byte)
+    static final byte OP_METRICS_INFO = 7;        // payload: none -> info (string)
+    static final byte OP_ENABLE_EXECUTOR = 8;     // payload: none -> empty
+    static final byte OP_DISABLE_EXECUTOR = 9;    // payload: none -> empty
+
+    // Response statuses
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;           // payload: error message (string)
+
+    /**
+     * Returns the number of bytes 'putString()' writes for the given String
+     *
+     * @param value - String to be written
+     * @return - encoded size in bytes
+     */
+    static int stringSize(String value) {
+        return 4 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 String
+     *
+     * @param buffer - destination buffer
+     * @param value  - String to write
+     */
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a String written by 'putString()'
+     *
+     * @param buffer - source buffer
+     * @return - the String read
+     */
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining()) {
+            throw new InvalidParameterException("Invalid string length: " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Allocates a complete frame with the given request id and code and room for a payload of the given size. The
+     * returned buffer is positioned at the start of the payload; flip it once the payload has been written
+     *
+     * @param requestId   - request id of the frame
+     * @param code        - operation (for a request) or status (for a response)
+     * @param payloadSize - size of the payload in bytes
+     * @return - a buffer positioned for the payload
+     * @throws InvalidParameterException - if the frame would exceed MAX_FRAME_BYTES, which the peer would reject
+     */
+    static ByteBuffer allocateFrame(long requestId, byte code, int payloadSize) {
+        if (payloadSize < 0 || payloadSize > MAX_FRAME_BYTES - FRAME_HEADER_BYTES) {
+            throw new InvalidParameterException("Message too large: " + payloadSize + " bytes (limit "
+                    + (MAX_FRAME_BYTES - FRAME_HEADER_BYTES) + ")");
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(4 + FRAME_HEADER_BYTES + payloadSize);
+
+        frame.putInt(FRAME_HEADER_BYTES + payloadSize);
+        frame.putLong(requestId);
+        frame.put(code);
+
+        return frame;
+    }
+
+    /**
+     * Validates a frame's body length prefix
+     *
+     * @param length - the body length read from the wire
+     * @throws InvalidParameterException - if the length is out of range
+     */
+    static void verifyFrameLength(int length) {
+        if (length < FRAME_HEADER_BYTES || length > MAX_FRAME_BYTES) {
+            throw new InvalidParameterException("Invalid frame length: " + length);
+        }
+    }
+}
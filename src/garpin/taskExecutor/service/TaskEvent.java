@@ -0,0 +1,124 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.Task;
+
+/**
+ * An immutable snapshot of a Task state transition, as published by TaskEventStream
+ */
+public class TaskEvent {
+
+    private final long eventId;
+    private final long taskId;
+    private final String taskType;
+    private final String creator;
+    private final Task.TaskState previousState;
+    private final Task.TaskState state;
+    private final long sequence;
+
+    /**
+     * Constructor
+     *
+     * @param eventId       - sequence number of the event within its stream
+     * @param taskId        - id of the Task
+     * @param taskType      - the Task's type
+     * @param creator       - the Task's creator
+     * @param previousState - state before the transition
+     * @param state         - state after the transition
+     * @param sequence      - the transition's number among the Task's transitions
+     */
+    public TaskEvent(long eventId, long taskId, String taskType, String creator, Task.TaskState previousState,
+                     Task.TaskState state, long sequence) {
+        this.eventId = eventId;
+        this.taskId = taskId;
+        this.taskType = taskType;
+        this.creator = creator;
+        this.previousState = previousState;
+        this.state = state;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the event's sequence number. Numbers increase with each event in a stream; gaps indicate events that
+     * were coalesced or dropped for the receiving subscriber
+     *
+     * @return - the event id
+     */
+    public long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Returns the id of the Task that changed state
+     *
+     * @return - the Task id
+     */
+    public long getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * Returns the type of the Task that changed state
+     *
+     * @return - the Task type
+     */
+    public String getTaskType() {
+        return taskType;
+    }
+
+    /**
+     * Returns the creator of the Task that changed state
+     *
+     * @return - the Task creator
+     */
+    public String getCreator() {
+        return creator;
+    }
+
+    /**
+     * Returns the Task's state before the transition (or before the first of several coalesced transitions)
+     *
+     * @return - the previous TaskState
+     */
+    public Task.TaskState getPreviousState() {
+        return previousState;
+    }
+
+    /**
+     * Returns the Task's state after the transition
+     *
+     * @return - the new TaskState
+     */
+    public Task.TaskState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the transition's number among the Task's transitions (see 'TaskStateListener.stateChanged()'). A
+     * coalesced event carries the number of its last transition
+     *
+     * @return - the transition sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns an event combining this transition with another one of the same Task. Transitions are ordered by their
+     * sequence numbers rather than by arrival, and a terminal state is never replaced, so the combined event always
+     * reports the Task's latest known state
+     *
+     * @param other - another event for the same Task
+     * @return - an event from the earlier event's previous state to the later event's state
+     */
+    TaskEvent coalesce(TaskEvent other) {
+        TaskEvent earlier = other.sequence < sequence ? other : this;
+        TaskEvent later = earlier == this ? other : this;
+
+        if (Task.isTerminal(earlier.state)) {
+            return earlier;
+        }
+
+        return new TaskEvent(Math.max(eventId, other.eventId), taskId, taskType, creator, earlier.previousState,
+                later.state, later.sequence);
+    }
+}
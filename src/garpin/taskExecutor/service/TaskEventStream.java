@@ -0,0 +1,300 @@
+package garpin.taskExecutor.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskStateListener;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes every Task state transition to any number of subscribers, so that clients can follow Tasks without polling.
+ * Register it with 'TaskController.addStateListener()'; over HTTP (see TaskHttpServer) subscribers receive the events
+ * as a server-sent event stream.
+ * Publishing never blocks the thread changing the Task's state. Each subscriber has a bounded buffer holding at most
+ * one event per Task: a later transition of a Task that has not yet been delivered replaces the earlier one (e.g.,
+ * PENDING to RUNNING followed by RUNNING to COMPLETED is delivered as PENDING to COMPLETED). Events are combined in
+ * order of each Task's transition sequence numbers, so a Task's reported state never moves backwards. When a slow
+ * subscriber's buffer holds as many Tasks as it can, events for further Tasks are dropped and the subscriber is told
+ * how many were lost, so it can resynchronize from the completed Task history
+ */
+public class TaskEventStream implements TaskStateListener, Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_MAX_SUBSCRIBERS = 64;
+
+    // Idle connections are sent a comment at this interval, which also detects clients that have gone away
+    private static final long HEARTBEAT_MILLISECONDS = TimeUnit.SECONDS.toMillis(15);
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final AtomicLong nextEventId = new AtomicLong(1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor - uses the default buffer size and subscriber limit
+     */
+    public TaskEventStream() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_SUBSCRIBERS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param bufferSize     - maximum number of Tasks with undelivered events per subscriber (1 - n)
+     * @param maxSubscribers - maximum number of concurrent subscribers (1 - n)
+     */
+    public TaskEventStream(int bufferSize, int maxSubscribers) {
+        if (bufferSize <= 0) {
+            throw new InvalidParameterException("Invalid buffer size: " + bufferSize);
+        }
+
+        if (maxSubscribers <= 0) {
+            throw new InvalidParameterException("Invalid subscriber limit: " + maxSubscribers);
+        }
+
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @Override
+    public void stateChanged(Task task, Task.TaskState previousState, Task.TaskState newState, long sequence) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        TaskEvent event = new TaskEvent(nextEventId.getAndIncrement(), task.getId(), task.getTaskType(),
+                task.getCreator(), previousState, newState, sequence);
+
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Adds a subscriber, which receives every transition published from now on
+     *
+     * @return - the new Subscription
+     * @throws Exception - if the subscriber limit has been reached
+     */
+    public synchronized Subscription subscribe() throws Exception {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new Exception("Too many event subscribers");
+        }
+
+        Subscription subscription = new Subscription();
+        subscriptions.add(subscription);
+
+        return subscription;
+    }
+
+    /**
+     * Returns the number of current subscribers
+     *
+     * @return - subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Closes every subscription
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Serves a server-sent event stream over HTTP. The stream is written by a thread dedicated to the subscriber, so
+     * the calling HTTP handler thread is released immediately
+     *
+     * @param exchange - the request and its response
+     * @throws IOException - if the response cannot be written
+     */
+    void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            TaskHttpServer.sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+            exchange.close();
+            return;
+        }
+
+        Subscription subscription;
+
+        try {
+            subscription = subscribe();
+        } catch (Exception ex) {
+            TaskHttpServer.sendError(exchange, 503, ex.getMessage());
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        Thread writer = new Thread(() -> writeEvents(exchange, subscription), "task-event-subscriber");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes a subscription's events to an HTTP response until the subscription is closed or the client goes away
+     *
+     * @param exchange     - the response to write to
+     * @param subscription - the subscription to deliver
+     */
+    private void writeEvents(HttpExchange exchange, Subscription subscription) {
+        try (Writer output = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+
+            // Sent immediately so that clients know the subscription is in place
+            output.write(":subscribed\n\n");
+            output.flush();
+
+            while (!subscription.isClosed()) {
+                List<TaskEvent> events = subscription.poll(HEARTBEAT_MILLISECONDS, TimeUnit.MILLISECONDS);
+                long dropped = subscription.takeDroppedCount();
+
+                if (dropped > 0) {
+                    output.write("event: dropped\ndata: {\"count\":" + dropped + "}\n\n");
+                }
+
+                for (TaskEvent event : events) {
+                    output.write("id: " + event.getEventId() + "\nevent: state\ndata: ");
+                    Json.writeEvent(output, event);
+                    output.write("\n\n");
+                }
+
+                if (events.isEmpty() && dropped == 0) {
+                    output.write(":\n\n");
+                }
+
+                output.flush();
+            }
+        } catch (IOException | InterruptedException ignored) {
+            // The client has gone away (or the stream is shutting down)
+        } finally {
+            subscription.close();
+            exchange.close();
+        }
+    }
+
+    /**
+     * A subscriber's bounded buffer of undelivered events, holding at most one (coalesced) event per Task
+     */
+    public class Subscription implements Closeable {
+
+        // Undelivered events by Task id, in order of each Task's first undelivered transition. Guarded by this object
+        private final LinkedHashMap<Long, TaskEvent> pending = new LinkedHashMap<>();
+        private long droppedCount = 0;
+        private boolean closed = false;
+
+        private Subscription() {
+        }
+
+        /**
+         * Buffers an event, coalescing it with an undelivered event of the same Task (see 'TaskEvent.coalesce()') or
+         * dropping it if the buffer is full
+         *
+         * @param event - the event to buffer
+         */
+        private synchronized void offer(TaskEvent event) {
+            if (closed) {
+                return;
+            }
+
+            TaskEvent undelivered = pending.get(event.getTaskId());
+
+            if (undelivered != null) {
+                pending.put(event.getTaskId(), undelivered.coalesce(event));
+            } else if (pending.size() < bufferSize) {
+                pending.put(event.getTaskId(), event);
+            } else {
+                droppedCount++;
+            }
+
+            notifyAll();
+        }
+
+        /**
+         * Waits until events are available, events have been dropped, or the timeout elapses, and removes every
+         * buffered event
+         *
+         * @param timeout - maximum time to wait
+         * @param unit    - unit of the timeout
+         * @return - buffered events, oldest first (empty if none arrived in time or the subscription is closed)
+         * @throws InterruptedException - if interrupted while waiting
+         */
+        public synchronized List<TaskEvent> poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+            while (pending.isEmpty() && droppedCount == 0 && !closed) {
+                long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    break;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+
+            if (pending.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<TaskEvent> events = new ArrayList<>(pending.values());
+            pending.clear();
+
+            return events;
+        }
+
+        /**
+         * Returns the number of events dropped since the previous call, because the buffer was full
+         *
+         * @return - count of dropped events
+         */
+        public synchronized long takeDroppedCount() {
+            long dropped = droppedCount;
+            droppedCount = 0;
+
+            return dropped;
+        }
+
+        /**
+         * Returns whether the subscription has been closed
+         *
+         * @return - true if closed
+         */
+        public synchronized boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Stops delivery to this subscriber and removes it from the stream
+         */
+        @Override
+        public synchronized void close() {
+            closed = true;
+            pending.clear();
+            subscriptions.remove(this);
+
+            notifyAll();
+        }
+    }
+}
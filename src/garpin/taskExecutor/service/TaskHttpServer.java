@@ -0,0 +1,640 @@
+package garpin.taskExecutor.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import garpin.taskExecutor.controllers.CompletedTask;
+import garpin.taskExecutor.controllers.LatencyHistogram;
+import garpin.taskExecutor.controllers.PermissionDeniedException;
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskController;
+import garpin.taskExecutor.controllers.TaskFilter;
+import garpin.taskExecutor.controllers.TaskMetrics;
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import garpin.taskExecutor.tasks.ResultCache;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP/JSON front end for a TaskController, built on the JDK's HTTP server.
+ * Requests are handled on the server's own small thread pool, never on the controller's worker threads, and no handler
+ * waits for a Task to run: scheduling returns the Task's id immediately. Completed Tasks are streamed to the client as
+ * a chunked JSON array, one record at a time, rather than rendered into a single String, by a separate bounded pool of
+ * stream threads, so slow consumers cannot occupy the request handlers; a request arriving while every stream thread
+ * is busy is answered with 503.
+ * State transitions of every scheduled Task are pushed to /events subscribers as server-sent events (see
+ * TaskEventStream).
+ * The acting user is taken from the 'X-User' request header (standard user if absent); an activity the user is not
+ * permitted to perform is answered with 403, and an invalid argument with 400.
+ * A /tasks/completed stream still occupies its stream thread until the client has read it. 'main()' therefore bounds
+ * every response to RESPONSE_TIMEOUT_MILLIS, after which the JDK server closes the connection; embedders should set the
+ * 'sun.net.httpserver.maxRspTime' system property likewise.
+ * Endpoints:
+ *   POST   /tasks?type=fibonacci|factorial&argument=n[&priority=HIGH|NORMAL|LOW] - schedule a Task
+ *   DELETE /tasks/{id}                                                           - cancel a Task by id
+ *   GET    /tasks/current                                                        - currently executing Tasks
+ *   POST   /tasks/current/cancel                                                 - cancel the current Tasks
+ *   GET    /tasks/completed[?state=&user=&type=]                                 - completed Tasks
+ *   GET    /metrics                                                              - executor metrics
+ *   GET    /events                                                               - stream of state transitions
+ *   POST   /executor/enable, /executor/disable                                   - enable or disable execution
+ */
+public class TaskHttpServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_HANDLER_THREADS = 4;
+    public static final int DEFAULT_STREAM_THREADS = 16;
+    public static final long RESPONSE_TIMEOUT_MILLIS = 60_000;
+
+    static final String HEADER_USER = "X-User";
+
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+
+    private final TaskController controller;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ExecutorService streams;
+    private final TaskEventStream events = new TaskEventStream();
+
+    /**
+     * Constructor - binds the server to the given port on the loopback interface
+     *
+     * @param controller - TaskController to which requests are delegated
+     * @param port       - port to listen on (0 for any free port)
+     * @throws IOException - if the port cannot be bound
+     */
+    public TaskHttpServer(TaskController controller, int port) throws IOException {
+        this(controller, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_HANDLER_THREADS,
+                DEFAULT_STREAM_THREADS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param controller     - TaskController to which requests are delegated
+     * @param address        - address to listen on
+     * @param handlerThreads - number of threads handling requests (1 - n)
+     * @param streamThreads  - maximum number of concurrent /tasks/completed streams (1 - n)
+     * @throws IOException - if the address cannot be bound
+     */
+    public TaskHttpServer(TaskController controller, InetSocketAddress address, int handlerThreads,
+                          int streamThreads) throws IOException {
+
+        if (controller == null) {
+            throw new InvalidParameterException("Missing controller");
+        }
+
+        if (handlerThreads <= 0) {
+            throw new InvalidParameterException("Invalid handler thread count: " + handlerThreads);
+        }
+
+        if (streamThreads <= 0) {
+            throw new InvalidParameterException("Invalid stream thread count: " + streamThreads);
+        }
+
+        this.controller = controller;
+
+        handlers = Executors.newFixedThreadPool(handlerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-http-handler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // No queue: a stream is either started at once or rejected, rather than left waiting behind slow consumers
+        streams = new ThreadPoolExecutor(0, streamThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "task-http-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(address, 0);
+        server.setExecutor(handlers);
+        server.createContext("/tasks", this::handleTasks);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/executor", this::handleExecutor);
+        server.createContext("/events", events::handle);
+
+        controller.addStateListener(events);
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is listening on (useful when constructed with port 0)
+     *
+     * @return - the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, allowing up to a second for requests in progress to complete, and ends every event stream
+     */
+    @Override
+    public void close() {
+        controller.removeStateListener(events);
+        events.close();
+
+        server.stop(1);
+        handlers.shutdown();
+        streams.shutdown();
+    }
+
+    /**
+     * Returns the stream publishing state transitions to /events subscribers
+     *
+     * @return - the TaskEventStream
+     */
+    public TaskEventStream getEventStream() {
+        return events;
+    }
+
+    /**
+     * Handles requests under /tasks
+     *
+     * @param exchange - the request and its response
+     * @throws IOException - if the response cannot be written
+     */
+    private void handleTasks(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        boolean streaming = false;
+
+        try {
+            setUser(exchange);
+
+            if (path.equals("/tasks") || path.equals("/tasks/")) {
+                requireMethod(exchange, "POST");
+                scheduleTask(exchange);
+
+            } else if (path.equals("/tasks/current")) {
+                requireMethod(exchange, "GET");
+                writeCurrentTasks(exchange);
+
+            } else if (path.equals("/tasks/current/cancel")) {
+                requireMethod(exchange, "POST");
+                controller.requestCancelCurrentTask();
+                sendJson(exchange, 202, "{\"cancelRequested\":true}");
+
+            } else if (path.equals("/tasks/completed")) {
+                requireMethod(exchange, "GET");
+                streaming = startCompletedTasksStream(exchange);
+
+                if (!streaming) {
+                    sendError(exchange, 503, "Too many completed task streams");
+                }
+
+            } else if (method.equals("DELETE")) {
+                long taskId = Long.parseLong(path.substring("/tasks/".length()));
+                boolean requested = controller.cancelTask(taskId);
+
+                sendJson(exchange, requested ? 202 : 404,
+                        "{\"id\":" + taskId + ",\"cancelRequested\":" + requested + "}");
+            } else {
+                sendError(exchange, 404, "Not found: " + path);
+            }
+        } catch (HttpStatusException ex) {
+            sendError(exchange, ex.status, ex.getMessage());
+        } catch (PermissionDeniedException ex) {
+            sendError(exchange, 403, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            // Includes InvalidParameterException and malformed numbers or enum names
+            sendError(exchange, 400, ex.getMessage());
+        } catch (RuntimeException ex) {
+            sendError(exchange, 500, ex.toString());
+        } catch (Exception ex) {
+            sendError(exchange, 409, ex.getMessage());
+        } finally {
+            // A completed Tasks stream is closed by its stream thread
+            if (!streaming) {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Handles requests under /metrics
+     *
+     * @param exchange - the request and its response
+     * @throws IOException - if the response cannot be written
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "GET");
+
+            TaskMetrics metrics = controller.getMetrics();
+            StringBuilder json = new StringBuilder()
+                    .append("{\"queueDepth\":").append(metrics.getQueueDepth())
+                    .append(",\"scheduled\":").append(metrics.getScheduledCount())
+                    .append(",\"coalesced\":").append(metrics.getCoalescedCount())
+                    .append(",\"started\":").append(metrics.getStartedCount())
+                    .append(",\"completed\":").append(metrics.getCompletedCount())
+                    .append(",\"cancelled\":").append(metrics.getCancelledCount())
+                    .append(",\"failed\":").append(metrics.getFailedCount())
+                    .append(",\"discarded\":").append(metrics.getDiscardedCount())
+                    .append(",\"throughput\":").append(String.format(Locale.ROOT, "%.3f", metrics.getThroughput()))
+                    .append(",\"types\":{");
+
+            List<String> types = metrics.getTaskTypes();
+
+            for (int i = 0; i < types.size(); i++) {
+                String type = types.get(i);
+
+                if (i > 0) {
+                    json.append(',');
+                }
+                Json.writeString(json, type);
+                json.append(":{\"waitNanos\":");
+                appendLatency(json, metrics.getWaitTimes(type));
+                json.append(",\"runNanos\":");
+                appendLatency(json, metrics.getRunTimes(type));
+                json.append('}');
+            }
+
+            ResultCache cache = ResultCache.getInstance();
+            json.append("},\"resultCache\":{\"entries\":").append(cache.size())
+                    .append(",\"hits\":").append(cache.getHitCount())
+                    .append(",\"partialHits\":").append(cache.getPartialHitCount())
+                    .append(",\"misses\":").append(cache.getMissCount())
+                    .append("}}");
+
+            sendJson(exchange, 200, json.toString());
+
+        } catch (HttpStatusException ex) {
+            sendError(exchange, ex.status, ex.getMessage());
+        } catch (RuntimeException ex) {
+            sendError(exchange, 500, ex.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Handles requests under /executor
+     *
+     * @param exchange - the request and its response
+     * @throws IOException - if the response cannot be written
+     */
+    private void handleExecutor(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+
+        try {
+            requireMethod(exchange, "POST");
+            setUser(exchange);
+
+            if (path.equals("/executor/enable")) {
+                controller.enableExecutor();
+                sendJson(exchange, 200, "{\"enabled\":true}");
+
+            } else if (path.equals("/executor/disable")) {
+                controller.disableExecutor();
+                sendJson(exchange, 200, "{\"enabled\":false}");
+
+            } else {
+                sendError(exchange, 404, "Not found: " + path);
+            }
+        } catch (HttpStatusException ex) {
+            sendError(exchange, ex.status, ex.getMessage());
+        } catch (PermissionDeniedException ex) {
+            sendError(exchange, 403, ex.getMessage());
+        } catch (InvalidParameterException ex) {
+            sendError(exchange, 400, ex.getMessage());
+        } catch (RuntimeException ex) {
+            sendError(exchange, 500, ex.toString());
+        } catch (Exception ex) {
+            sendError(exchange, 409, ex.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Creates a Task from the request's query parameters and schedules it
+     *
+     * @param exchange - the request and its response
+     * @throws Exception - if the parameters are invalid or the Task cannot be scheduled
+     */
+    private void scheduleTask(HttpExchange exchange) throws Exception {
+        Map<String, String> parameters = parseQuery(exchange);
+        String type = parameters.getOrDefault("type", "");
+        int argument = Integer.parseInt(parameters.getOrDefault("argument", ""));
+        Task task;
+
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "fibonacci": {
+                FibonacciTask fibonacciTask = new FibonacciTask();
+                fibonacciTask.setFibonacciIndex(argument);
+                task = fibonacciTask;
+                break;
+            }
+            case "factorial": {
+                FactorialTask factorialTask = new FactorialTask();
+                factorialTask.setFactorialBase(argument);
+                task = factorialTask;
+                break;
+            }
+            default: {
+                throw new InvalidParameterException("Unknown task type: " + type);
+            }
+        }
+
+        if (parameters.containsKey("priority")) {
+            task.setPriority(Task.TaskPriority.valueOf(parameters.get("priority").toUpperCase(Locale.ROOT)));
+        }
+
+        controller.scheduleTask(task);
+
+        sendJson(exchange, 202, "{\"id\":" + task.getId() + "}");
+    }
+
+    /**
+     * Writes the currently executing Tasks as a JSON array
+     *
+     * @param exchange - the request and its response
+     * @throws Exception - if the current user does not have sufficient permission
+     */
+    private void writeCurrentTasks(HttpExchange exchange) throws Exception {
+        StringBuilder json = new StringBuilder("[");
+
+        for (Task task : controller.fetchCurrentTasks()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            Json.writeTask(json, task);
+        }
+
+        json.append(']');
+
+        sendJson(exchange, 200, json.toString());
+    }
+
+    /**
+     * Hands the request to a stream thread, which streams the completed Tasks matching the request's filter as a
+     * chunked JSON array. The calling handler thread returns at once; the stream thread closes the exchange
+     *
+     * @param exchange - the request and its response
+     * @return - false if every stream thread is busy (in which case the caller still owns the exchange)
+     * @throws IOException - if the query cannot be decoded
+     */
+    private boolean startCompletedTasksStream(HttpExchange exchange) throws IOException {
+        // Parsed here so that an invalid filter is reported by the handler
+        TaskFilter filter = parseFilter(exchange);
+
+        try {
+            streams.execute(() -> {
+                try {
+                    try {
+                        streamCompletedTasks(exchange, filter);
+
+                    } catch (RuntimeException ex) {
+                        sendError(exchange, 500, ex.toString());
+                    }
+
+                } catch (IOException ignored) {
+                    // The client has gone away
+
+                } finally {
+                    exchange.close();
+                }
+            });
+
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Parses the optional 'state', 'user' and 'type' criteria of a completed Tasks query
+     *
+     * @param exchange - the request
+     * @return - the TaskFilter
+     * @throws IOException              - if the query cannot be decoded
+     * @throws IllegalArgumentException - if the state is unknown
+     */
+    private static TaskFilter parseFilter(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = parseQuery(exchange);
+        TaskFilter filter = new TaskFilter();
+
+        if (parameters.containsKey("state")) {
+            filter.setState(Task.TaskState.valueOf(parameters.get("state").toUpperCase(Locale.ROOT)));
+        }
+        filter.setCreator(parameters.get("user"));
+        filter.setTaskType(parameters.get("type"));
+
+        return filter;
+    }
+
+    /**
+     * Streams the completed Tasks matching the filter as a chunked JSON array
+     *
+     * @param exchange - the request and its response
+     * @param filter   - criteria Tasks must match
+     * @throws IOException - if the response cannot be written
+     */
+    private void streamCompletedTasks(HttpExchange exchange, TaskFilter filter) throws IOException {
+        Iterator<CompletedTask> completed = controller.streamCompletedTasks(filter);
+
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_JSON);
+        // A length of 0 selects chunked transfer encoding
+        exchange.sendResponseHeaders(200, 0);
+
+        try (Writer output = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+
+            output.write('[');
+
+            boolean first = true;
+            while (completed.hasNext()) {
+                if (!first) {
+                    output.write(',');
+                }
+                Json.writeTask(output, completed.next());
+                first = false;
+            }
+
+            output.write(']');
+        }
+    }
+
+    /**
+     * Sets the controller's current user for this handler thread from the request's 'X-User' header
+     *
+     * @param exchange - the request
+     * @throws Exception - if the user is unknown
+     */
+    private void setUser(HttpExchange exchange) throws Exception {
+        String user = exchange.getRequestHeaders().getFirst(HEADER_USER);
+
+        controller.setUser(user != null ? user : controller.USER_STANDARD);
+    }
+
+    /**
+     * Verifies the request's method
+     *
+     * @param exchange - the request
+     * @param method   - the required method
+     * @throws HttpStatusException - if the request uses another method
+     */
+    private static void requireMethod(HttpExchange exchange, String method) throws HttpStatusException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new HttpStatusException(405, "Method not allowed: " + exchange.getRequestMethod());
+        }
+    }
+
+    /**
+     * Parses the request's query string
+     *
+     * @param exchange - the request
+     * @return - query parameters by name (the first value of a repeated parameter wins)
+     * @throws UnsupportedEncodingException - never (UTF-8 is always supported)
+     */
+    static Map<String, String> parseQuery(HttpExchange exchange) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+
+            parameters.putIfAbsent(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Appends a latency distribution as a JSON object
+     *
+     * @param json      - destination
+     * @param histogram - recorded latencies in nanoseconds
+     */
+    private static void appendLatency(StringBuilder json, LatencyHistogram histogram) {
+        json.append("{\"count\":").append(histogram.getCount())
+                .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", histogram.getMean()))
+                .append(",\"p50\":").append(histogram.getPercentile(50))
+                .append(",\"p99\":").append(histogram.getPercentile(99))
+                .append(",\"max\":").append(histogram.getMax())
+                .append('}');
+    }
+
+    /**
+     * Sends a complete JSON response
+     *
+     * @param exchange - the request and its response
+     * @param status   - HTTP status code
+     * @param json     - response body
+     * @throws IOException - if the response cannot be written
+     */
+    static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Sends a JSON error response. If the response headers were already sent (e.g., a stream failed part way), the
+     * response cannot be replaced, so nothing is sent and closing the exchange leaves the client a truncated body
+     *
+     * @param exchange - the request and its response
+     * @param status   - HTTP status code
+     * @param message  - error message
+     * @throws IOException - if the response cannot be written
+     */
+    static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.writeString(json, message);
+        json.append('}');
+
+        sendJson(exchange, status, json.toString());
+    }
+
+    /**
+     * Signals that a request must be answered with the given HTTP status
+     */
+    static class HttpStatusException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpStatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Runs a standalone HTTP front end: starts the TaskController's executor process and serves requests until the
+     * process is terminated
+     *
+     * @param args - optional port to listen on (default 8080)
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        TaskController controller = TaskController.getInstance();
+
+        // Read by the JDK server when the first server is created; closes connections whose response is not consumed
+        if (System.getProperty("sun.net.httpserver.maxRspTime") == null) {
+            System.setProperty("sun.net.httpserver.maxRspTime", Long.toString(RESPONSE_TIMEOUT_MILLIS));
+        }
+
+        try {
+            controller.startExecutorProcess();
+
+            TaskHttpServer server = new TaskHttpServer(controller, port);
+            server.start();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                controller.shutdownExecutorProcess();
+            }));
+
+            System.out.println("Task HTTP server listening on port " + server.getPort());
+
+        } catch (Exception ex) {
+            System.err.println("Failed to run task HTTP server: " + ex.getMessage());
+            controller.shutdownExecutorProcess();
+        }
+    }
+}
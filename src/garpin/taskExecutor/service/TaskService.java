@@ -0,0 +1,524 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.CompletedTask;
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCodec;
+import garpin.taskExecutor.controllers.TaskController;
+import garpin.taskExecutor.controllers.TaskPage;
+import garpin.taskExecutor.tasks.ResultCache;
+import garpin.taskExecutor.tasks.TaskCodecs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.InvalidParameterException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exposes a TaskController to other processes over the binary protocol described in ServiceProtocol, so that several
+ * clients (see TaskServiceClient) can schedule, cancel and query Tasks against one long-running executor.
+ * A single selector thread accepts connections and performs all non-blocking socket reads and writes. Decoded requests
+ * are executed on a small pool of handler threads, so a slow request (e.g., rendering a large page of results) does
+ * not stall other connections; requests from one connection are chained so that they execute, and are answered, in
+ * the order they were sent.
+ * A connection is not read from while it has too many requests awaiting execution or too many response bytes awaiting
+ * the client (see MAX_PENDING_REQUESTS and MAX_QUEUED_RESPONSE_BYTES), so a client that sends faster than it is served,
+ * or does not read its responses, is throttled by TCP flow control rather than growing the service's memory. Responses
+ * larger than a frame allows (e.g., a very large page of completed tasks) are answered with an error instead.
+ * Each connection acts as its own user (standard until changed with a set-user request), independently of the others
+ */
+public class TaskService implements Closeable {
+
+    public static final int DEFAULT_PORT = 7070;
+    public static final int DEFAULT_HANDLER_THREADS = 4;
+
+    // Per connection, limits beyond which no further requests are read until the backlog drains
+    static final int MAX_PENDING_REQUESTS = 64;
+    static final long MAX_QUEUED_RESPONSE_BYTES = 4L * 1024 * 1024;
+
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+
+    private final TaskController controller;
+    private final TaskCodec codec;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService handlers;
+    private final Thread selectorThread;
+
+    // Connections with newly queued responses, whose interest in reading and writing must be updated by the selector
+    // thread
+    private final ConcurrentLinkedQueue<Connection> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor - binds the service to the given port on the loopback interface
+     *
+     * @param controller - TaskController to which requests are delegated
+     * @param codec      - codec used to decode scheduled Tasks
+     * @param port       - port to listen on (0 for any free port)
+     * @throws IOException - if the port cannot be bound
+     */
+    public TaskService(TaskController controller, TaskCodec codec, int port) throws IOException {
+        this(controller, codec, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_HANDLER_THREADS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param controller     - TaskController to which requests are delegated
+     * @param codec          - codec used to decode scheduled Tasks
+     * @param address        - address to listen on
+     * @param handlerThreads - number of threads executing requests (1 - n)
+     * @throws IOException - if the address cannot be bound
+     */
+    public TaskService(TaskController controller, TaskCodec codec, InetSocketAddress address, int handlerThreads)
+            throws IOException {
+
+        if (controller == null || codec == null) {
+            throw new InvalidParameterException("Missing controller or codec");
+        }
+
+        if (handlerThreads <= 0) {
+            throw new InvalidParameterException("Invalid handler thread count: " + handlerThreads);
+        }
+
+        this.controller = controller;
+        this.codec = codec;
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        handlers = Executors.newFixedThreadPool(handlerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-service-handler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        selectorThread = new Thread(this::serve, "task-service-selector");
+        selectorThread.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting connections
+     */
+    public void start() {
+        selectorThread.start();
+    }
+
+    /**
+     * Returns the port the service is listening on (useful when constructed with port 0)
+     *
+     * @return - the bound port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes every open connection. Requests still executing complete, but their
+     * responses are discarded
+     *
+     * @throws IOException - if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        selector.wakeup();
+
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        handlers.shutdown();
+
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+
+        selector.close();
+    }
+
+    /**
+     * Selector loop: accepts connections, reads requests and writes queued responses until the service is closed
+     */
+    private void serve() {
+        while (!closed) {
+            try {
+                selector.select();
+
+                Connection connection;
+                while ((connection = pendingUpdates.poll()) != null) {
+                    connection.updateInterest();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    Connection target = (Connection) key.attachment();
+
+                    try {
+                        if (key.isReadable()) {
+                            target.read();
+                        }
+
+                        if (key.isValid() && key.isWritable()) {
+                            target.write();
+                        }
+
+                        target.updateInterest();
+                    } catch (IOException | RuntimeException ex) {
+                        // A broken or misbehaving client only loses its own connection
+                        target.close();
+                    }
+                }
+            } catch (IOException ex) {
+                if (!closed) {
+                    System.err.println("Task service selector failed: " + ex.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Accepts a pending connection, if any, and registers it for reading
+     *
+     * @throws IOException - if the connection cannot be accepted
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Executes a single request on behalf of a connection and queues the response. Never throws, since a failure must
+     * not break the chain of later requests from the same connection
+     *
+     * @param connection - the connection that sent the request
+     * @param body       - the request frame, less its length prefix
+     */
+    private void handle(Connection connection, ByteBuffer body) {
+        long requestId = body.getLong();
+        byte op = body.get();
+        ByteBuffer response;
+
+        try {
+            controller.setUser(connection.user);
+            response = execute(connection, requestId, op, body);
+        } catch (Exception ex) {
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+
+            response = ServiceProtocol.allocateFrame(requestId, ServiceProtocol.STATUS_ERROR,
+                    ServiceProtocol.stringSize(message));
+            ServiceProtocol.putString(response, message);
+        }
+
+        response.flip();
+        connection.send(response);
+    }
+
+    /**
+     * Performs a request's operation against the controller
+     *
+     * @param connection - the connection that sent the request
+     * @param requestId  - id of the request, echoed in the response
+     * @param op         - requested operation (see ServiceProtocol)
+     * @param payload    - the request payload
+     * @return - the response frame, positioned at its end
+     * @throws Exception - if the request is invalid or the operation fails
+     */
+    private ByteBuffer execute(Connection connection, long requestId, byte op, ByteBuffer payload) throws Exception {
+        switch (op) {
+            case ServiceProtocol.OP_SET_USER: {
+                String newUser = ServiceProtocol.getString(payload);
+                controller.setUser(newUser);
+                connection.user = newUser;
+                return ok(requestId, 0);
+            }
+            case ServiceProtocol.OP_SCHEDULE_TASK: {
+                Task task = codec.decodeRequest(payload);
+                controller.scheduleTask(task);
+                return ok(requestId, 8).putLong(task.getId());
+            }
+            case ServiceProtocol.OP_CANCEL_TASK: {
+                boolean requested = controller.cancelTask(payload.getLong());
+                return ok(requestId, 1).put((byte) (requested ? 1 : 0));
+            }
+            case ServiceProtocol.OP_CANCEL_CURRENT_TASK: {
+                controller.requestCancelCurrentTask();
+                return ok(requestId, 0);
+            }
+            case ServiceProtocol.OP_CURRENT_TASK_INFO: {
+                return okString(requestId, controller.fetchCurrentTaskInfo());
+            }
+            case ServiceProtocol.OP_COMPLETED_TASKS: {
+                long cursor = payload.getLong();
+                int pageSize = payload.getInt();
+
+                TaskPage<CompletedTask> page = controller.fetchCompletedTasksPage(cursor, pageSize, null);
+                String info = controller.renderTaskPage(page);
+
+                ByteBuffer response = ok(requestId, ServiceProtocol.stringSize(info) + 8 + 1);
+                ServiceProtocol.putString(response, info);
+                return response.putLong(page.getNextCursor()).put((byte) (page.hasMore() ? 1 : 0));
+            }
+            case ServiceProtocol.OP_METRICS_INFO: {
+                return okString(requestId,
+                        controller.fetchMetricsInfo() + ResultCache.getInstance().fetchStatisticsInfo());
+            }
+            case ServiceProtocol.OP_ENABLE_EXECUTOR: {
+                controller.enableExecutor();
+                return ok(requestId, 0);
+            }
+            case ServiceProtocol.OP_DISABLE_EXECUTOR: {
+                controller.disableExecutor();
+                return ok(requestId, 0);
+            }
+            default: {
+                throw new InvalidParameterException("Unknown operation: " + op);
+            }
+        }
+    }
+
+    /**
+     * Allocates a successful response frame with room for a payload of the given size
+     *
+     * @param requestId   - id of the request being answered
+     * @param payloadSize - size of the payload in bytes
+     * @return - the response frame, positioned for the payload
+     */
+    private static ByteBuffer ok(long requestId, int payloadSize) {
+        return ServiceProtocol.allocateFrame(requestId, ServiceProtocol.STATUS_OK, payloadSize);
+    }
+
+    /**
+     * Creates a successful response frame carrying a single String
+     *
+     * @param requestId - id of the request being answered
+     * @param value     - String payload
+     * @return - the response frame, positioned at its end
+     */
+    private static ByteBuffer okString(long requestId, String value) {
+        ByteBuffer response = ok(requestId, ServiceProtocol.stringSize(value));
+        ServiceProtocol.putString(response, value);
+
+        return response;
+    }
+
+    /**
+     * State of one client connection. Reading, writing and the request chain are confined to the selector thread;
+     * responses are queued from handler threads
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        private final ConcurrentLinkedQueue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+
+        // Requests dispatched but not yet answered, and bytes of responses not yet written
+        private final AtomicInteger pendingRequests = new AtomicInteger();
+        private final AtomicLong queuedResponseBytes = new AtomicLong();
+
+        // Requests execute one at a time in arrival order, each after the previous one completes
+        private CompletableFuture<Void> lastRequest = CompletableFuture.completedFuture(null);
+
+        // Only accessed by the connection's (serialized) requests
+        private volatile String user = controller.USER_STANDARD;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads available bytes and dispatches every complete request frame
+         *
+         * @throws IOException - if the channel fails or a frame is malformed
+         */
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+
+            input.flip();
+
+            while (input.remaining() >= 4) {
+                int length = input.getInt(input.position());
+                ServiceProtocol.verifyFrameLength(length);
+
+                if (input.remaining() < 4 + length) {
+                    if (4 + length > input.capacity()) {
+                        // Grow to hold the whole frame; the partial frame is carried over below
+                        ByteBuffer larger = ByteBuffer.allocate(4 + length);
+                        larger.put(input);
+                        input = larger;
+                        return;
+                    }
+                    break;
+                }
+
+                input.position(input.position() + 4);
+
+                byte[] body = new byte[length];
+                input.get(body);
+
+                dispatch(ByteBuffer.wrap(body));
+            }
+
+            input.compact();
+        }
+
+        /**
+         * Chains a request after this connection's previous request
+         *
+         * @param body - the request frame, less its length prefix
+         */
+        private void dispatch(ByteBuffer body) {
+            pendingRequests.incrementAndGet();
+            lastRequest = lastRequest.thenRunAsync(() -> handle(this, body), handlers);
+        }
+
+        /**
+         * Queues a response and asks the selector thread to write it
+         *
+         * @param response - response frame, ready to be written
+         */
+        private void send(ByteBuffer response) {
+            queuedResponseBytes.addAndGet(response.remaining());
+            output.add(response);
+            pendingRequests.decrementAndGet();
+
+            pendingUpdates.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Registers interest in writing if responses are queued, and in reading unless the connection's backlog of
+         * requests or responses is full (selector thread only)
+         */
+        private void updateInterest() {
+            if (!key.isValid()) {
+                return;
+            }
+
+            int ops = 0;
+
+            if (pendingRequests.get() < MAX_PENDING_REQUESTS
+                    && queuedResponseBytes.get() < MAX_QUEUED_RESPONSE_BYTES) {
+                ops |= SelectionKey.OP_READ;
+            }
+
+            if (!output.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+
+            key.interestOps(ops);
+        }
+
+        /**
+         * Writes as many queued responses as the socket accepts without blocking
+         *
+         * @throws IOException - if the channel fails
+         */
+        private void write() throws IOException {
+            ByteBuffer next;
+
+            while ((next = output.peek()) != null) {
+                queuedResponseBytes.addAndGet(-channel.write(next));
+
+                if (next.hasRemaining()) {
+                    return;
+                }
+
+                output.poll();
+            }
+        }
+
+        /**
+         * Closes the connection, discarding unsent responses
+         */
+        private void close() {
+            key.cancel();
+
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing further to release
+            }
+        }
+    }
+
+    /**
+     * Runs a standalone executor service: starts the TaskController's executor process and serves requests until the
+     * process is terminated
+     *
+     * @param args - optional port to listen on (default 7070)
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        TaskController controller = TaskController.getInstance();
+
+        try {
+            controller.startExecutorProcess();
+
+            TaskService service = new TaskService(controller, TaskCodecs.createRegistry(), port);
+            service.start();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    service.close();
+                } catch (IOException ignored) {
+                    // Exiting regardless
+                }
+                controller.shutdownExecutorProcess();
+            }));
+
+            System.out.println("Task service listening on port " + service.getPort());
+            service.selectorThread.join();
+
+        } catch (Exception ex) {
+            System.err.println("Failed to run task service: " + ex.getMessage());
+            controller.shutdownExecutorProcess();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCodec;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.security.InvalidParameterException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Client for a TaskService running in another process. Every operation sends its request immediately and returns a
+ * CompletableFuture for the response, so callers may pipeline any number of requests without waiting for earlier
+ * responses. Requests are executed by the service in the order they were sent on this client's connection.
+ * Operations failing on the service (e.g., for lack of permission) complete their future exceptionally with the
+ * service's error message
+ */
+public class TaskServiceClient implements Closeable {
+
+    private final SocketChannel channel;
+    private final TaskCodec codec;
+    private final AtomicLong nextRequestId = new AtomicLong(1);
+    private final ConcurrentHashMap<Long, PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final Thread reader;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor - connects to a TaskService on the given port of the loopback interface
+     *
+     * @param port  - port the service is listening on
+     * @param codec - codec used to encode scheduled Tasks (must match the service's)
+     * @throws IOException - if the service cannot be reached
+     */
+    public TaskServiceClient(int port, TaskCodec codec) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), codec);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param address - address of the service
+     * @param codec   - codec used to encode scheduled Tasks (must match the service's)
+     * @throws IOException - if the service cannot be reached
+     */
+    public TaskServiceClient(InetSocketAddress address, TaskCodec codec) throws IOException {
+        this.codec = codec;
+
+        channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+
+        reader = new Thread(this::readResponses, "task-service-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Sets the user this connection acts as (see 'TaskController.setUser()')
+     *
+     * @param user - the user name
+     * @return - handle completing once the user has been changed
+     */
+    public CompletableFuture<Void> setUser(String user) {
+        return send(ServiceProtocol.OP_SET_USER, ServiceProtocol.stringSize(user),
+                request -> ServiceProtocol.putString(request, user), response -> null);
+    }
+
+    /**
+     * Schedules a Task on the service (see 'TaskController.scheduleTask()')
+     *
+     * @param task - Task to schedule; its creator is replaced by this connection's user
+     * @return - handle completing with the id the service assigned to the Task
+     * @throws Exception - if the Task cannot be encoded
+     */
+    public CompletableFuture<Long> scheduleTask(Task task) throws Exception {
+        byte[] record = codec.encode(task);
+
+        return send(ServiceProtocol.OP_SCHEDULE_TASK, record.length, request -> request.put(record),
+                ByteBuffer::getLong);
+    }
+
+    /**
+     * Requests cancellation of a scheduled Task by id (see 'TaskController.cancelTask()')
+     *
+     * @param taskId - id returned by 'scheduleTask()'
+     * @return - handle completing with whether cancellation was requested
+     */
+    public CompletableFuture<Boolean> cancelTask(long taskId) {
+        return send(ServiceProtocol.OP_CANCEL_TASK, 8, request -> request.putLong(taskId),
+                response -> response.get() != 0);
+    }
+
+    /**
+     * Requests cancellation of the currently executing Tasks (see 'TaskController.requestCancelCurrentTask()')
+     *
+     * @return - handle completing once cancellation has been requested
+     */
+    public CompletableFuture<Void> requestCancelCurrentTask() {
+        return send(ServiceProtocol.OP_CANCEL_CURRENT_TASK, 0, request -> { }, response -> null);
+    }
+
+    /**
+     * Fetches a summary of the currently executing Tasks (see 'TaskController.fetchCurrentTaskInfo()')
+     *
+     * @return - handle completing with the summary
+     */
+    public CompletableFuture<String> fetchCurrentTaskInfo() {
+        return send(ServiceProtocol.OP_CURRENT_TASK_INFO, 0, request -> { }, ServiceProtocol::getString);
+    }
+
+    /**
+     * Fetches a rendered page of completed Tasks (see 'TaskController.fetchCompletedTasksPage()')
+     *
+     * @param cursor   - position to resume from (0 for the beginning)
+     * @param pageSize - maximum number of Tasks on the page (1 - n)
+     * @return - handle completing with the page
+     */
+    public CompletableFuture<RemoteTaskPage> fetchCompletedTasksPage(long cursor, int pageSize) {
+        return send(ServiceProtocol.OP_COMPLETED_TASKS, 8 + 4, request -> request.putLong(cursor).putInt(pageSize),
+                response -> new RemoteTaskPage(ServiceProtocol.getString(response), response.getLong(),
+                        response.get() != 0));
+    }
+
+    /**
+     * Fetches a summary of executor metrics (see 'TaskController.fetchMetricsInfo()')
+     *
+     * @return - handle completing with the summary
+     */
+    public CompletableFuture<String> fetchMetricsInfo() {
+        return send(ServiceProtocol.OP_METRICS_INFO, 0, request -> { }, ServiceProtocol::getString);
+    }
+
+    /**
+     * Enables Task execution on the service (admin only)
+     *
+     * @return - handle completing once the executor is enabled
+     */
+    public CompletableFuture<Void> enableExecutor() {
+        return send(ServiceProtocol.OP_ENABLE_EXECUTOR, 0, request -> { }, response -> null);
+    }
+
+    /**
+     * Disables Task execution on the service (admin only)
+     *
+     * @return - handle completing once the executor is disabled
+     */
+    public CompletableFuture<Void> disableExecutor() {
+        return send(ServiceProtocol.OP_DISABLE_EXECUTOR, 0, request -> { }, response -> null);
+    }
+
+    /**
+     * Closes the connection. Requests awaiting a response complete exceptionally
+     *
+     * @throws IOException - if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Sends a request frame and registers a handle for its response
+     *
+     * @param op             - requested operation (see ServiceProtocol)
+     * @param payloadSize    - size of the request payload in bytes
+     * @param payloadWriter  - writes the request payload
+     * @param responseReader - decodes a successful response's payload
+     * @return - handle completing with the decoded response
+     */
+    private <T> CompletableFuture<T> send(byte op, int payloadSize, Consumer<ByteBuffer> payloadWriter,
+                                          Function<ByteBuffer, T> responseReader) {
+
+        long requestId = nextRequestId.getAndIncrement();
+        PendingRequest<T> pending = new PendingRequest<>(responseReader);
+
+        ByteBuffer frame;
+
+        try {
+            frame = ServiceProtocol.allocateFrame(requestId, op, payloadSize);
+        } catch (InvalidParameterException ex) {
+            // Sending it would only get the connection closed by the service
+            pending.result.completeExceptionally(ex);
+            return pending.result;
+        }
+
+        payloadWriter.accept(frame);
+        frame.flip();
+
+        // Registered before sending, as the response may arrive before 'write()' returns
+        pendingRequests.put(requestId, pending);
+
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException ex) {
+            pendingRequests.remove(requestId);
+            pending.result.completeExceptionally(ex);
+        }
+
+        if (closed) {
+            // The reader may already have failed outstanding requests
+            failPendingRequests(new IOException("Connection closed"));
+        }
+
+        return pending.result;
+    }
+
+    /**
+     * Reads response frames and completes the matching requests until the connection is closed
+     */
+    private void readResponses() {
+        ByteBuffer lengthPrefix = ByteBuffer.allocate(4);
+
+        try {
+            while (true) {
+                lengthPrefix.clear();
+                readFully(lengthPrefix);
+
+                int length = lengthPrefix.getInt(0);
+                ServiceProtocol.verifyFrameLength(length);
+
+                ByteBuffer body = ByteBuffer.allocate(length);
+                readFully(body);
+                body.flip();
+
+                complete(body.getLong(), body.get(), body);
+            }
+        } catch (IOException | RuntimeException ex) {
+            closed = true;
+            failPendingRequests(ex instanceof IOException ? (IOException) ex : new IOException(ex));
+        }
+    }
+
+    /**
+     * Completes the request matching a response
+     *
+     * @param requestId - id echoed by the response
+     * @param status    - response status (see ServiceProtocol)
+     * @param payload   - response payload
+     */
+    private void complete(long requestId, byte status, ByteBuffer payload) {
+        PendingRequest<?> pending = pendingRequests.remove(requestId);
+
+        if (pending == null) {
+            return;
+        }
+
+        if (status == ServiceProtocol.STATUS_OK) {
+            pending.complete(payload);
+        } else {
+            pending.result.completeExceptionally(new Exception(ServiceProtocol.getString(payload)));
+        }
+    }
+
+    /**
+     * Completes every outstanding request exceptionally
+     *
+     * @param cause - the failure to report
+     */
+    private void failPendingRequests(IOException cause) {
+        for (Long requestId : pendingRequests.keySet()) {
+            PendingRequest<?> pending = pendingRequests.remove(requestId);
+
+            if (pending != null) {
+                pending.result.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Reads from the channel until the buffer is full
+     *
+     * @param buffer - buffer to fill
+     * @throws IOException - if the channel fails or is closed first
+     */
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by service");
+            }
+        }
+    }
+
+    /**
+     * A request awaiting its response
+     */
+    private static class PendingRequest<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Function<ByteBuffer, T> responseReader;
+
+        private PendingRequest(Function<ByteBuffer, T> responseReader) {
+            this.responseReader = responseReader;
+        }
+
+        private void complete(ByteBuffer payload) {
+            try {
+                result.complete(responseReader.apply(payload));
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+}
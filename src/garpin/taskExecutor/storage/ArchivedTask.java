@@ -0,0 +1,101 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.CompletedTask;
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskResult;
+
+/**
+ * Read-only record of a completed Task held in a TaskArchive. Deliberately not a Task: an archived record cannot be
+ * scheduled, run, cancelled or observed, so it only exposes the fields the archive retains. Fields are decoded from the
+ * archive's off-heap storage each time they are requested, so holding a record costs only a reference and a row number
+ */
+public final class ArchivedTask implements CompletedTask {
+
+    private final TaskArchive archive;
+    private final int row;
+
+    /**
+     * Constructor
+     *
+     * @param archive - the archive holding the Task
+     * @param row     - the Task's row in the archive
+     */
+    ArchivedTask(TaskArchive archive, int row) {
+        this.archive = archive;
+        this.row = row;
+    }
+
+    /**
+     * Returns the archived Task's original id (see 'Task.getId()')
+     *
+     * @return - the Task's id
+     */
+    @Override
+    public long getId() {
+        return archive.getId(row);
+    }
+
+    /**
+     * Returns the archived Task's type
+     *
+     * @return - a user-readable String representing the task type
+     */
+    @Override
+    public String getTaskType() {
+        return archive.getTaskType(row);
+    }
+
+    /**
+     * Returns the name of the user who created the archived Task
+     *
+     * @return - the creator
+     */
+    @Override
+    public String getCreator() {
+        return archive.getCreator(row);
+    }
+
+    /**
+     * Returns the archived Task's final state
+     *
+     * @return - the TaskState it finished in
+     */
+    @Override
+    public Task.TaskState getState() {
+        return archive.getState(row);
+    }
+
+    /**
+     * Returns the archived Task's results, rendered from the stored value on each call
+     *
+     * @return - String representation of the Task's output
+     */
+    @Override
+    public String getResults() {
+        return getResult().toString();
+    }
+
+    /**
+     * Returns the archived Task's results in their native form (see 'Task.getResult()'), without rendering them
+     *
+     * @return - a TaskResult decoded from the archive
+     */
+    public TaskResult getResult() {
+        return archive.getResult(row);
+    }
+
+    /**
+     * Creates a user-readable String representation of this record, in the same format as 'Task.toString()' for a
+     * finished Task
+     *
+     * @return - a String representation of the archived Task
+     */
+    @Override
+    public String toString() {
+        return "Id: " + getId() + "\n" +
+                "Type: " + getTaskType() + "\n" +
+                "User: " + getCreator() + "\n" +
+                "State: " + getState() + "\n" +
+                "Result: " + getResults() + "\n";
+    }
+}
@@ -0,0 +1,54 @@
+package garpin.taskExecutor.storage;
+
+import java.util.List;
+
+/**
+ * A single page of ArchivedTask records returned by 'TaskArchive.getPage()', along with the cursor from which to request
+ * the next page (see TaskPage, its counterpart for live Tasks)
+ */
+public class ArchivedTaskPage {
+
+    private final List<ArchivedTask> tasks;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    /**
+     * Constructor
+     *
+     * @param tasks      - the records on this page
+     * @param nextCursor - cursor to pass to the query to continue after this page
+     * @param hasMore    - whether records remain beyond this page (they may not all match the query's filter)
+     */
+    ArchivedTaskPage(List<ArchivedTask> tasks, long nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Returns the records on this page
+     *
+     * @return - List of ArchivedTasks (may be empty)
+     */
+    public List<ArchivedTask> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the cursor to pass to the query to continue after this page
+     *
+     * @return - cursor for the next page
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns whether records remain beyond this page
+     *
+     * @return - whether another page may be requested
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
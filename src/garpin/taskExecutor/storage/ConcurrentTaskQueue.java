@@ -0,0 +1,78 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCollection;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A non-blocking queue of tasks for consumption in FIFO order. Backed by a LinkedTransferQueue, a CAS-based
+ * multi-producer/multi-consumer queue, so producers and workers never serialize on a shared lock. Consumers that find
+ * the queue empty park until a task is handed to them
+ */
+public class ConcurrentTaskQueue implements TaskCollection {
+
+    private final LinkedTransferQueue<Task> queue = new LinkedTransferQueue<>();
+
+    /**
+     * {@inheritDoc}
+     * Adds a task to the end of the queue (or hands it directly to a waiting consumer)
+     *
+     * @param task
+     */
+    @Override
+    public void addTask(Task task) {
+        queue.add(task);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Adds the tasks to the end of the queue
+     *
+     * @param tasks - the tasks to be added
+     */
+    @Override
+    public void addTasks(Collection<? extends Task> tasks) {
+        queue.addAll(tasks);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removes and returns the "oldest" task in the queue
+     *
+     * @return - the removed task
+     */
+    @Override
+    public Task removeTask() {
+        return queue.poll();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Parks the caller until a task is added or the timeout elapses
+     *
+     * @param timeout - maximum time to wait for a task
+     * @param unit    - unit of the timeout argument
+     * @return - the removed task, or null if the timeout elapsed
+     * @throws InterruptedException - if interrupted while waiting
+     */
+    @Override
+    public Task removeTask(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Drains the head of the queue in one pass
+     *
+     * @param destination - collection receiving the removed tasks
+     * @param maxTasks    - maximum number of tasks to remove
+     * @return - the number of tasks removed
+     */
+    @Override
+    public int removeTasks(Collection<? super Task> destination, int maxTasks) {
+        return queue.drainTo(destination, maxTasks);
+    }
+}
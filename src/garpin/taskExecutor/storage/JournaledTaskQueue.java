@@ -0,0 +1,613 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCodec;
+import garpin.taskExecutor.controllers.TaskCollection;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A durable collection of pending tasks. Ordering and hand-off to workers are delegated to an in-memory
+ * TaskCollection; in addition, every added Task is appended to a write-ahead log so that pending work survives a
+ * restart.
+ * The log is a sequence of fixed-size, memory-mapped segment files in a directory. Adding a Task appends an ADD record
+ * to the mapped segment (a memory copy, no system call) and acknowledging a finished (or cancelled) Task appends an ACK
+ * record.
+ * A background thread forces dirty segments to disk every flush interval ("group commit"), so at most one interval of
+ * recently added tasks can be lost if the machine (rather than just the process) fails.
+ * On construction, existing segments are replayed: every ADD without a matching ACK is decoded and queued again as
+ * PENDING (see 'takeRecoveredTasks()'). Tasks that were running when the process stopped are therefore re-executed
+ * (at-least-once delivery).
+ * Segments are deleted once every Task they added has been acknowledged.
+ * Note that only Tasks added to this collection are journaled (e.g., Tasks sharing another Task's execution via
+ * TaskCoalescer are not)
+ */
+public class JournaledTaskQueue implements TaskCollection, Closeable {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_MILLISECONDS = 10;
+
+    private static final byte RECORD_ADD = 1;
+    private static final byte RECORD_ACK = 2;
+
+    // length (int), checksum (int), record type (byte), task sequence (long)
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 8;
+
+    private static final String SEGMENT_PREFIX = "tasks-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final File directory;
+    private final TaskCodec codec;
+    private final TaskCollection delegate;
+    private final int segmentBytes;
+    private final long flushMilliseconds;
+
+    // Segments by index, oldest first. Guarded by this object's monitor, as are 'active', 'nextSequence' and each
+    // segment's live count
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active = null;
+    private long nextSequence = 0;
+
+    private final ConcurrentHashMap<Task, Entry> journaled = new ConcurrentHashMap<>();
+    private List<Task> recovered = new ArrayList<>();
+    private final Thread flusher;
+    private volatile boolean dirty = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor - opens (or creates) a journal in the given directory with default segment size and flush interval
+     *
+     * @param directory - directory holding the journal's segment files
+     * @param codec     - codec used to encode and decode journaled Tasks
+     * @param delegate  - in-memory TaskCollection ordering the pending Tasks
+     * @throws Exception - if the journal cannot be opened or replayed
+     */
+    public JournaledTaskQueue(File directory, TaskCodec codec, TaskCollection delegate) throws Exception {
+        this(directory, codec, delegate, DEFAULT_SEGMENT_BYTES, DEFAULT_FLUSH_MILLISECONDS);
+    }
+
+    /**
+     * Constructor - opens (or creates) a journal in the given directory, replaying any Tasks it holds into the
+     * delegate collection
+     *
+     * @param directory         - directory holding the journal's segment files
+     * @param codec             - codec used to encode and decode journaled Tasks
+     * @param delegate          - in-memory TaskCollection ordering the pending Tasks
+     * @param segmentBytes      - size of each segment file
+     * @param flushMilliseconds - interval between group commits (1 - n)
+     * @throws Exception - if the arguments are invalid or the journal cannot be opened or replayed
+     */
+    public JournaledTaskQueue(File directory, TaskCodec codec, TaskCollection delegate, int segmentBytes,
+                              long flushMilliseconds) throws Exception {
+
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new InvalidParameterException("Invalid journal segment size: " + segmentBytes);
+        }
+
+        if (flushMilliseconds <= 0) {
+            throw new InvalidParameterException("Invalid journal flush interval: " + flushMilliseconds);
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create journal directory: " + directory);
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.delegate = delegate;
+        this.segmentBytes = segmentBytes;
+        this.flushMilliseconds = flushMilliseconds;
+
+        recover();
+
+        flusher = new Thread(this::flushPeriodically, "task-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Appends the task to the journal, then adds it to the delegate collection
+     *
+     * @param task
+     * @throws IllegalStateException - if the task cannot be encoded or journaled
+     */
+    @Override
+    public void addTask(Task task) {
+        byte payload[];
+
+        try {
+            payload = codec.encode(task);
+
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to journal task: " + ex.getMessage(), ex);
+        }
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Task journal is closed");
+            }
+
+            long sequence = nextSequence++;
+            append(RECORD_ADD, sequence, payload);
+
+            active.live++;
+            journaled.put(task, new Entry(sequence, active));
+        }
+
+        delegate.addTask(task);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Appends every task to the journal under a single lock acquisition, then adds the batch to the delegate collection
+     *
+     * @param tasks - the tasks to be added
+     * @throws IllegalStateException - if a task cannot be encoded or journaled (in which case none are added)
+     * @throws InvalidParameterException - if a task is too large for a journal segment (in which case none are added)
+     */
+    @Override
+    public void addTasks(Collection<? extends Task> tasks) {
+        List<byte[]> payloads = new ArrayList<>(tasks.size());
+
+        try {
+            for (Task task : tasks) {
+                payloads.add(codec.encode(task));
+            }
+
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to journal task: " + ex.getMessage(), ex);
+        }
+
+        // Checked up front so that an oversized task does not leave the tasks before it journaled but never queued
+        for (byte payload[] : payloads) {
+            verifyRecordSize(payload);
+        }
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Task journal is closed");
+            }
+
+            List<Task> appended = new ArrayList<>(tasks.size());
+
+            try {
+                int i = 0;
+                for (Task task : tasks) {
+                    long sequence = nextSequence++;
+                    append(RECORD_ADD, sequence, payloads.get(i++));
+
+                    active.live++;
+                    journaled.put(task, new Entry(sequence, active));
+                    appended.add(task);
+                }
+
+            } catch (RuntimeException ex) {
+                // E.g., a new segment could not be created part way through the batch
+                withdraw(appended);
+                throw ex;
+            }
+        }
+
+        try {
+            delegate.addTasks(tasks);
+
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                withdraw(new ArrayList<>(tasks));
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removes the next task from the delegate collection. The task stays in the journal until it is acknowledged
+     *
+     * @return - the removed task
+     */
+    @Override
+    public Task removeTask() {
+        return delegate.removeTask();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removes the next task from the delegate collection. The task stays in the journal until it is acknowledged
+     *
+     * @param timeout - maximum time to wait for a task
+     * @param unit    - unit of the timeout argument
+     * @return - the removed task, or null if the timeout elapsed
+     * @throws InterruptedException - if interrupted while waiting
+     */
+    @Override
+    public Task removeTask(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.removeTask(timeout, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removes a batch of tasks from the delegate collection. The tasks stay in the journal until they are acknowledged
+     *
+     * @param destination - collection receiving the removed tasks
+     * @param maxTasks    - maximum number of tasks to remove
+     * @return - the number of tasks removed
+     */
+    @Override
+    public int removeTasks(Collection<? super Task> destination, int maxTasks) {
+        return delegate.removeTasks(destination, maxTasks);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Returns the tasks to the delegate collection only: they are still journaled, as they have not been acknowledged
+     *
+     * @param tasks - the unstarted tasks
+     */
+    @Override
+    public void restoreTasks(Collection<? extends Task> tasks) {
+        delegate.restoreTasks(tasks);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Appends an ACK record so that the task is not replayed, and deletes any segments no longer holding pending tasks.
+     * Later acknowledgements of the same task (e.g., when a worker skips a cancelled task) are ignored
+     *
+     * @param task - the finished Task
+     */
+    @Override
+    public void acknowledgeTask(Task task) {
+        Entry entry = journaled.remove(task);
+
+        if (entry == null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            append(RECORD_ACK, entry.sequence, new byte[0]);
+
+            entry.segment.live--;
+            compact();
+        }
+
+        delegate.acknowledgeTask(task);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Returns the Tasks replayed from the journal when it was opened
+     *
+     * @return - the replayed Tasks, in journal order (empty after the first call)
+     */
+    @Override
+    public synchronized List<Task> takeRecoveredTasks() {
+        List<Task> tasks = recovered;
+        recovered = new ArrayList<>();
+
+        return tasks;
+    }
+
+    /**
+     * Forces all journaled records to disk immediately, rather than waiting for the next group commit
+     */
+    public void flush() {
+        Segment segment;
+
+        synchronized (this) {
+            segment = active;
+        }
+
+        dirty = false;
+        segment.buffer.force();
+    }
+
+    /**
+     * Returns the number of segment files currently held by the journal
+     *
+     * @return - number of segment files
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Flushes the journal and stops its background flush thread. The journal may not be used afterwards
+     *
+     */
+    @Override
+    public void close() {
+        flush();
+
+        synchronized (this) {
+            closed = true;
+        }
+
+        flusher.interrupt();
+    }
+
+    /**
+     * Acknowledges tasks whose ADD records were appended but which are not going to be queued, so that they are
+     * neither replayed nor pin their segments. Must be called under this object's monitor
+     *
+     * @param tasks - the tasks to withdraw
+     */
+    private void withdraw(List<Task> tasks) {
+        for (Task task : tasks) {
+            Entry entry = journaled.remove(task);
+
+            try {
+                append(RECORD_ACK, entry.sequence, new byte[0]);
+
+            } catch (RuntimeException ignored) {
+                // The journal cannot be written; the task may be replayed after a restart (at-least-once delivery)
+            }
+
+            entry.segment.live--;
+        }
+
+        compact();
+    }
+
+    /**
+     * Verifies that a record with the given payload fits in a segment
+     *
+     * @param payload - the record's payload
+     * @throws InvalidParameterException - if the record is larger than a segment
+     */
+    private void verifyRecordSize(byte payload[]) {
+        int recordBytes = HEADER_BYTES + payload.length;
+
+        if (recordBytes > segmentBytes) {
+            throw new InvalidParameterException("Task too large for journal segment: " + recordBytes + " bytes");
+        }
+    }
+
+    /**
+     * Appends a record to the active segment, rolling to a new segment if it does not fit. The length field is
+     * written last so that a partially written record is never mistaken for a complete one
+     */
+    private void append(byte type, long sequence, byte payload[]) {
+        int recordBytes = HEADER_BYTES + payload.length;
+
+        verifyRecordSize(payload);
+
+        if (active.buffer.remaining() < recordBytes) {
+            roll();
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int start = buffer.position();
+
+        buffer.position(start + 8);
+        buffer.put(type);
+        buffer.putLong(sequence);
+        buffer.put(payload);
+
+        buffer.putInt(start + 4, checksum(type, sequence, payload));
+        buffer.putInt(start, recordBytes - 4);
+
+        dirty = true;
+    }
+
+    /**
+     * Forces the active segment to disk and starts a new one
+     */
+    private void roll() {
+        active.buffer.force();
+
+        try {
+            active = openSegment(active.index + 1);
+
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to create journal segment: " + ex.getMessage(), ex);
+        }
+
+        compact();
+    }
+
+    /**
+     * Deletes the oldest segments for as long as every Task they added has been acknowledged. Segments are only ever
+     * deleted oldest first, so any ACK record deleted along with them refers to an ADD record that is also deleted
+     */
+    private void compact() {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+
+            if (oldest == active || oldest.live > 0) {
+                return;
+            }
+
+            segments.remove(oldest.index);
+            oldest.file.delete();
+        }
+    }
+
+    /**
+     * Replays existing segments, re-queueing every Task that was added but never acknowledged, then opens a fresh
+     * active segment
+     */
+    private void recover() throws Exception {
+        File files[] = directory.listFiles(
+                (dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+
+        long indexes[] = new long[files == null ? 0 : files.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            String name = files[i].getName();
+            int end = name.length() - SEGMENT_SUFFIX.length();
+            indexes[i] = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), end));
+        }
+        Arrays.sort(indexes);
+
+        Map<Long, Replayed> pending = new LinkedHashMap<>();
+
+        for (long index : indexes) {
+            Segment segment = openSegment(index);
+            MappedByteBuffer buffer = segment.buffer;
+
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int start = buffer.position();
+                int length = buffer.getInt(start);
+
+                // A zero length marks the end of the written region; anything implausible is a torn write
+                if (length < HEADER_BYTES - 4 || length > buffer.remaining() - 4) {
+                    break;
+                }
+
+                int storedChecksum = buffer.getInt(start + 4);
+                byte type = buffer.get(start + 8);
+                long sequence = buffer.getLong(start + 9);
+
+                byte payload[] = new byte[length - (HEADER_BYTES - 4)];
+                buffer.position(start + HEADER_BYTES);
+                buffer.get(payload);
+
+                if (storedChecksum != checksum(type, sequence, payload)) {
+                    buffer.position(start);
+                    break;
+                }
+
+                if (type == RECORD_ADD) {
+                    pending.put(sequence, new Replayed(segment, payload));
+                    segment.live++;
+
+                } else if (type == RECORD_ACK) {
+                    Replayed replayed = pending.remove(sequence);
+
+                    if (replayed != null) {
+                        replayed.segment.live--;
+                    }
+                }
+
+                nextSequence = Math.max(nextSequence, sequence + 1);
+            }
+        }
+
+        // New records always go to a fresh segment so that replayed segments are never appended to
+        active = openSegment(indexes.length == 0 ? 0 : indexes[indexes.length - 1] + 1);
+
+        for (Map.Entry<Long, Replayed> entry : pending.entrySet()) {
+            Task task = codec.decode(ByteBuffer.wrap(entry.getValue().payload));
+
+            journaled.put(task, new Entry(entry.getKey(), entry.getValue().segment));
+            recovered.add(task);
+        }
+
+        for (Task task : recovered) {
+            delegate.addTask(task);
+        }
+
+        compact();
+    }
+
+    /**
+     * Opens (creating if necessary) and memory-maps the segment file with the given index. The mapping remains valid
+     * after the file itself is closed
+     */
+    private Segment openSegment(long index) throws IOException {
+        File file = new File(directory, String.format("%s%016d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() == 0) {
+                raf.setLength(segmentBytes);
+            }
+
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+
+            Segment segment = new Segment(index, file, buffer);
+            segments.put(index, segment);
+
+            return segment;
+        }
+    }
+
+    /**
+     * Background group commit loop: forces the active segment to disk whenever records were appended since the last
+     * flush
+     */
+    private void flushPeriodically() {
+        while (!closed) {
+            try {
+                Thread.sleep(flushMilliseconds);
+
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            if (dirty && !closed) {
+                flush();
+            }
+        }
+    }
+
+    private static int checksum(byte type, long sequence, byte payload[]) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(ByteBuffer.allocate(8).putLong(sequence).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A memory-mapped segment file and the number of its ADD records not yet acknowledged
+     */
+    private static class Segment {
+        final long index;
+        final File file;
+        final MappedByteBuffer buffer;
+        int live = 0;
+
+        Segment(long index, File file, MappedByteBuffer buffer) {
+            this.index = index;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Where a journaled Task's ADD record lives
+     */
+    private static class Entry {
+        final long sequence;
+        final Segment segment;
+
+        Entry(long sequence, Segment segment) {
+            this.sequence = sequence;
+            this.segment = segment;
+        }
+    }
+
+    /**
+     * An unacknowledged ADD record found while replaying
+     */
+    private static class Replayed {
+        final Segment segment;
+        final byte payload[];
+
+        Replayed(Segment segment, byte payload[]) {
+            this.segment = segment;
+            this.payload = payload;
+        }
+    }
+}
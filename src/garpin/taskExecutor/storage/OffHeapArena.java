@@ -0,0 +1,80 @@
+package garpin.taskExecutor.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Append-only arena of variable-length byte strings stored outside the Java heap. Each string is identified by the
+ * address returned from 'append()' (chunk number in the high 32 bits, offset within the chunk in the low 32 bits).
+ * Follows the same single-writer publication rules as OffHeapColumn
+ */
+class OffHeapArena {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private ByteBuffer chunks[] = new ByteBuffer[4];
+    private int chunkCount = 0;
+    private long allocatedBytes = 0;
+
+    /**
+     * Copies the given bytes into the arena
+     *
+     * @param bytes - bytes to store
+     * @return - address of the stored bytes
+     */
+    long append(byte bytes[]) {
+        ByteBuffer current = (chunkCount == 0) ? null : chunks[chunkCount - 1];
+
+        if (current == null || current.remaining() < bytes.length) {
+            // Strings larger than a chunk get a dedicated chunk of their own
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_BYTES, bytes.length));
+            allocatedBytes += current.capacity();
+
+            ByteBuffer grown[] = (chunkCount < chunks.length) ? chunks : Arrays.copyOf(chunks, chunks.length * 2);
+            grown[chunkCount] = current;
+            chunks = grown;
+            ++chunkCount;
+        }
+
+        long address = ((long) (chunkCount - 1) << 32) | current.position();
+        current.put(bytes);
+
+        return address;
+    }
+
+    /**
+     * Copies previously appended bytes back onto the heap
+     *
+     * @param address - address returned by 'append()'
+     * @param length  - number of bytes appended at that address
+     * @return - the stored bytes
+     */
+    byte[] read(long address, int length) {
+        ByteBuffer chunk = chunks[(int) (address >>> 32)].duplicate();
+        chunk.position((int) address);
+
+        byte bytes[] = new byte[length];
+        chunk.get(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Returns the number of off-heap bytes allocated by this arena
+     *
+     * @return - allocated bytes
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Drops every chunk, so that the off-heap memory is returned once the collector reclaims them. Addresses returned
+     * earlier are no longer valid; readers must not access the arena concurrently
+     */
+    void release() {
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        allocatedBytes = 0;
+    }
+}
@@ -0,0 +1,92 @@
+package garpin.taskExecutor.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Append-only column of fixed-width values stored outside the Java heap, in direct ByteBuffer chunks. Chunks are never
+ * moved once allocated, so growing the column does not copy existing values.
+ * Not synchronized: a single writer must publish new values to readers via a volatile write (e.g., a row count) after
+ * writing them, and readers must only access indexes below the count they have read
+ */
+class OffHeapColumn {
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final int width;
+    private ByteBuffer chunks[] = new ByteBuffer[4];
+    private int chunkCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param width - size of each value in bytes (1, 4 or 8)
+     */
+    OffHeapColumn(int width) {
+        this.width = width;
+    }
+
+    byte getByte(int index) {
+        return chunks[index >>> CHUNK_SHIFT].get(offset(index));
+    }
+
+    void putByte(int index, byte value) {
+        writableChunk(index).put(offset(index), value);
+    }
+
+    int getInt(int index) {
+        return chunks[index >>> CHUNK_SHIFT].getInt(offset(index));
+    }
+
+    void putInt(int index, int value) {
+        writableChunk(index).putInt(offset(index), value);
+    }
+
+    long getLong(int index) {
+        return chunks[index >>> CHUNK_SHIFT].getLong(offset(index));
+    }
+
+    void putLong(int index, long value) {
+        writableChunk(index).putLong(offset(index), value);
+    }
+
+    /**
+     * Returns the number of off-heap bytes allocated by this column
+     *
+     * @return - allocated bytes
+     */
+    long getAllocatedBytes() {
+        return (long) chunkCount * (CHUNK_MASK + 1) * width;
+    }
+
+    /**
+     * Drops every chunk, so that the off-heap memory is returned once the collector reclaims them. The column is empty
+     * afterwards; readers must not access it concurrently
+     */
+    void release() {
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+    }
+
+    private int offset(int index) {
+        return (index & CHUNK_MASK) * width;
+    }
+
+    private ByteBuffer writableChunk(int index) {
+        int chunk = index >>> CHUNK_SHIFT;
+
+        while (chunk >= chunkCount) {
+            ByteBuffer allocated = ByteBuffer.allocateDirect((CHUNK_MASK + 1) * width).order(ByteOrder.nativeOrder());
+
+            // Readers may still hold the previous array, which contains every chunk they are allowed to read
+            ByteBuffer grown[] = (chunkCount < chunks.length) ? chunks : Arrays.copyOf(chunks, chunks.length * 2);
+            grown[chunkCount] = allocated;
+            chunks = grown;
+            ++chunkCount;
+        }
+
+        return chunks[chunk];
+    }
+}
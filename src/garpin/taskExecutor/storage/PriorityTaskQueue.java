@@ -0,0 +1,332 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCollection;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A priority-aware collection of tasks. Each Task priority has its own FIFO lane, so adding and removing stays cheap
+ * (no sorting, no global lock). Removal serves the highest priority lane first, with two adjustments:
+ * - aging: a task is promoted by one priority level for each aging interval it has waited, so low priority work
+ * cannot be starved indefinitely
+ * - deadlines: a task whose deadline falls within one aging interval is treated as more urgent than any priority.
+ * Tasks with deadlines are also indexed by deadline, so the earliest approaching deadline is served first wherever the
+ * task sits in its lane. Such a task is referenced from both its lane and the deadline index (a lock-free skip list);
+ * whichever removes it first claims it. A task claimed through its lane is also removed from the index, whereas a lane
+ * discards a stale reference when it reaches it. The index is not consulted at all while no queued task has a
+ * deadline, so queues without deadlines pay nothing for it
+ */
+public class PriorityTaskQueue implements TaskCollection {
+
+    public static final long DEFAULT_AGING_MILLISECONDS = 5000;
+
+    private final List<ConcurrentLinkedQueue<Entry>> lanes;
+    private final ConcurrentSkipListSet<Entry> deadlines = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong((Entry entry) -> entry.deadline).thenComparingLong(entry -> entry.sequence));
+    // Entries in the deadline index not yet claimed
+    private final AtomicInteger deadlineCount = new AtomicInteger();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final Semaphore available = new Semaphore(0);
+    private final long agingMilliseconds;
+
+    /**
+     * Constructor - creates a queue using the default aging interval
+     */
+    public PriorityTaskQueue() {
+        this(DEFAULT_AGING_MILLISECONDS);
+    }
+
+    /**
+     * Constructor - creates a queue that promotes waiting tasks by one priority level per aging interval
+     *
+     * @param agingMilliseconds - time a task must wait to be promoted by one priority level (1 - n)
+     */
+    public PriorityTaskQueue(long agingMilliseconds) {
+        if (agingMilliseconds <= 0) {
+            throw new InvalidParameterException("Invalid aging interval: " + agingMilliseconds);
+        }
+
+        this.agingMilliseconds = agingMilliseconds;
+
+        lanes = new ArrayList<>(Task.TaskPriority.values().length);
+        for (int i = 0; i < Task.TaskPriority.values().length; ++i) {
+            lanes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Adds a task to the end of the lane matching its priority
+     *
+     * @param task
+     */
+    @Override
+    public void addTask(Task task) {
+        enqueue(task, System.currentTimeMillis());
+        available.release();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Adds each task to the lane for its priority, then wakes consumers with a single release of the batch's permits
+     *
+     * @param tasks - the tasks to be added
+     */
+    @Override
+    public void addTasks(Collection<? extends Task> tasks) {
+        long now = System.currentTimeMillis();
+        int count = 0;
+
+        for (Task task : tasks) {
+            enqueue(task, now);
+            ++count;
+        }
+
+        if (count > 0) {
+            available.release(count);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removes and returns the most urgent task (by priority, aging and deadline)
+     *
+     * @return - the removed task, or null if the queue is empty
+     */
+    @Override
+    public Task removeTask() {
+        if (!available.tryAcquire()) {
+            return null;
+        }
+
+        return takeMostUrgent();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Parks the caller until a task is added or the timeout elapses
+     *
+     * @param timeout - maximum time to wait for a task
+     * @param unit    - unit of the timeout argument
+     * @return - the removed task, or null if the timeout elapsed
+     * @throws InterruptedException - if interrupted while waiting
+     */
+    @Override
+    public Task removeTask(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) {
+            return null;
+        }
+
+        return takeMostUrgent();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Claims permits for the whole batch at once, then removes that many tasks in order of urgency
+     *
+     * @param destination - collection receiving the removed tasks
+     * @param maxTasks    - maximum number of tasks to remove
+     * @return - the number of tasks removed
+     */
+    @Override
+    public int removeTasks(Collection<? super Task> destination, int maxTasks) {
+        int count = Math.min(maxTasks, available.availablePermits());
+
+        // Another consumer may claim permits between reading and acquiring them; retry with what remains
+        while (count > 0 && !available.tryAcquire(count)) {
+            count = Math.min(maxTasks, available.availablePermits());
+        }
+
+        for (int i = 0; i < count; ++i) {
+            destination.add(takeMostUrgent());
+        }
+
+        return Math.max(count, 0);
+    }
+
+    /**
+     * Returns the number of entries held by the deadline index, including any not yet discarded after being claimed
+     *
+     * @return - size of the deadline index
+     */
+    int getDeadlineIndexSize() {
+        return deadlines.size();
+    }
+
+    /**
+     * Adds a task to the lane for its priority and, if it has a deadline, to the deadline index
+     *
+     * @param task                 - the task to add
+     * @param enqueuedMilliseconds - the time the task was added
+     */
+    private void enqueue(Task task, long enqueuedMilliseconds) {
+        Entry entry = new Entry(task, enqueuedMilliseconds, nextSequence.getAndIncrement());
+
+        if (entry.deadline != 0) {
+            deadlineCount.incrementAndGet();
+            deadlines.add(entry);
+        }
+
+        lanes.get(task.getPriority().ordinal()).add(entry);
+    }
+
+    /**
+     * Removes the task with the earliest deadline, if that deadline falls within one aging interval
+     *
+     * @param now - the current time in epoch milliseconds
+     * @return - the claimed task, or null if no deadline is approaching
+     */
+    private Task takeApproachingDeadline(long now) {
+        Entry head;
+
+        while ((head = firstDeadline()) != null) {
+            if (head.deadline - now > agingMilliseconds) {
+                return null;
+            }
+
+            if (deadlines.remove(head) && claim(head)) {
+                return head.task;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the entry with the earliest deadline
+     *
+     * @return - the first entry of the deadline index, or null if it is empty
+     */
+    private Entry firstDeadline() {
+        try {
+            return deadlines.first();
+
+        } catch (NoSuchElementException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Claims an entry for the caller, keeping the count of unclaimed deadline entries up to date
+     *
+     * @param entry - the entry to claim
+     * @return - whether the caller claimed it (false if it was already removed through its lane or the index)
+     */
+    private boolean claim(Entry entry) {
+        if (!entry.claim()) {
+            return false;
+        }
+
+        if (entry.deadline != 0) {
+            deadlineCount.decrementAndGet();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the head of the most urgent lane. The caller must already hold a permit, which guarantees that a task
+     * is available in some lane (although a competing consumer may empty the chosen lane first, in which case we retry)
+     *
+     * @return - the removed task
+     */
+    private Task takeMostUrgent() {
+        while (true) {
+            long now = System.currentTimeMillis();
+
+            if (deadlineCount.get() > 0) {
+                Task dueTask = takeApproachingDeadline(now);
+                if (dueTask != null) {
+                    return dueTask;
+                }
+            }
+
+            int bestLane = -1;
+            long bestUrgency = Long.MAX_VALUE;
+
+            // Only the head of each lane needs to be considered: within a lane, older entries are always at least as
+            // urgent as newer ones (deadlines are handled through the deadline index above)
+            for (int i = 0; i < lanes.size(); ++i) {
+                ConcurrentLinkedQueue<Entry> lane = lanes.get(i);
+                Entry head = lane.peek();
+
+                // Discard entries already removed through the deadline index
+                while (head != null && head.isClaimed()) {
+                    lane.remove(head);
+                    head = lane.peek();
+                }
+
+                if (head != null) {
+                    long urgency = head.urgency(i, now, agingMilliseconds);
+
+                    if (urgency < bestUrgency) {
+                        bestUrgency = urgency;
+                        bestLane = i;
+                    }
+                }
+            }
+
+            if (bestLane >= 0) {
+                Entry entry = lanes.get(bestLane).poll();
+
+                if (entry != null && claim(entry)) {
+                    if (entry.deadline != 0) {
+                        // O(log n) on the skip list, so the index never accumulates entries claimed through lanes
+                        deadlines.remove(entry);
+                    }
+
+                    return entry.task;
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued task along with the time it was added
+     */
+    private static class Entry {
+        final Task task;
+        final long enqueuedMilliseconds;
+        final long sequence;
+        // The task's deadline when it was added (0 if none), fixed so that the deadline index stays consistently ordered
+        final long deadline;
+
+        // Set by whichever of the lane and the deadline index removes this entry first
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        Entry(Task task, long enqueuedMilliseconds, long sequence) {
+            this.task = task;
+            this.enqueuedMilliseconds = enqueuedMilliseconds;
+            this.sequence = sequence;
+            this.deadline = task.getDeadline();
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean isClaimed() {
+            return claimed.get();
+        }
+
+        /**
+         * Computes the effective priority level of this entry, by lane and aging (lower is more urgent)
+         */
+        long urgency(int lane, long now, long agingMilliseconds) {
+            return lane - (now - enqueuedMilliseconds) / agingMilliseconds;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskFilter;
+import garpin.taskExecutor.controllers.TaskResult;
+
+import java.io.Closeable;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An append-only archive of completed tasks stored outside the Java heap in columnar form, intended to sit behind a
+ * TaskHistoryRing and receive the records it evicts (see 'TaskHistoryRing(int, long, TaskArchive)'). Task type and
+ * creator are dictionary-encoded into int columns, state is stored as a byte, and results are copied into an off-heap
+ * arena in their native form (see 'TaskResult.toBytes()'; integers are rendered only when read), so the completed Task
+ * objects themselves can be garbage collected and heap usage stays flat as the
+ * archive grows. Secondary indexes (lists of row numbers per creator, state and task type) let filtered queries visit
+ * only matching rows. Records are returned as read-only ArchivedTask views that decode their fields on demand.
+ * Appends are serialized; queries run concurrently with appends and see every record added before they started.
+ * Records are never evicted, so off-heap memory grows with the archive until it is closed; 'close()' drops every
+ * off-heap buffer so that the memory is returned once the collector reclaims them
+ */
+public class TaskArchive implements Closeable {
+
+    private final OffHeapColumn idColumn = new OffHeapColumn(8);
+    private final OffHeapColumn typeColumn = new OffHeapColumn(4);
+    private final OffHeapColumn creatorColumn = new OffHeapColumn(4);
+    private final OffHeapColumn stateColumn = new OffHeapColumn(1);
+    private final OffHeapColumn resultAddressColumn = new OffHeapColumn(8);
+    private final OffHeapColumn resultLengthColumn = new OffHeapColumn(4);
+    private final OffHeapColumn resultKindColumn = new OffHeapColumn(1);
+    private final OffHeapArena results = new OffHeapArena();
+
+    private final Dictionary types = new Dictionary();
+    private final Dictionary creators = new Dictionary();
+
+    // Indexes are keyed case-insensitively, matching TaskFilter
+    private final ConcurrentHashMap<String, RowList> typeIndex = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RowList> creatorIndex = new ConcurrentHashMap<>();
+    private final RowList stateIndex[] = new RowList[Task.TaskState.values().length];
+
+    // Written last by each append, so readers that read it see every column value below it
+    private volatile int rowCount = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor - creates an empty archive
+     */
+    public TaskArchive() {
+        for (int i = 0; i < stateIndex.length; ++i) {
+            stateIndex[i] = new RowList();
+        }
+    }
+
+    /**
+     * Records a completed Task, copying its id, type, creator, state and results into off-heap storage; the Task itself
+     * is not retained. The Task's fields are read before the archive is locked, so concurrent callers only serialize
+     * on the copy into storage
+     *
+     * @param task - the completed Task
+     * @throws InvalidParameterException - if the archive is full
+     * @throws IllegalStateException     - if the archive has been closed
+     */
+    public void addTask(Task task) {
+        TaskResult result = task.getResult();
+
+        append(task.getId(), task.getTaskType(), task.getCreator(), task.getState(), result.getKind(),
+                result.toBytes());
+    }
+
+    private synchronized void append(long id, String type, String creator, Task.TaskState state, byte resultKind,
+                                     byte resultBytes[]) {
+        verifyOpen();
+
+        int row = rowCount;
+        if (row == Integer.MAX_VALUE) {
+            throw new InvalidParameterException("Task archive is full");
+        }
+
+        idColumn.putLong(row, id);
+        typeColumn.putInt(row, types.encode(type));
+        creatorColumn.putInt(row, creators.encode(creator));
+        stateColumn.putByte(row, (byte) state.ordinal());
+        resultAddressColumn.putLong(row, results.append(resultBytes));
+        resultLengthColumn.putInt(row, resultBytes.length);
+        resultKindColumn.putByte(row, resultKind);
+
+        typeIndex.computeIfAbsent(indexKey(type), key -> new RowList()).add(row);
+        creatorIndex.computeIfAbsent(indexKey(creator), key -> new RowList()).add(row);
+        stateIndex[state.ordinal()].add(row);
+
+        rowCount = row + 1;
+    }
+
+    /**
+     * Returns read-only views over every archived Task, oldest first
+     *
+     * @return - List of ArchivedTasks
+     * @throws IllegalStateException - if the archive has been closed
+     */
+    public List<ArchivedTask> getTasks() {
+        verifyOpen();
+
+        int end = rowCount;
+        List<ArchivedTask> output = new ArrayList<>(end);
+
+        for (int row = 0; row < end; ++row) {
+            output.add(new ArchivedTask(this, row));
+        }
+
+        return output;
+    }
+
+    /**
+     * Returns up to 'limit' archived Tasks matching the filter, oldest first, starting at the given cursor (see
+     * 'TaskHistory.getPage()'). Cursors are row numbers. When the filter has criteria, only the rows in the smallest
+     * matching index are visited
+     *
+     * @param cursor - position to resume from (0 for the beginning)
+     * @param limit  - maximum number of Tasks on the page (1 - n)
+     * @param filter - criteria Tasks must match, or null for all Tasks
+     * @return - the requested page of read-only ArchivedTask views
+     * @throws IllegalStateException - if the archive has been closed
+     */
+    public ArchivedTaskPage getPage(long cursor, int limit, TaskFilter filter) {
+        if (limit <= 0) {
+            throw new InvalidParameterException("Invalid page size: " + limit);
+        }
+
+        verifyOpen();
+
+        int end = rowCount;
+        int start = (int) Math.min(Math.max(cursor, 0), end);
+
+        RowList candidates = selectIndex(filter);
+        if (candidates == null) {
+            if (filter != null && (filter.getState() != null || filter.getCreator() != null
+                    || filter.getTaskType() != null)) {
+                // A criterion has no index entry, so nothing can match
+                return new ArchivedTaskPage(new ArrayList<>(), end, false);
+            }
+
+            int stop = (int) Math.min(end, (long) start + limit);
+            List<ArchivedTask> output = new ArrayList<>(stop - start);
+
+            for (int row = start; row < stop; ++row) {
+                output.add(new ArchivedTask(this, row));
+            }
+
+            return new ArchivedTaskPage(output, stop, stop < end);
+        }
+
+        List<ArchivedTask> output = new ArrayList<>();
+        int size = candidates.size();
+        int position = candidates.search(start, size);
+        int next = start;
+
+        for (; position < size && output.size() < limit; ++position) {
+            int row = candidates.get(position);
+            if (row >= end) {
+                break;
+            }
+
+            if (matches(row, filter)) {
+                output.add(new ArchivedTask(this, row));
+            }
+
+            next = row + 1;
+        }
+
+        boolean hasMore = position < size && candidates.get(position) < end;
+
+        return new ArchivedTaskPage(output, hasMore ? next : end, hasMore);
+    }
+
+    /**
+     * Returns the number of archived Tasks
+     *
+     * @return - number of archived Tasks
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Drops the archive's off-heap storage, so that its memory is returned once the collector reclaims the buffers.
+     * Records read afterwards (including through ArchivedTask views obtained earlier) throw IllegalStateException.
+     * Must not be called while other threads are still querying the archive
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        rowCount = 0;
+
+        for (OffHeapColumn column : new OffHeapColumn[]{idColumn, typeColumn, creatorColumn, stateColumn,
+                resultAddressColumn, resultLengthColumn, resultKindColumn}) {
+            column.release();
+        }
+
+        results.release();
+        typeIndex.clear();
+        creatorIndex.clear();
+
+        for (RowList rows : stateIndex) {
+            rows.release();
+        }
+    }
+
+    /**
+     * Returns the number of bytes of off-heap memory allocated for the archived columns, results and indexes
+     *
+     * @return - allocated off-heap bytes
+     */
+    public synchronized long getOffHeapBytes() {
+        long total = idColumn.getAllocatedBytes() + typeColumn.getAllocatedBytes() + creatorColumn.getAllocatedBytes()
+                + stateColumn.getAllocatedBytes() + resultAddressColumn.getAllocatedBytes()
+                + resultLengthColumn.getAllocatedBytes() + resultKindColumn.getAllocatedBytes()
+                + results.getAllocatedBytes();
+
+        for (RowList rows : typeIndex.values()) {
+            total += rows.getAllocatedBytes();
+        }
+
+        for (RowList rows : creatorIndex.values()) {
+            total += rows.getAllocatedBytes();
+        }
+
+        for (RowList rows : stateIndex) {
+            total += rows.getAllocatedBytes();
+        }
+
+        return total;
+    }
+
+    long getId(int row) {
+        verifyOpen();
+        return idColumn.getLong(row);
+    }
+
+    String getTaskType(int row) {
+        verifyOpen();
+        return types.decode(typeColumn.getInt(row));
+    }
+
+    String getCreator(int row) {
+        verifyOpen();
+        return creators.decode(creatorColumn.getInt(row));
+    }
+
+    Task.TaskState getState(int row) {
+        verifyOpen();
+        return Task.TaskState.values()[stateColumn.getByte(row)];
+    }
+
+    TaskResult getResult(int row) {
+        verifyOpen();
+        byte bytes[] = results.read(resultAddressColumn.getLong(row), resultLengthColumn.getInt(row));
+        return TaskResult.fromBytes(resultKindColumn.getByte(row), bytes);
+    }
+
+    private void verifyOpen() {
+        if (closed) {
+            throw new IllegalStateException("Task archive is closed");
+        }
+    }
+
+    /**
+     * Returns the smallest index covering one of the filter's criteria, or null if the filter has no criteria or a
+     * criterion has no matching rows
+     */
+    private RowList selectIndex(TaskFilter filter) {
+        if (filter == null) {
+            return null;
+        }
+
+        RowList selected = null;
+
+        if (filter.getState() != null) {
+            selected = stateIndex[filter.getState().ordinal()];
+        }
+
+        if (filter.getCreator() != null) {
+            RowList rows = creatorIndex.get(indexKey(filter.getCreator()));
+            if (rows == null) {
+                return null;
+            }
+
+            selected = smaller(selected, rows);
+        }
+
+        if (filter.getTaskType() != null) {
+            RowList rows = typeIndex.get(indexKey(filter.getTaskType()));
+            if (rows == null) {
+                return null;
+            }
+
+            selected = smaller(selected, rows);
+        }
+
+        return selected;
+    }
+
+    private boolean matches(int row, TaskFilter filter) {
+        if (filter.getState() != null && getState(row) != filter.getState()) {
+            return false;
+        }
+
+        if (filter.getCreator() != null && !filter.getCreator().equalsIgnoreCase(getCreator(row))) {
+            return false;
+        }
+
+        return filter.getTaskType() == null || filter.getTaskType().equalsIgnoreCase(getTaskType(row));
+    }
+
+    private static RowList smaller(RowList current, RowList candidate) {
+        return (current == null || candidate.size() < current.size()) ? candidate : current;
+    }
+
+    private static String indexKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Maps distinct Strings to dense int codes. The number of distinct values (task types, users) is expected to be
+     * small relative to the number of rows, so the dictionary itself is kept on the heap
+     */
+    private static class Dictionary {
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private volatile String values[] = new String[0];
+
+        // Called only by the (synchronized) archive writer
+        int encode(String value) {
+            Integer code = codes.get(value);
+
+            if (code == null) {
+                code = values.length;
+                codes.put(value, code);
+
+                String grown[] = Arrays.copyOf(values, code + 1);
+                grown[code] = value;
+                values = grown;
+            }
+
+            return code;
+        }
+
+        String decode(int code) {
+            return values[code];
+        }
+    }
+
+    /**
+     * Ascending list of row numbers, stored off-heap
+     */
+    private static class RowList {
+        private final OffHeapColumn rows = new OffHeapColumn(4);
+        private volatile int size = 0;
+
+        // Called only by the (synchronized) archive writer
+        void add(int row) {
+            rows.putInt(size, row);
+            size = size + 1;
+        }
+
+        int get(int position) {
+            return rows.getInt(position);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns the position of the first row number not less than 'row', searching the first 'limit' entries
+         */
+        int search(int row, int limit) {
+            int low = 0;
+            int high = limit;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (get(middle) < row) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        long getAllocatedBytes() {
+            return rows.getAllocatedBytes();
+        }
+
+        void release() {
+            rows.release();
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskFilter;
+import garpin.taskExecutor.controllers.TaskHistory;
+import garpin.taskExecutor.controllers.TaskPage;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded history of completed tasks held in a lock-free ring buffer. Appending claims a slot with a single atomic
+ * increment and overwrites the oldest record once the ring is full, so the history holds at most 'capacity' records.
+ * Because a single result can be very large, the history is also capped by a byte budget on the estimated size of the
+ * retained results (see 'TaskResult.getEstimatedSize()'): each append and each read releases the oldest records until
+ * the retained size fits the budget (always keeping the newest record, however large).
+ * Records may optionally expire after a time-to-live; expired records are skipped by readers, and released from the
+ * oldest end by every append and read, so an idle history does not hold them until it is queried. Records evicted by
+ * either cap may optionally be moved to a TaskArchive, which keeps them off-heap for later queries (expired records are
+ * discarded, not archived)
+ */
+public class TaskHistoryRing implements TaskHistory {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    // Estimated heap held by a record apart from its result (the Task and its bookkeeping)
+    private static final long RECORD_OVERHEAD_BYTES = 256;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final int mask;
+    private final long ttlMilliseconds;
+    private final long maxBytes;
+    private final TaskArchive archive;
+
+    // Estimated size of the retained records, and the oldest position that may still hold one. Records are released
+    //  from the oldest end by whichever thread removes them from their slot
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong oldestSequence = new AtomicLong();
+
+    /**
+     * Constructor - creates a history retaining at most the given number of records, with no time-to-live
+     *
+     * @param capacity - maximum number of retained records (rounded up to a power of two)
+     */
+    public TaskHistoryRing(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * Constructor - creates a history retaining at most the given number of records for at most the given time
+     *
+     * @param capacity        - maximum number of retained records (rounded up to a power of two)
+     * @param ttlMilliseconds - time after which a record expires, or 0 for no expiry
+     */
+    public TaskHistoryRing(int capacity, long ttlMilliseconds) {
+        this(capacity, ttlMilliseconds, null);
+    }
+
+    /**
+     * Constructor - creates a history retaining at most the given number of records for at most the given time, moving
+     * each record it evicts to the given archive. Retained results are capped at DEFAULT_MAX_BYTES
+     *
+     * @param capacity        - maximum number of retained records (rounded up to a power of two)
+     * @param ttlMilliseconds - time after which a record expires, or 0 for no expiry
+     * @param archive         - archive receiving records evicted from the ring, or null to discard them
+     */
+    public TaskHistoryRing(int capacity, long ttlMilliseconds, TaskArchive archive) {
+        this(capacity, ttlMilliseconds, DEFAULT_MAX_BYTES, archive);
+    }
+
+    /**
+     * Constructor - creates a history retaining at most the given number of records, of at most the given estimated
+     * size, for at most the given time, moving each record it evicts to the given archive
+     *
+     * @param capacity        - maximum number of retained records (rounded up to a power of two)
+     * @param ttlMilliseconds - time after which a record expires, or 0 for no expiry
+     * @param maxBytes        - budget for the estimated size of the retained records (1 - n)
+     * @param archive         - archive receiving records evicted from the ring, or null to discard them
+     */
+    public TaskHistoryRing(int capacity, long ttlMilliseconds, long maxBytes, TaskArchive archive) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new InvalidParameterException("Invalid history capacity: " + capacity);
+        }
+
+        if (ttlMilliseconds < 0) {
+            throw new InvalidParameterException("Invalid history time-to-live: " + ttlMilliseconds);
+        }
+
+        if (maxBytes <= 0) {
+            throw new InvalidParameterException("Invalid history size budget: " + maxBytes);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        this.ttlMilliseconds = ttlMilliseconds;
+        this.maxBytes = maxBytes;
+        this.archive = archive;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Claims the next slot in the ring, overwriting the oldest record if the ring is full, then releases expired
+     * records and any records beyond the byte budget from the oldest end. An evicted record that has not expired is
+     * moved to the archive, if there is one; concurrent appends may archive records slightly out of order
+     *
+     * @param task - the completed Task
+     */
+    @Override
+    public void addTask(Task task) {
+        long sequence = nextSequence.getAndIncrement();
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(sequence, task, now, RECORD_OVERHEAD_BYTES + task.getResult().getEstimatedSize());
+
+        retainedBytes.addAndGet(entry.bytes);
+        Entry evicted = slots.getAndSet(index(sequence), entry);
+
+        if (evicted != null) {
+            release(evicted, now);
+        }
+
+        trim(sequence, now);
+    }
+
+    /**
+     * Returns the estimated size of the retained records, which the history keeps within its byte budget
+     *
+     * @return - estimated retained bytes
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /**
+     * Removes records from the oldest end while they have expired or the retained size exceeds the budget, stopping at
+     * 'newest' (which is kept) or at a slot whose append is still in progress (that append trims after it)
+     *
+     * @param newest - position of the newest record to keep
+     * @param now    - current time, for expiry
+     */
+    private void trim(long newest, long now) {
+        while (true) {
+            long sequence = oldestSequence.get();
+
+            if (sequence >= newest) {
+                return;
+            }
+
+            // Positions a full ring has already overwritten need no release
+            long retainedFrom = newest - slots.length() + 1;
+            if (sequence < retainedFrom) {
+                oldestSequence.compareAndSet(sequence, retainedFrom);
+                continue;
+            }
+
+            Entry entry = slots.get(index(sequence));
+
+            if (entry == null || entry.sequence < sequence) {
+                return;
+            }
+
+            if (entry.sequence == sequence) {
+                if (!isExpired(entry, now) && retainedBytes.get() <= maxBytes) {
+                    return;
+                }
+
+                if (slots.compareAndSet(index(sequence), entry, null)) {
+                    release(entry, now);
+                }
+            }
+
+            oldestSequence.compareAndSet(sequence, sequence + 1);
+        }
+    }
+
+    /**
+     * Accounts for a record removed from its slot, moving it to the archive unless it has expired
+     */
+    private void release(Entry entry, long now) {
+        retainedBytes.addAndGet(-entry.bytes);
+
+        if (archive != null && !isExpired(entry, now)) {
+            archive.addTask(entry.task);
+        }
+    }
+
+    /**
+     * Returns the archive receiving records evicted from the ring
+     *
+     * @return - the TaskArchive, or null if evicted records are discarded
+     */
+    public TaskArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Records appended concurrently with this call may or may not be included
+     *
+     * @return - List of retained, unexpired completed Tasks
+     */
+    @Override
+    public List<Task> getTasks() {
+        return getPage(0, slots.length(), null).getTasks();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Cursors are positions in the ring's append sequence, so a page only visits the slots it scans
+     *
+     * @param cursor - position to resume from (0 for the beginning)
+     * @param limit  - maximum number of Tasks on the page (1 - n)
+     * @param filter - criteria Tasks must match, or null for all Tasks
+     * @return - the requested page
+     */
+    @Override
+    public TaskPage<Task> getPage(long cursor, int limit, TaskFilter filter) {
+        if (limit <= 0) {
+            throw new InvalidParameterException("Invalid page size: " + limit);
+        }
+
+        long end = nextSequence.get();
+        long now = System.currentTimeMillis();
+
+        if (end > 0) {
+            trim(end - 1, now);
+        }
+
+        long sequence = Math.max(cursor, Math.max(0, end - slots.length()));
+
+        List<Task> output = new ArrayList<>((int) Math.min(limit, Math.max(0, end - sequence)));
+
+        for (; sequence < end && output.size() < limit; ++sequence) {
+            Entry entry = slots.get(index(sequence));
+
+            // A mismatched sequence means the slot was overwritten by a newer record or has not been written yet
+            if (entry == null || entry.sequence != sequence) {
+                continue;
+            }
+
+            // Released by 'trim()' once it reaches this record
+            if (isExpired(entry, now)) {
+                continue;
+            }
+
+            if (filter == null || filter.matches(entry.task)) {
+                output.add(entry.task);
+            }
+        }
+
+        return new TaskPage<>(output, sequence, sequence < end);
+    }
+
+    /**
+     * Returns the maximum number of records retained by this history
+     *
+     * @return - the ring's capacity
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMilliseconds > 0 && now - entry.completedMilliseconds > ttlMilliseconds;
+    }
+
+    /**
+     * A completed task along with its position in the history, completion time and estimated size
+     */
+    private static class Entry {
+        final long sequence;
+        final Task task;
+        final long completedMilliseconds;
+        final long bytes;
+
+        Entry(long sequence, Task task, long completedMilliseconds, long bytes) {
+            this.sequence = sequence;
+            this.task = task;
+            this.completedMilliseconds = completedMilliseconds;
+            this.bytes = bytes;
+        }
+    }
+}
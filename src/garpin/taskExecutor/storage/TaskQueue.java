@@ -3,24 +3,46 @@ package garpin.taskExecutor.storage;
 import garpin.taskExecutor.controllers.Task;
 import garpin.taskExecutor.controllers.TaskCollection;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
- * An (ordered) queue of tasks for consumption in FIFO order
+ * An (ordered) queue of tasks for consumption in FIFO order. Every operation, including adding or removing a batch,
+ * takes the queue's monitor once, so batches cost a single lock acquisition rather than one per task. Consumers that
+ * find the queue empty wait on the monitor until a task is added
  */
 public class TaskQueue implements TaskCollection {
 
-    LinkedBlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+    private final ArrayDeque<Task> queue = new ArrayDeque<>();
 
     /**
      * {@inheritDoc}
-     * Adds a task to the end of the queue
+     * Adds a task to the end of the queue, waking one waiting consumer
      *
      * @param task
      */
     @Override
     public synchronized void addTask(Task task) {
         queue.add(task);
+        notify();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Adds the tasks to the end of the queue under a single acquisition of its monitor, waking waiting consumers
+     *
+     * @param tasks - the tasks to be added
+     */
+    @Override
+    public synchronized void addTasks(Collection<? extends Task> tasks) {
+        queue.addAll(tasks);
+
+        if (tasks.size() == 1) {
+            notify();
+        } else if (!tasks.isEmpty()) {
+            notifyAll();
+        }
     }
 
     /**
@@ -33,4 +55,45 @@ public class TaskQueue implements TaskCollection {
     public synchronized Task removeTask() {
         return queue.poll();
     }
+
+    /**
+     * {@inheritDoc}
+     * Waits on the queue's monitor (releasing it) so that the caller is woken as soon as a task is added
+     *
+     * @param timeout - maximum time to wait for a task
+     * @param unit    - unit of the timeout argument
+     * @return - the removed task, or null if the timeout elapsed
+     * @throws InterruptedException - if interrupted while waiting
+     */
+    @Override
+    public synchronized Task removeTask(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+
+        while (queue.isEmpty() && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+
+        return queue.poll();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Drains the queue under a single acquisition of its monitor
+     *
+     * @param destination - collection receiving the removed tasks
+     * @param maxTasks    - maximum number of tasks to remove
+     * @return - the number of tasks removed
+     */
+    @Override
+    public synchronized int removeTasks(Collection<? super Task> destination, int maxTasks) {
+        int count = 0;
+
+        for (; count < maxTasks && !queue.isEmpty(); ++count) {
+            destination.add(queue.poll());
+        }
+
+        return count;
+    }
 }
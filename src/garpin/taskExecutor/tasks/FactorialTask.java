@@ -1,16 +1,39 @@
 package garpin.taskExecutor.tasks;
 
+import garpin.taskExecutor.controllers.CancellableSubtask;
 import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskResult;
 
+import java.math.BigInteger;
+import java.security.InvalidParameterException;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implements a Task for calculating the factorial of a given number (e.g., (factorialBase)! )
  */
 public class FactorialTask extends Task {
 
+    // Ranges up to this length are multiplied directly rather than split further
+    private static final int LEAF_RANGE_LENGTH = 32;
+
+    // Ranges shorter than this are not worth forking onto the ForkJoinPool
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    // Approximate number of progress updates per calculation; each update touches a shared counter and builds a String
+    private static final int PROGRESS_UPDATES = 100;
+
     private int factorialBase = 0;
 
+    // Progress of the running calculation: factors multiplied into partial products so far, out of 'factorCount'
+    private final AtomicLong factorsMultiplied = new AtomicLong();
+    private volatile int factorCount = 0;
+    // Ranges up to this length report their progress once, when their whole product is known
+    private volatile int progressRangeLength = LEAF_RANGE_LENGTH;
+    private ResultCache resultCache = ResultCache.getInstance();
+
     /**
      * Sets the number of which to take the factorial.
      *
@@ -20,40 +43,210 @@ public class FactorialTask extends Task {
         factorialBase = base;
     }
 
+    /**
+     * Returns the number of which to take the factorial
+     *
+     * @return - the number of which to take the factorial
+     */
+    public int getFactorialBase() {
+        return factorialBase;
+    }
+
+    /**
+     * Sets the cache used to reuse results across Tasks. Defaults to the process-wide ResultCache
+     *
+     * @param cache - the ResultCache to consult and populate, or null to disable caching for this Task
+     */
+    public void setResultCache(ResultCache cache) {
+        resultCache = cache;
+    }
+
     /**
      * {@inheritDoc}
-     * Calculates the factorial and sets the results in the parent class
+     * Calculates the factorial and sets the (unrendered) result in the parent class. When a ForkJoinPool is available,
+     * the subproducts of large factorials are computed in parallel across the pool
      *
      * @throws Exception - if the calculateFactorial implementation throws an exception
      */
     @Override
     protected void runTask() throws Exception {
 
-        int output = calculateFactorial(factorialBase);
+        BigInteger output = calculateFactorial(factorialBase);
 
-        setResults("" + output);
+        setResult(new TaskResult(output));
     }
 
     /**
-     * Recursively calculates the factorial value of the given number
+     * Calculates the factorial of the given number exactly. If the result cache holds k! for some k <= n, only the
+     * remaining factors (k + 1) * ... * n are multiplied
      *
      * @param n - the number for which to calculate a factorial
      * @return - the factorial of the given 'n' argument
      * @throws CancellationException - if the Task has been marked for cancellation
      */
-    private int calculateFactorial(int n) throws CancellationException {
+    private BigInteger calculateFactorial(int n) throws CancellationException {
+
+        checkCancellation();
+
+        ResultCache cache = resultCache;
+        BigInteger prefix = BigInteger.ONE;
+        int first = 1;
+
+        if (cache != null) {
+            Map.Entry<Integer, BigInteger> cached = cache.getFloor(getTaskType(), n);
+
+            if (cached != null) {
+                if (cached.getKey() == n) {
+                    return cached.getValue();
+                }
+
+                prefix = cached.getValue();
+                first = cached.getKey() + 1;
+            }
+        }
+
+        factorsMultiplied.set(0);
+        factorCount = n - first + 1;
+        progressRangeLength = Math.max(LEAF_RANGE_LENGTH, factorCount / PROGRESS_UPDATES);
 
-        if (getState() == TaskState.CANCELLING) {
-            throw new CancellationException();
+        ForkJoinPool pool = getForkJoinPool();
+
+        BigInteger remainder = (pool == null || n - first < PARALLEL_THRESHOLD)
+                ? rangeProduct(first, n)
+                : pool.invoke(new RangeProductSubtask(first, n));
+
+        BigInteger output = prefix.multiply(remainder);
+
+        if (cache != null) {
+            cache.put(getTaskType(), n, output);
         }
 
-        // Using a recursive solution for simplicity and to allow exercising the cancellation mechanism. An iterative
-        // solution would be safer and more efficient in a production environment
-        if (n == 1) {
-            return 1;
+        return output;
+    }
+
+    /**
+     * Calculates the product of all integers in [low, high] (see 'splitProduct()'), reporting progress once for each
+     * range of up to 'progressRangeLength' factors, so that only about PROGRESS_UPDATES reports are made however large
+     * the calculation
+     *
+     * @param low  - first factor (inclusive)
+     * @param high - last factor (inclusive)
+     * @return - the product low * (low + 1) * ... * high
+     * @throws CancellationException - if the Task has been marked for cancellation
+     */
+    private BigInteger rangeProduct(int low, int high) throws CancellationException {
+
+        checkCancellation();
+
+        if (high - low < progressRangeLength) {
+            BigInteger product = splitProduct(low, high);
+            reportFactorsMultiplied(high - low + 1);
+            return product;
         }
 
-        return n * calculateFactorial(n - 1);
+        int middle = (low + high) >>> 1;
+
+        return rangeProduct(low, middle).multiply(rangeProduct(middle + 1, high));
+    }
+
+    /**
+     * Calculates the product of all integers in [low, high] by binary splitting: the range is halved recursively and
+     * the two halves' products multiplied together. This keeps the operands of each multiplication similar in size,
+     * which lets BigInteger use its sub-quadratic (Karatsuba / Toom-Cook) algorithms, and keeps recursion depth at
+     * O(log n)
+     *
+     * @param low  - first factor (inclusive)
+     * @param high - last factor (inclusive)
+     * @return - the product low * (low + 1) * ... * high
+     * @throws CancellationException - if the Task has been marked for cancellation
+     */
+    private BigInteger splitProduct(int low, int high) throws CancellationException {
+
+        if (high - low < LEAF_RANGE_LENGTH) {
+            return leafProduct(low, high);
+        }
+
+        checkCancellation();
+
+        int middle = (low + high) >>> 1;
+
+        return splitProduct(low, middle).multiply(splitProduct(middle + 1, high));
+    }
+
+    /**
+     * Reports progress after factors have been multiplied into a partial product. This counts factors, not work: the
+     * final multiplications combining the largest partial products follow the last report
+     *
+     * @param count - number of factors just multiplied
+     */
+    private void reportFactorsMultiplied(int count) {
+        int total = factorCount;
+
+        if (total <= 0) {
+            return;
+        }
+
+        long done = factorsMultiplied.addAndGet(count);
+
+        setProgress((double) done / total);
+        setPartialResult(done + " of " + total + " factors multiplied");
+    }
+
+    /**
+     * Multiplies a short range of integers directly, accumulating in a long for as long as the product fits
+     *
+     * @param low  - first factor (inclusive)
+     * @param high - last factor (inclusive)
+     * @return - the product low * (low + 1) * ... * high
+     */
+    private static BigInteger leafProduct(int low, int high) {
+        BigInteger product = BigInteger.ONE;
+        long accumulator = 1;
+
+        for (long i = low; i <= high; ++i) {
+            if (accumulator > Long.MAX_VALUE / i) {
+                product = product.multiply(BigInteger.valueOf(accumulator));
+                accumulator = 1;
+            }
+
+            accumulator *= i;
+        }
+
+        return product.multiply(BigInteger.valueOf(accumulator));
+    }
+
+    /**
+     * Computes the product of all integers in [low, high] by splitting the range in half, forking one half onto the
+     * ForkJoinPool, until it is short enough to finish on the current thread
+     */
+    private class RangeProductSubtask extends CancellableSubtask<BigInteger> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+        private final int high;
+
+        RangeProductSubtask(int low, int high) {
+            super(FactorialTask.this);
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected BigInteger computeSubtask() throws CancellationException {
+            if (high - low < PARALLEL_THRESHOLD) {
+                return rangeProduct(low, high);
+            }
+
+            int middle = (low + high) >>> 1;
+
+            RangeProductSubtask left = new RangeProductSubtask(low, middle);
+            left.fork();
+
+            BigInteger right = new RangeProductSubtask(middle + 1, high).compute();
+
+            return left.join().multiply(right);
+        }
     }
 
     /**
@@ -68,17 +261,28 @@ public class FactorialTask extends Task {
         super.validateTask();
 
         if (factorialBase <= 0) {
-            throw new IndexOutOfBoundsException("Invalid value (" + factorialBase + ") for factorial calculation.");
+            throw new InvalidParameterException("Invalid value (" + factorialBase + ") for factorial calculation.");
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * Identical Factorial Tasks always produce identical results, so they are keyed on type and argument
+     *
+     * @return - key identifying this Task's computation
+     */
+    @Override
+    protected String getCoalescingKey() {
+        return getTaskType() + ":" + factorialBase;
+    }
+
     /**
      * {@inheritDoc}
      *
      * @return - "Factorial"
      */
     @Override
-    protected String getTaskType() {
+    public String getTaskType() {
         return "Factorial";
     }
 }
@@ -1,15 +1,28 @@
 package garpin.taskExecutor.tasks;
 
+import garpin.taskExecutor.controllers.CancellableSubtask;
 import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskResult;
 
+import java.math.BigInteger;
+import java.security.InvalidParameterException;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Implements a Task for calculating the n-th Fibonacci number
  */
 public class FibonacciTask extends Task {
 
+    // Below this operand size (in bits), forking a multiplication costs more than it saves
+    private static final int PARALLEL_THRESHOLD_BITS = 64 * 1024;
+
+    // log10(2), for estimating the number of decimal digits in a binary number
+    private static final double DIGITS_PER_BIT = 0.30103;
+
     private int fibIndex = 0;
+    private ResultCache resultCache = ResultCache.getInstance();
 
     /**
      * Sets the index of the desired Fibonacci number
@@ -20,40 +33,128 @@ public class FibonacciTask extends Task {
         fibIndex = index;
     }
 
+    /**
+     * Returns the index of the desired Fibonacci number
+     *
+     * @return - the index of the desired Fibonacci number
+     */
+    public int getFibonacciIndex() {
+        return fibIndex;
+    }
+
+    /**
+     * Sets the cache used to reuse results across Tasks. Defaults to the process-wide ResultCache
+     *
+     * @param cache - the ResultCache to consult and populate, or null to disable caching for this Task
+     */
+    public void setResultCache(ResultCache cache) {
+        resultCache = cache;
+    }
+
     /**
      * {@inheritDoc}
-     * Calculates the Fibonacci number and sets the results in the parent class
+     * Calculates the Fibonacci number (or reuses a cached result) and sets the (unrendered) result in the parent
+     * class
      *
      * @throws Exception - if the getNthFibonacciNumber implementation throws an exception
      */
     @Override
     protected void runTask() throws Exception {
 
-        int output = getNthFibonacciNumber(fibIndex);
+        checkCancellation();
+
+        ResultCache cache = resultCache;
+        BigInteger output = (cache == null) ? null : cache.get(getTaskType(), fibIndex);
+
+        if (output == null) {
+            output = getNthFibonacciNumber(fibIndex);
+
+            if (cache != null) {
+                cache.put(getTaskType(), fibIndex, output);
+            }
+        }
 
-        setResults("" + output);
+        setResult(new TaskResult(output));
     }
 
     /**
-     * Recursively calculates the given Fibonacci number
+     * Calculates the given Fibonacci number exactly using the "fast doubling" identities
+     * F(2k) = F(k) * (2 * F(k + 1) - F(k))
+     * F(2k + 1) = F(k)^2 + F(k + 1)^2
+     * walking the bits of n from most to least significant. This takes O(log n) big-number multiplications.
+     * When a ForkJoinPool is available and the operands are large, the squarings are computed in parallel.
+     * Progress is reported after each step. Since each step multiplies numbers twice the size of the previous step's,
+     * the work done to reach F(k) grows roughly as k^1.5 (BigInteger's Karatsuba / Toom-Cook multiplication), so
+     * (k / n)^1.5 estimates the fraction done
      *
      * @param n - the index of the desired Fibonacci number
      * @return - the nth Fibonacci number
      * @throws CancellationException - if the Task has been marked for cancellation
      */
-    private int getNthFibonacciNumber(int n) throws CancellationException {
+    private BigInteger getNthFibonacciNumber(int n) throws CancellationException {
+
+        ForkJoinPool pool = getForkJoinPool();
+
+        // Invariant: a = F(k), b = F(k + 1) for k = the bits of n processed so far
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ONE;
+
+        for (int bit = 31 - Integer.numberOfLeadingZeros(n); bit >= 0; --bit) {
+            checkCancellation();
+
+            BigInteger twoBMinusA = b.shiftLeft(1).subtract(a);
+            BigInteger f2k;
+            BigInteger f2kPlus1;
 
-        if (getState() == TaskState.CANCELLING) {
-            throw new CancellationException();
+            if (pool != null && a.bitLength() >= PARALLEL_THRESHOLD_BITS) {
+                ForkJoinTask<BigInteger> aSquared = pool.submit(new ProductSubtask(a, a));
+                ForkJoinTask<BigInteger> bSquared = pool.submit(new ProductSubtask(b, b));
+
+                f2k = a.multiply(twoBMinusA);
+                f2kPlus1 = aSquared.join().add(bSquared.join());
+
+            } else {
+                f2k = a.multiply(twoBMinusA);
+                f2kPlus1 = a.multiply(a).add(b.multiply(b));
+            }
+
+            if (((n >>> bit) & 1) == 0) {
+                a = f2k;
+                b = f2kPlus1;
+            } else {
+                a = f2kPlus1;
+                b = f2k.add(f2kPlus1);
+            }
+
+            int k = n >>> bit;
+            setProgress(Math.pow((double) k / n, 1.5));
+            setPartialResult("F(" + k + ") computed (about " + (long) (a.bitLength() * DIGITS_PER_BIT + 1)
+                    + " digits)");
         }
 
-        // Using a recursive solution for simplicity and to allow exercising the cancellation mechanism. An iterative
-        // solution would be safer and more efficient in a production environment
-        if (n == 1 || n == 2) {
-            return 1;
+        return a;
+    }
+
+    /**
+     * Multiplies two large numbers on the Task's ForkJoinPool
+     */
+    private class ProductSubtask extends CancellableSubtask<BigInteger> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BigInteger x;
+        private final BigInteger y;
+
+        ProductSubtask(BigInteger x, BigInteger y) {
+            super(FibonacciTask.this);
+            this.x = x;
+            this.y = y;
         }
 
-        return getNthFibonacciNumber(n - 1) + getNthFibonacciNumber(n - 2);
+        @Override
+        protected BigInteger computeSubtask() throws CancellationException {
+            return x.multiply(y);
+        }
     }
 
     /**
@@ -68,17 +169,28 @@ public class FibonacciTask extends Task {
         super.validateTask();
 
         if (fibIndex <= 0) {
-            throw new IndexOutOfBoundsException("Invalid index (" + fibIndex + ") for Fibonacci sequence.");
+            throw new InvalidParameterException("Invalid index (" + fibIndex + ") for Fibonacci sequence.");
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * Identical Fibonacci Tasks always produce identical results, so they are keyed on type and argument
+     *
+     * @return - key identifying this Task's computation
+     */
+    @Override
+    protected String getCoalescingKey() {
+        return getTaskType() + ":" + fibIndex;
+    }
+
     /**
      * {@inheritDoc}
      *
      * @return - "Fibonacci"
      */
     @Override
-    protected String getTaskType() {
+    public String getTaskType() {
         return "Fibonacci";
     }
 }
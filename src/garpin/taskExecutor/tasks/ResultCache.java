@@ -0,0 +1,240 @@
+package garpin.taskExecutor.tasks;
+
+import java.math.BigInteger;
+import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide, size-bounded cache of numeric Task results keyed by task type and integer argument, shared so that
+ * Tasks repeating (or extending) an earlier computation can reuse its result. Entries are evicted in least recently
+ * used order once either the entry count or the total size of cached values (in bits) exceeds its limit.
+ * Besides exact lookups, the cache can return the cached entry with the largest argument not exceeding a requested one
+ * (e.g., so that factorial(n) can resume from a cached factorial(k))
+ */
+public class ResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_BITS = 256L * 1024 * 1024;
+
+    private static ResultCache instance = new ResultCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BITS);
+
+    private final int maxEntries;
+    private final long maxBits;
+    private long cachedBits = 0;
+
+    // Access-ordered so that iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, BigInteger> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Per-type index of cached arguments, for floor lookups
+    private final HashMap<String, TreeMap<Integer, BigInteger>> arguments = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder partialHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Returns the process-wide instance of this class
+     *
+     * @return - shared ResultCache
+     */
+    public static ResultCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Constructor - creates an empty cache with the given limits
+     *
+     * @param maxEntries - maximum number of cached results (1 - n)
+     * @param maxBits    - maximum total size of cached results in bits (1 - n)
+     */
+    public ResultCache(int maxEntries, long maxBits) {
+        if (maxEntries <= 0) {
+            throw new InvalidParameterException("Invalid cache entry limit: " + maxEntries);
+        }
+
+        if (maxBits <= 0) {
+            throw new InvalidParameterException("Invalid cache size limit: " + maxBits);
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxBits = maxBits;
+    }
+
+    /**
+     * Returns the cached result for exactly the given type and argument, or null if it is not cached
+     *
+     * @param type     - the task type (e.g., "Fibonacci")
+     * @param argument - the task's argument
+     * @return - the cached result, or null
+     */
+    public synchronized BigInteger get(String type, int argument) {
+        BigInteger value = entries.get(new Key(type, argument));
+
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the cached entry of the given type with the largest argument not exceeding the given one, or null if
+     * there is none. An exact match counts as a hit, a smaller argument as a partial hit
+     *
+     * @param type     - the task type (e.g., "Factorial")
+     * @param argument - the largest acceptable argument
+     * @return - the (argument, result) pair found, or null
+     */
+    public synchronized Map.Entry<Integer, BigInteger> getFloor(String type, int argument) {
+        TreeMap<Integer, BigInteger> typeArguments = arguments.get(type);
+        Map.Entry<Integer, BigInteger> floor = (typeArguments == null) ? null : typeArguments.floorEntry(argument);
+
+        if (floor == null) {
+            misses.increment();
+            return null;
+        }
+
+        // Touch the entry so that it counts as recently used
+        entries.get(new Key(type, floor.getKey()));
+
+        if (floor.getKey() == argument) {
+            hits.increment();
+        } else {
+            partialHits.increment();
+        }
+
+        return new AbstractMap.SimpleImmutableEntry<>(floor.getKey(), floor.getValue());
+    }
+
+    /**
+     * Caches a result, evicting least recently used entries as needed to stay within the cache's limits. Results
+     * larger than the cache's total size limit are not cached
+     *
+     * @param type     - the task type (e.g., "Fibonacci")
+     * @param argument - the task's argument
+     * @param value    - the result to cache
+     */
+    public synchronized void put(String type, int argument, BigInteger value) {
+        long bits = value.bitLength();
+
+        if (bits > maxBits) {
+            return;
+        }
+
+        Key key = new Key(type, argument);
+        BigInteger previous = entries.put(key, value);
+
+        if (previous != null) {
+            cachedBits -= previous.bitLength();
+        }
+
+        cachedBits += bits;
+        arguments.computeIfAbsent(type, t -> new TreeMap<>()).put(argument, value);
+
+        Iterator<Map.Entry<Key, BigInteger>> eldest = entries.entrySet().iterator();
+
+        while (entries.size() > maxEntries || cachedBits > maxBits) {
+            Map.Entry<Key, BigInteger> entry = eldest.next();
+            eldest.remove();
+
+            cachedBits -= entry.getValue().bitLength();
+
+            TreeMap<Integer, BigInteger> typeArguments = arguments.get(entry.getKey().type);
+            typeArguments.remove(entry.getKey().argument);
+            if (typeArguments.isEmpty()) {
+                arguments.remove(entry.getKey().type);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached results (counters are not reset)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        arguments.clear();
+        cachedBits = 0;
+    }
+
+    /**
+     * Returns the number of cached results
+     *
+     * @return - number of cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups that found an exact match
+     *
+     * @return - exact hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of floor lookups that found a smaller argument to resume from
+     *
+     * @return - partial hit count
+     */
+    public long getPartialHitCount() {
+        return partialHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found nothing usable
+     *
+     * @return - miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns a single-line summary of the cache's size and lookup counters, for display alongside executor metrics
+     *
+     * @return - String summary of the cache
+     */
+    public String fetchStatisticsInfo() {
+        return String.format("Result cache: %d entries, hits=%d partial hits=%d misses=%d%n", size(), getHitCount(),
+                getPartialHitCount(), getMissCount());
+    }
+
+    /**
+     * Cache key combining a task type and argument
+     */
+    private static class Key {
+        final String type;
+        final int argument;
+
+        Key(String type, int argument) {
+            this.type = type;
+            this.argument = argument;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return argument == key.argument && type.equals(key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + argument;
+        }
+    }
+}
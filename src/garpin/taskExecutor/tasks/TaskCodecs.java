@@ -0,0 +1,111 @@
+package garpin.taskExecutor.tasks;
+
+import garpin.taskExecutor.controllers.TaskCodecRegistry;
+import garpin.taskExecutor.controllers.TaskTypeCodec;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidParameterException;
+
+/**
+ * Binary codecs for the Tasks defined in this package
+ */
+public class TaskCodecs {
+
+    // Persisted type tags. Never reuse or renumber these
+    public static final int TYPE_FIBONACCI = 1;
+    public static final int TYPE_FACTORIAL = 2;
+
+    /**
+     * Creates a TaskCodecRegistry supporting every Task type in this package
+     *
+     * @return - a populated TaskCodecRegistry
+     */
+    public static TaskCodecRegistry createRegistry() {
+        TaskCodecRegistry registry = new TaskCodecRegistry();
+
+        registry.register(TYPE_FIBONACCI, new FibonacciCodec());
+        registry.register(TYPE_FACTORIAL, new FactorialCodec());
+
+        return registry;
+    }
+
+    /**
+     * Reads an argument list consisting of a single int, rejecting one of any other length (e.g., a truncated or
+     * corrupt record) rather than reading past it
+     *
+     * @param arguments - buffer holding exactly the encoded arguments
+     * @param field     - name of the argument, for the error message
+     * @return - the int argument
+     * @throws InvalidParameterException - if the buffer does not hold exactly four bytes
+     */
+    private static int readInt(ByteBuffer arguments, String field) {
+        if (arguments.remaining() != 4) {
+            throw new InvalidParameterException("Corrupt task record: " + arguments.remaining() + " bytes for "
+                    + field + " (expected 4)");
+        }
+
+        return arguments.getInt(arguments.position());
+    }
+
+    /**
+     * Encodes a FibonacciTask's index
+     */
+    private static class FibonacciCodec implements TaskTypeCodec<FibonacciTask> {
+
+        @Override
+        public Class<FibonacciTask> getTaskClass() {
+            return FibonacciTask.class;
+        }
+
+        @Override
+        public FibonacciTask createTask() {
+            return new FibonacciTask();
+        }
+
+        @Override
+        public int getArgumentsSize(FibonacciTask task) {
+            return 4;
+        }
+
+        @Override
+        public void writeArguments(FibonacciTask task, ByteBuffer buffer) {
+            buffer.putInt(task.getFibonacciIndex());
+        }
+
+        @Override
+        public void readArguments(FibonacciTask task, ByteBuffer arguments) {
+            task.setFibonacciIndex(readInt(arguments, "Fibonacci index"));
+        }
+    }
+
+    /**
+     * Encodes a FactorialTask's base
+     */
+    private static class FactorialCodec implements TaskTypeCodec<FactorialTask> {
+
+        @Override
+        public Class<FactorialTask> getTaskClass() {
+            return FactorialTask.class;
+        }
+
+        @Override
+        public FactorialTask createTask() {
+            return new FactorialTask();
+        }
+
+        @Override
+        public int getArgumentsSize(FactorialTask task) {
+            return 4;
+        }
+
+        @Override
+        public void writeArguments(FactorialTask task, ByteBuffer buffer) {
+            buffer.putInt(task.getFactorialBase());
+        }
+
+        @Override
+        public void readArguments(FactorialTask task, ByteBuffer arguments) {
+            task.setFactorialBase(readInt(arguments, "factorial base"));
+        }
+    }
+}
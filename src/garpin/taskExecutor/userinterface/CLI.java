@@ -1,9 +1,16 @@
 package garpin.taskExecutor.userinterface;
 
+import garpin.taskExecutor.controllers.CompletedTask;
 import garpin.taskExecutor.controllers.TaskController;
+import garpin.taskExecutor.controllers.TaskPage;
+import garpin.taskExecutor.storage.JournaledTaskQueue;
+import garpin.taskExecutor.storage.PriorityTaskQueue;
+import garpin.taskExecutor.tasks.TaskCodecs;
 import garpin.taskExecutor.tasks.FactorialTask;
 import garpin.taskExecutor.tasks.FibonacciTask;
+import garpin.taskExecutor.tasks.ResultCache;
 
+import java.io.File;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 
@@ -20,6 +27,10 @@ public class CLI {
     private static final int CMD_CANCEL_CURRENT_TASK = 6;
     private static final int CMD_READ_CURRENT_TASK = 7;
     private static final int CMD_VIEW_COMPLETED_TASKS = 8;
+    private static final int CMD_VIEW_METRICS = 9;
+    private static final int CMD_CANCEL_TASK_BY_ID = 10;
+
+    private static final int COMPLETED_TASKS_PAGE_SIZE = 10;
 
     private static final int CMD_TASK_TYPE_FIBONACCI = 1;
     private static final int CMD_TASK_TYPE_FACTORIAL = 2;
@@ -27,16 +38,38 @@ public class CLI {
     /**
      * Entry point of application. Starts asynchronous task execution and begins processing CLI commands
      *
-     * @param args - not used
+     * @param args - optional directory in which to journal pending tasks (pending tasks are then recovered on restart)
      */
     public static void main(String[] args) {
 
+        if (args.length > 0) {
+            configureJournal(args[0]);
+        }
+
         startExecutor();
         processCommands();
 
         stopExecutor();
     }
 
+    /**
+     * Configures the executor to persist pending tasks in a journal in the given directory, recovering any tasks left
+     * pending by a previous run
+     *
+     * @param directory - path of the journal directory
+     */
+    private static void configureJournal(String directory) {
+        try {
+            JournaledTaskQueue journal = new JournaledTaskQueue(new File(directory), TaskCodecs.createRegistry(),
+                    new PriorityTaskQueue());
+
+            TaskController.getInstance().setTaskCollection(journal);
+
+        } catch (Exception ex) {
+            reportExceptionToUser("Failed to open task journal", ex);
+        }
+    }
+
     /**
      * Launches asynchronous Task Execution
      */
@@ -96,6 +129,14 @@ public class CLI {
                     processCommandViewCompletedTasks();
                     break;
                 }
+                case CMD_VIEW_METRICS: {
+                    processCommandViewMetrics();
+                    break;
+                }
+                case CMD_CANCEL_TASK_BY_ID: {
+                    processCommandCancelTaskById();
+                    break;
+                }
                 default: {
                     notifyUser("Invalid value");
                     awaitUserPromptToContinue();
@@ -132,6 +173,8 @@ public class CLI {
         notifyUser("\t6: Cancel current task");
         notifyUser("\t7: View current task");
         notifyUser("\t8: View all completed tasks");
+        notifyUser("\t9: View executor metrics");
+        notifyUser("\t10: Cancel a task by id");
 
         try {
             return input.nextInt();
@@ -241,7 +284,7 @@ public class CLI {
             task.setFibonacciIndex(value);
             TaskController.getInstance().scheduleTask(task);
 
-            notifyUser("Fibonacci task scheduled");
+            notifyUser("Fibonacci task scheduled (id " + task.getId() + ")");
             awaitUserPromptToContinue();
 
         } catch (Exception exception) {
@@ -264,7 +307,7 @@ public class CLI {
             task.setFactorialBase(value);
             TaskController.getInstance().scheduleTask(task);
 
-            notifyUser("Factorial task scheduled");
+            notifyUser("Factorial task scheduled (id " + task.getId() + ")");
             awaitUserPromptToContinue();
 
         } catch (Exception exception) {
@@ -287,6 +330,28 @@ public class CLI {
         }
     }
 
+    /**
+     * Processes a user request to cancel a pending or running task, identified by the id reported when it was scheduled
+     */
+    private static void processCommandCancelTaskById() {
+        Scanner input = new Scanner(System.in);
+
+        notifyUser("Enter the id of the task to cancel:");
+        try {
+            long id = input.nextLong();
+
+            if (TaskController.getInstance().cancelTask(id)) {
+                notifyUser("Cancellation requested");
+            } else {
+                notifyUser("No pending or running task has id " + id);
+            }
+            awaitUserPromptToContinue();
+
+        } catch (Exception exception) {
+            reportExceptionToUser("Could not cancel task", exception);
+        }
+    }
+
     /**
      * Processes a user's request to view the currently running task
      */
@@ -303,13 +368,44 @@ public class CLI {
     }
 
     /**
-     * Processes a user's request to view all completed tasks
+     * Processes a user's request to view all completed tasks. Tasks are fetched and displayed a page at a time
      */
     private static void processCommandViewCompletedTasks() {
+        Scanner input = new Scanner(System.in);
+        long cursor = 0;
+
+        try {
+            while (true) {
+                TaskPage<CompletedTask> page = TaskController.getInstance()
+                        .fetchCompletedTasksPage(cursor, COMPLETED_TASKS_PAGE_SIZE, null);
+
+                notifyUser(TaskController.getInstance().renderTaskPage(page));
+
+                if (!page.hasMore()) {
+                    break;
+                }
 
-        String info = TaskController.getInstance().fetchCompletedTasksInfo();
+                notifyUser("(Enter for more, or 'q' to stop)");
+                if (input.nextLine().trim().equalsIgnoreCase("q")) {
+                    break;
+                }
+
+                cursor = page.getNextCursor();
+            }
+
+            awaitUserPromptToContinue();
 
-        notifyUser(info);
+        } catch (Exception exception) {
+            reportExceptionToUser("Could not fetch completed tasks", exception);
+        }
+    }
+
+    /**
+     * Processes a user's request to view executor metrics (queue depth, task counts, wait and run times, result cache hits)
+     */
+    private static void processCommandViewMetrics() {
+        notifyUser(TaskController.getInstance().fetchMetricsInfo()
+                + ResultCache.getInstance().fetchStatisticsInfo());
         awaitUserPromptToContinue();
     }
 
@@ -0,0 +1,71 @@
+package garpin.taskExecutor.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 10; ++i) {
+            histogram.record(i);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(5.5, histogram.getMean(), 1e-9);
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(10, histogram.getPercentile(100));
+        assertEquals(10, histogram.getMax());
+    }
+
+    @Test
+    void largeValuesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long value = 1_000; value <= 100_000_000_000L; value *= 10) {
+            histogram.record(value);
+        }
+
+        // 9 values recorded: 1e3 .. 1e11
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 10_000_000 && median <= 10_000_000 * 1.04, "Median outside histogram precision: " + median);
+        assertEquals(100_000_000_000L, histogram.getPercentile(100), "Expected maximum to be exact");
+    }
+
+    @Test
+    void concurrentRecordsAreMerged() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread threads[] = new Thread[8];
+
+        for (int i = 0; i < threads.length; ++i) {
+            final long value = i + 1;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; ++j) {
+                    histogram.record(value);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(4.5, histogram.getMean(), 1e-9);
+        assertEquals(8, histogram.getMax());
+        assertEquals(4, histogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,148 @@
+package garpin.taskExecutor.controllers;
+
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCoalescerTest {
+
+    @Test
+    void identicalTasksShareExecution() {
+        TaskCoalescer coalescer = new TaskCoalescer();
+
+        Task primary = createFibonacciTask(20, "admin");
+        Task follower = createFibonacciTask(20, "user");
+        Task different = createFibonacciTask(21, "user");
+        Task otherType = new FactorialTask();
+        ((FactorialTask) otherType).setFactorialBase(20);
+
+        assertFalse(coalescer.join(primary), "Expected first task to be queued");
+        assertTrue(coalescer.join(follower), "Expected identical task to share execution");
+        assertFalse(coalescer.join(different), "Expected different argument to be queued");
+        assertFalse(coalescer.join(otherType), "Expected different task type to be queued");
+
+        coalescer.started(primary);
+        assertEquals(Task.TaskState.RUNNING, follower.getState(), "Expected follower to mirror running primary");
+
+        primary.startTask();
+        List<Task> followers = coalescer.completed(primary);
+
+        assertEquals(1, followers.size());
+        assertSame(follower, followers.get(0));
+        assertEquals(Task.TaskState.COMPLETED, follower.getState());
+        assertEquals("6765", follower.getResults());
+        assertEquals("user", follower.getCreator(), "Expected follower to keep its own creator");
+
+        assertFalse(coalescer.join(createFibonacciTask(20, "user")), "Expected new execution after completion");
+    }
+
+    @Test
+    void partialCancellationDoesNotStopSharedWork() {
+        TaskCoalescer coalescer = new TaskCoalescer();
+
+        Task primary = createFibonacciTask(30, "admin");
+        Task follower = createFibonacciTask(30, "user");
+
+        coalescer.join(primary);
+        coalescer.join(follower);
+
+        coalescer.requestCancel(primary);
+        assertEquals(Task.TaskState.PENDING, primary.getState(), "Expected shared work to continue for follower");
+
+        coalescer.started(primary);
+        primary.startTask();
+        coalescer.completed(primary);
+
+        assertEquals(Task.TaskState.CANCELLED, primary.getState(), "Expected cancelled record to be CANCELLED");
+        assertEquals(Task.TaskState.COMPLETED, follower.getState(), "Expected follower to receive results");
+        assertEquals("832040", follower.getResults());
+    }
+
+    @Test
+    void cancelledPrimaryMakesSingleTerminalTransition() throws Exception {
+        TaskCoalescer coalescer = new TaskCoalescer();
+
+        Task primary = createFibonacciTask(25, "admin");
+        Task follower = createFibonacciTask(25, "user");
+        List<Task.TaskState> transitions = new ArrayList<>();
+
+        coalescer.join(primary);
+        coalescer.join(follower);
+        primary.addStateListener((task, previousState, newState, sequence) -> transitions.add(newState));
+
+        coalescer.requestCancel(primary);
+        assertEquals(Task.TaskState.PENDING, primary.getState(), "Expected shared work to continue for follower");
+
+        coalescer.started(primary);
+        primary.startTask();
+
+        assertEquals(Task.TaskState.CANCELLED, primary.getCompletion().get(0, TimeUnit.SECONDS).getState());
+        assertEquals(Arrays.asList(Task.TaskState.RUNNING, Task.TaskState.CANCELLED), transitions,
+                "Expected cancelled primary never to pass through COMPLETED");
+
+        coalescer.completed(primary);
+
+        assertEquals(Task.TaskState.CANCELLED, primary.getState());
+        assertEquals("Task cancelled before completion", primary.getResults());
+        assertEquals(Task.TaskState.COMPLETED, follower.getState(), "Expected follower to receive results");
+        assertEquals("75025", follower.getResults());
+        assertEquals(2, transitions.size(), "Expected no further transitions of the primary");
+    }
+
+    @Test
+    void fullCancellationStopsSharedWork() {
+        TaskCoalescer coalescer = new TaskCoalescer();
+
+        Task primary = createFibonacciTask(30, "admin");
+        Task follower = createFibonacciTask(30, "user");
+
+        coalescer.join(primary);
+        coalescer.join(follower);
+
+        coalescer.requestCancel(follower);
+        assertEquals(Task.TaskState.PENDING, primary.getState(), "Expected shared work to continue for primary");
+
+        coalescer.requestCancel(primary);
+        assertEquals(Task.TaskState.CANCELLED, primary.getState(), "Expected pending shared work to be cancelled");
+        assertEquals(Task.TaskState.CANCELLED, follower.getState(), "Expected pending follower to be cancelled");
+
+        assertEquals(2, coalescer.getMembers(follower).size());
+
+        Task late = createFibonacciTask(30, "user");
+        assertFalse(coalescer.join(late), "Expected new task not to join cancelled work");
+    }
+
+    @Test
+    void fullCancellationInterruptsRunningWork() {
+        TaskCoalescer coalescer = new TaskCoalescer();
+
+        Task primary = createFibonacciTask(30, "admin");
+        Task follower = createFibonacciTask(30, "user");
+
+        coalescer.join(primary);
+        coalescer.join(follower);
+        primary.setState(Task.TaskState.RUNNING);
+        coalescer.started(primary);
+
+        coalescer.requestCancel(primary);
+        assertEquals(Task.TaskState.RUNNING, primary.getState(), "Expected shared work to continue for follower");
+
+        coalescer.requestCancel(follower);
+        assertEquals(Task.TaskState.CANCELLING, primary.getState(), "Expected running shared work to be cancelled");
+    }
+
+    private static Task createFibonacciTask(int index, String creator) {
+        FibonacciTask task = new FibonacciTask();
+        task.setFibonacciIndex(index);
+        task.setCreator(creator);
+        task.setResultCache(null);
+        return task;
+    }
+}
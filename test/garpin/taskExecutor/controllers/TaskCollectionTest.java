@@ -0,0 +1,63 @@
+package garpin.taskExecutor.controllers;
+
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCollectionTest {
+
+    @Test
+    void defaultTimedRemoveWaitsForTask() throws Exception {
+        PollingCollection collection = new PollingCollection();
+        FibonacciTask task = new FibonacciTask();
+
+        long start = System.nanoTime();
+        assertNull(collection.removeTask(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "Expected removal to wait");
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            collection.addTask(task);
+        });
+        producer.start();
+
+        assertSame(task, collection.removeTask(5, TimeUnit.SECONDS), "Expected the task added while waiting");
+        assertTrue(collection.polls < 1000, "Expected the waiting consumer not to spin: " + collection.polls);
+        producer.join();
+    }
+
+    @Test
+    void defaultTimedRemoveIsInterruptible() {
+        PollingCollection collection = new PollingCollection();
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> collection.removeTask(5, TimeUnit.SECONDS));
+        assertFalse(Thread.interrupted(), "Expected the interrupt to be consumed");
+    }
+
+    /**
+     * Collection relying on the default timed removal, counting how often it is polled
+     */
+    private static class PollingCollection implements TaskCollection {
+        private final ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<>();
+        volatile int polls = 0;
+
+        @Override
+        public void addTask(Task task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public Task removeTask() {
+            polls++;
+            return tasks.poll();
+        }
+    }
+}
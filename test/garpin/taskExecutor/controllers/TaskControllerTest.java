@@ -0,0 +1,223 @@
+package garpin.taskExecutor.controllers;
+
+import garpin.taskExecutor.storage.JournaledTaskQueue;
+import garpin.taskExecutor.storage.TaskArchive;
+import garpin.taskExecutor.storage.TaskQueue;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import garpin.taskExecutor.tasks.TaskCodecs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskControllerTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void failedScheduleIsRolledBack() throws Exception {
+        RejectingTaskQueue queue = new RejectingTaskQueue();
+        TaskController controller = new TaskController();
+        controller.setTaskCollection(queue);
+
+        FibonacciTask task = createFibonacciTask(20);
+        assertThrows(IllegalStateException.class, () -> controller.scheduleTask(task));
+
+        assertFalse(controller.cancelTask(task.getId()), "Expected rejected task not to be tracked");
+        assertEquals(0, controller.getMetrics().getQueueDepth());
+
+        queue.rejecting = false;
+        FibonacciTask retry = createFibonacciTask(20);
+        controller.scheduleTask(retry);
+
+        assertSame(retry, queue.removeTask(), "Expected identical task to be queued rather than join the rejected one");
+        assertEquals(1, controller.getMetrics().getQueueDepth());
+    }
+
+    @Test
+    void failedBatchIsRolledBack() throws Exception {
+        RejectingTaskQueue queue = new RejectingTaskQueue();
+        TaskController controller = new TaskController();
+        controller.setTaskCollection(queue);
+
+        FibonacciTask primary = createFibonacciTask(20);
+        FibonacciTask follower = createFibonacciTask(20);
+        assertThrows(IllegalStateException.class, () -> controller.scheduleTasks(Arrays.asList(primary, follower)));
+
+        assertFalse(controller.cancelTask(primary.getId()));
+        assertFalse(controller.cancelTask(follower.getId()));
+        assertEquals(Task.TaskState.PENDING, follower.getState(), "Expected withdrawn follower to be left untouched");
+        assertEquals(0, controller.getMetrics().getQueueDepth());
+        assertEquals(0, controller.getMetrics().getScheduledCount());
+    }
+
+    @Test
+    void onlyPendingTasksAreScheduled() throws Exception {
+        TaskQueue queue = new TaskQueue();
+        TaskController controller = new TaskController();
+        controller.setTaskCollection(queue);
+
+        FibonacciTask finished = createFibonacciTask(20);
+        finished.setState(Task.TaskState.COMPLETED);
+        assertThrows(InvalidParameterException.class, () -> controller.scheduleTask(finished));
+        assertThrows(InvalidParameterException.class,
+                () -> controller.scheduleTasks(Arrays.asList(createFibonacciTask(21), finished)));
+
+        assertNull(queue.removeTask(0, TimeUnit.MILLISECONDS), "Expected no task to be queued");
+        assertEquals(0, controller.getMetrics().getScheduledCount());
+    }
+
+    @Test
+    void recoveredTasksAreTracked() throws Exception {
+        JournaledTaskQueue journal = new JournaledTaskQueue(directory, TaskCodecs.createRegistry(), new TaskQueue());
+        journal.addTask(createFibonacciTask(15));
+        journal.close();
+
+        JournaledTaskQueue reopened = new JournaledTaskQueue(directory, TaskCodecs.createRegistry(), new TaskQueue());
+        TaskController controller = new TaskController();
+        List<Task.TaskState> transitions = new ArrayList<>();
+        controller.addStateListener((task, previousState, newState, sequence) -> transitions.add(newState));
+
+        controller.setTaskCollection(reopened);
+        assertEquals(1, controller.getMetrics().getQueueDepth());
+
+        Task recovered = reopened.removeTask();
+        assertTrue(controller.cancelTask(recovered.getId()), "Expected recovered task to be cancellable by id");
+        assertEquals(Arrays.asList(Task.TaskState.CANCELLED), transitions);
+
+        reopened.close();
+    }
+
+    @Test
+    void cancelledPendingTaskIsNotRecovered() throws Exception {
+        JournaledTaskQueue journal = new JournaledTaskQueue(directory, TaskCodecs.createRegistry(), new TaskQueue());
+        TaskController controller = new TaskController();
+        controller.setTaskCollection(journal);
+        controller.setUser("user");
+
+        FibonacciTask cancelled = createFibonacciTask(15);
+        FibonacciTask kept = createFibonacciTask(16);
+        controller.scheduleTasks(Arrays.asList(cancelled, kept));
+
+        // No worker reaches the cancelled task before the (simulated) restart
+        assertTrue(controller.cancelTask(cancelled.getId()));
+        journal.close();
+
+        JournaledTaskQueue reopened = new JournaledTaskQueue(directory, TaskCodecs.createRegistry(), new TaskQueue());
+        List<Task> recovered = reopened.takeRecoveredTasks();
+
+        assertEquals(1, recovered.size(), "Expected only the task still pending to be recovered");
+        assertEquals(16, ((FibonacciTask) recovered.get(0)).getFibonacciIndex());
+
+        reopened.close();
+    }
+
+    @Test
+    void completedQueriesIncludeArchivedTasks() throws Exception {
+        TaskArchive archive = new TaskArchive();
+        TaskController controller = new TaskController();
+        controller.setCompletedTaskArchive(2, archive);
+        controller.setWorkerCount(1);
+        controller.startExecutorProcess();
+
+        List<Long> scheduled = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; ++i) {
+                FibonacciTask task = createFibonacciTask(10 + i);
+                scheduled.add(task.getId());
+                controller.scheduleTask(task).get(5, TimeUnit.SECONDS);
+            }
+
+            // The handle completes as the task finishes, slightly before the task is recorded in the history
+            long deadline = System.currentTimeMillis() + 5000;
+            while (countCompleted(controller) < scheduled.size() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            controller.shutdownExecutorProcess();
+        }
+
+        assertEquals(3, archive.size(), "Expected the tasks evicted from the ring to be archived");
+
+        List<Long> paged = new ArrayList<>();
+        long cursor = 0;
+        TaskPage<CompletedTask> page;
+        do {
+            page = controller.fetchCompletedTasksPage(cursor, 2, null);
+            assertTrue(page.getTasks().size() <= 2, "Page exceeded requested size");
+
+            for (CompletedTask task : page.getTasks()) {
+                paged.add(task.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+
+        assertEquals(scheduled, paged, "Expected archived tasks followed by those still in the ring");
+
+        TaskFilter filter = new TaskFilter();
+        filter.setState(Task.TaskState.COMPLETED);
+        assertEquals(scheduled.size(), countCompleted(controller, filter));
+
+        String info = controller.fetchCompletedTasksInfo();
+        for (long id : scheduled) {
+            assertTrue(info.contains("Id: " + id + "\n"), "Expected every task in the summary");
+        }
+
+        archive.close();
+    }
+
+    private static int countCompleted(TaskController controller) {
+        return countCompleted(controller, null);
+    }
+
+    private static int countCompleted(TaskController controller, TaskFilter filter) {
+        int count = 0;
+        for (Iterator<CompletedTask> iterator = controller.streamCompletedTasks(filter); iterator.hasNext(); ) {
+            iterator.next();
+            ++count;
+        }
+        return count;
+    }
+
+    private static FibonacciTask createFibonacciTask(int index) {
+        FibonacciTask task = new FibonacciTask();
+        task.setFibonacciIndex(index);
+        task.setCreator("user");
+        return task;
+    }
+
+    /**
+     * Queue that rejects additions while 'rejecting' is set, as a closed journal does
+     */
+    private static class RejectingTaskQueue extends TaskQueue {
+        volatile boolean rejecting = true;
+
+        @Override
+        public void addTask(Task task) {
+            if (rejecting) {
+                throw new IllegalStateException("Task journal is closed");
+            }
+
+            super.addTask(task);
+        }
+
+        @Override
+        public void addTasks(Collection<? extends Task> tasks) {
+            if (rejecting) {
+                throw new IllegalStateException("Task journal is closed");
+            }
+
+            super.addTasks(tasks);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package garpin.taskExecutor.controllers;
+
+import garpin.taskExecutor.storage.TaskHistoryRing;
+import garpin.taskExecutor.storage.TaskQueue;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskExecutorTest {
+
+    @Test
+    void cancelledPendingTaskIsSkipped() throws InterruptedException {
+        TaskQueue queue = new TaskQueue();
+        TaskHistoryRing history = new TaskHistoryRing(8);
+        TaskExecutor executor = new TaskExecutor(queue, history);
+        TaskMetrics metrics = new TaskMetrics();
+        executor.setTaskMetrics(metrics);
+
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("user");
+        task.setFibonacciIndex(10);
+        queue.addTask(task);
+
+        task.requestCancel();
+        executor.processNextTask();
+
+        assertEquals(Task.TaskState.CANCELLED, task.getState());
+        assertEquals("Task cancelled before completion", task.getResults(), "Expected task not to have run");
+        assertSame(task, history.getTasks().get(0), "Expected cancelled task to be recorded as finished");
+        assertEquals(0, metrics.getStartedCount());
+        assertEquals(1, metrics.getDiscardedCount());
+    }
+
+    @Test
+    void interruptStopsBlockedTask() throws Exception {
+        TaskExecutor executor = new TaskExecutor(new TaskQueue(), new TaskHistoryRing(8));
+        BlockingTask task = new BlockingTask();
+        task.setCreator("user");
+
+        Thread worker = new Thread(() -> executor.executeTask(task));
+        worker.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getCurrentTasks().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertTrue(task.requestCancel());
+        executor.interruptTask(task);
+
+        assertTrue(task.getCompletion().get(5, TimeUnit.SECONDS) == task, "Expected interrupted task to finish");
+        assertEquals(Task.TaskState.CANCELLED, task.getState());
+
+        worker.join(5000);
+        assertFalse(worker.isAlive());
+    }
+
+    @Test
+    void claimedTasksAreRestoredWhenDisabled() throws Exception {
+        TaskQueue queue = new TaskQueue();
+        TaskExecutor executor = new TaskExecutor(queue, new TaskHistoryRing(8));
+        executor.setBatchSize(4);
+        List<Task> batch = queueTasks(queue, 4);
+
+        executor.disable();
+        CountDownLatch claimed = new CountDownLatch(1);
+        Thread worker = new Thread(() -> claimThenRun(executor, batch.get(0), claimed));
+        worker.start();
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+
+        // The parked worker hands back the three tasks it claimed but did not start
+        for (int i = 1; i < batch.size(); ++i) {
+            assertSame(batch.get(i), queue.removeTask(5, TimeUnit.SECONDS), "Expected claimed task to be restored");
+        }
+
+        executor.shutdown();
+        worker.join(5000);
+        assertFalse(worker.isAlive());
+    }
+
+    @Test
+    void claimedTasksAreRestoredOnShutdown() throws Exception {
+        TaskQueue queue = new TaskQueue();
+        TaskExecutor executor = new TaskExecutor(queue, new TaskHistoryRing(8));
+        executor.setBatchSize(4);
+        List<Task> batch = queueTasks(queue, 4);
+
+        executor.shutdown();
+        Thread worker = new Thread(() -> claimThenRun(executor, batch.get(0), new CountDownLatch(1)));
+        worker.start();
+        worker.join(5000);
+        assertFalse(worker.isAlive());
+
+        List<Task> restored = new ArrayList<>();
+        queue.removeTasks(restored, batch.size());
+        assertEquals(batch.subList(1, batch.size()), restored, "Expected the unstarted tasks back in the queue");
+    }
+
+    private static List<Task> queueTasks(TaskQueue queue, int count) {
+        List<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < count; ++i) {
+            FibonacciTask task = new FibonacciTask();
+            task.setCreator("user");
+            task.setFibonacciIndex(10 + i);
+            tasks.add(task);
+        }
+
+        queue.addTasks(tasks);
+        return tasks;
+    }
+
+    /**
+     * Claims a batch on the calling thread (as a worker does), then runs the worker loop on the same thread
+     */
+    private static void claimThenRun(TaskExecutor executor, Task expected, CountDownLatch claimed) {
+        try {
+            assertSame(expected, executor.takeNextTask());
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        claimed.countDown();
+
+        executor.run();
+    }
+
+    /**
+     * Task that blocks until interrupted
+     */
+    private static class BlockingTask extends Task {
+
+        @Override
+        protected void runTask() throws Exception {
+            Thread.sleep(60_000);
+        }
+
+        @Override
+        public String getTaskType() {
+            return "Blocking";
+        }
+    }
+}
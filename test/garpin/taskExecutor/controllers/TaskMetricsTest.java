@@ -0,0 +1,62 @@
+package garpin.taskExecutor.controllers;
+
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskMetricsTest {
+
+    @Test
+    void countsTransitionsAndLatencies() {
+        TaskMetrics metrics = new TaskMetrics();
+
+        FibonacciTask fib = new FibonacciTask();
+        fib.setCreator("user");
+        fib.setFibonacciIndex(10);
+
+        FactorialTask fact = new FactorialTask();
+        fact.setCreator("user");
+        fact.setFactorialBase(-1);
+
+        metrics.taskScheduled(fib);
+        metrics.taskScheduled(fact);
+        metrics.taskCoalesced(new FibonacciTask());
+        assertEquals(2, metrics.getQueueDepth());
+
+        for (Task task : new Task[]{fib, fact}) {
+            long start = metrics.taskStarted(task);
+            task.startTask();
+            metrics.taskFinished(task, start);
+        }
+
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(2, metrics.getScheduledCount());
+        assertEquals(1, metrics.getCoalescedCount());
+        assertEquals(2, metrics.getStartedCount());
+        assertEquals(1, metrics.getCompletedCount());
+        assertEquals(1, metrics.getFailedCount(), "Expected invalid factorial to fail");
+        assertEquals(0, metrics.getCancelledCount());
+        assertTrue(metrics.getThroughput() > 0);
+
+        assertEquals(Arrays.asList("Factorial", "Fibonacci"), metrics.getTaskTypes());
+        assertEquals(1, metrics.getWaitTimes("Fibonacci").getCount());
+        assertEquals(1, metrics.getRunTimes("Factorial").getCount());
+        assertEquals(0, metrics.getRunTimes("Unknown").getCount());
+    }
+
+    @Test
+    void unscheduledTasksHaveNoWaitTime() {
+        TaskMetrics metrics = new TaskMetrics();
+        FibonacciTask recovered = new FibonacciTask();
+
+        metrics.taskFinished(recovered, metrics.taskStarted(recovered));
+
+        assertEquals(0, metrics.getWaitTimes("Fibonacci").getCount());
+        assertEquals(1, metrics.getRunTimes("Fibonacci").getCount());
+        assertEquals(0, metrics.getQueueDepth(), "Expected queue depth not to go negative");
+    }
+}
@@ -0,0 +1,51 @@
+package garpin.taskExecutor.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskResultTest {
+
+    @Test
+    void rendersOnceOnDemand() {
+        AtomicInteger renders = new AtomicInteger();
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                renders.incrementAndGet();
+                return "rendered";
+            }
+        };
+
+        TaskResult result = new TaskResult(value);
+        assertSame(value, result.getValue());
+        assertFalse(result.isRendered());
+        assertEquals(0, renders.get(), "Expected no rendering until requested");
+
+        assertEquals("rendered", result.toString());
+        assertEquals("rendered", result.toString());
+        assertTrue(result.isRendered());
+        assertEquals(1, renders.get(), "Expected rendering to be cached");
+    }
+
+    @Test
+    void stringsAndEmptyResults() {
+        assertTrue(new TaskResult("text").isRendered());
+        assertEquals("text", new TaskResult("text").toString());
+        assertEquals("", new TaskResult(null).toString());
+        assertEquals("", TaskResult.EMPTY.toString());
+    }
+
+    @Test
+    void largeNumber() {
+        BigInteger value = BigInteger.TEN.pow(20000).subtract(BigInteger.ONE);
+        TaskResult result = new TaskResult(value);
+
+        String text = result.toString();
+        assertEquals(20000, text.length());
+        assertTrue(text.chars().allMatch(c -> c == '9'));
+    }
+}
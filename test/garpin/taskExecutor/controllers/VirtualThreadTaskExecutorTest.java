@@ -0,0 +1,68 @@
+package garpin.taskExecutor.controllers;
+
+import garpin.taskExecutor.storage.TaskHistoryRing;
+import garpin.taskExecutor.storage.TaskQueue;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadTaskExecutorTest {
+
+    private static boolean javaSupportsVirtualThreads() {
+        String version = System.getProperty("java.specification.version");
+
+        return !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+    }
+
+    @Test
+    void isSupportedMatchesJavaVersion() {
+        assertEquals(javaSupportsVirtualThreads(), VirtualThreadTaskExecutor.isSupported());
+    }
+
+    @Test
+    void constructorValidation() {
+        if (VirtualThreadTaskExecutor.isSupported()) {
+            assertThrows(InvalidParameterException.class,
+                    () -> new VirtualThreadTaskExecutor(new TaskQueue(), new TaskHistoryRing(8), 0));
+        } else {
+            Exception ex = assertThrows(Exception.class,
+                    () -> new VirtualThreadTaskExecutor(new TaskQueue(), new TaskHistoryRing(8), 4));
+            assertEquals("Virtual threads require Java 21 or later", ex.getMessage());
+        }
+    }
+
+    @Test
+    void taskDequeuedDuringShutdownIsStillRun() throws Exception {
+        TaskQueue queue = new TaskQueue();
+        TaskHistoryRing history = new TaskHistoryRing(8);
+        ExecutorService threads = Executors.newCachedThreadPool();
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(queue, history, 1, threads);
+
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("user");
+        task.setFibonacciIndex(10);
+        queue.addTask(task);
+
+        // As if 'shutdown()' ran while the dispatcher was waiting in 'takeNextTask()'
+        threads.shutdown();
+        executor.processNextTask();
+
+        assertEquals(Task.TaskState.COMPLETED, task.getState(), "Expected rejected task to run on the dispatcher");
+        assertSame(task, history.getTasks().get(0));
+
+        // The concurrency permit was returned, so later tasks are not starved
+        FibonacciTask next = new FibonacciTask();
+        next.setCreator("user");
+        next.setFibonacciIndex(5);
+        queue.addTask(next);
+        executor.processNextTask();
+
+        assertTrue(next.getCompletion().get(5, TimeUnit.SECONDS) == next);
+    }
+}
@@ -0,0 +1,101 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventStreamTest {
+
+    private static FibonacciTask createTask() {
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("user");
+        task.setFibonacciIndex(10);
+        return task;
+    }
+
+    @Test
+    void transitionsOfOneTaskCoalesce() throws Exception {
+        TaskEventStream stream = new TaskEventStream(4, 1);
+        TaskEventStream.Subscription subscription = stream.subscribe();
+        FibonacciTask task = createTask();
+
+        stream.stateChanged(task, Task.TaskState.PENDING, Task.TaskState.RUNNING, 1);
+        stream.stateChanged(task, Task.TaskState.RUNNING, Task.TaskState.COMPLETED, 2);
+
+        List<TaskEvent> events = subscription.poll(1, TimeUnit.SECONDS);
+        assertEquals(1, events.size());
+        assertEquals(task.getId(), events.get(0).getTaskId());
+        assertEquals(Task.TaskState.PENDING, events.get(0).getPreviousState());
+        assertEquals(Task.TaskState.COMPLETED, events.get(0).getState());
+        assertEquals(0, subscription.takeDroppedCount());
+    }
+
+    @Test
+    void fullBufferDropsEventsForNewTasks() throws Exception {
+        TaskEventStream stream = new TaskEventStream(2, 1);
+        TaskEventStream.Subscription subscription = stream.subscribe();
+        FibonacciTask first = createTask();
+        FibonacciTask second = createTask();
+
+        stream.stateChanged(first, Task.TaskState.PENDING, Task.TaskState.RUNNING, 1);
+        stream.stateChanged(second, Task.TaskState.PENDING, Task.TaskState.RUNNING, 1);
+        stream.stateChanged(createTask(), Task.TaskState.PENDING, Task.TaskState.RUNNING, 1);
+        stream.stateChanged(createTask(), Task.TaskState.PENDING, Task.TaskState.RUNNING, 1);
+        // Buffered Tasks still receive their later transitions
+        stream.stateChanged(first, Task.TaskState.RUNNING, Task.TaskState.COMPLETED, 2);
+
+        List<TaskEvent> events = subscription.poll(1, TimeUnit.SECONDS);
+        assertEquals(2, events.size());
+        assertEquals(first.getId(), events.get(0).getTaskId(), "Expected events in order of first transition");
+        assertEquals(Task.TaskState.COMPLETED, events.get(0).getState());
+        assertEquals(second.getId(), events.get(1).getTaskId());
+        assertEquals(2, subscription.takeDroppedCount());
+        assertEquals(0, subscription.takeDroppedCount());
+    }
+
+    @Test
+    void coalescingFollowsTransitionSequence() throws Exception {
+        TaskEventStream stream = new TaskEventStream(4, 1);
+        TaskEventStream.Subscription subscription = stream.subscribe();
+        FibonacciTask task = createTask();
+
+        // Offered out of order: the terminal transition must not be replaced by the earlier one
+        stream.stateChanged(task, Task.TaskState.RUNNING, Task.TaskState.COMPLETED, 2);
+        stream.stateChanged(task, Task.TaskState.PENDING, Task.TaskState.RUNNING, 1);
+
+        List<TaskEvent> events = subscription.poll(1, TimeUnit.SECONDS);
+        assertEquals(1, events.size());
+        assertEquals(Task.TaskState.PENDING, events.get(0).getPreviousState());
+        assertEquals(Task.TaskState.COMPLETED, events.get(0).getState());
+        assertEquals(2, events.get(0).getSequence());
+
+        // A non-terminal transition after a terminal one (e.g., a reused Task) does not hide the terminal state
+        stream.stateChanged(task, Task.TaskState.RUNNING, Task.TaskState.CANCELLED, 3);
+        stream.stateChanged(task, Task.TaskState.CANCELLED, Task.TaskState.PENDING, 4);
+
+        events = subscription.poll(1, TimeUnit.SECONDS);
+        assertEquals(1, events.size());
+        assertEquals(Task.TaskState.CANCELLED, events.get(0).getState());
+        assertEquals(3, events.get(0).getSequence());
+    }
+
+    @Test
+    void subscriberLimit() throws Exception {
+        TaskEventStream stream = new TaskEventStream(4, 1);
+        TaskEventStream.Subscription subscription = stream.subscribe();
+
+        assertThrows(Exception.class, stream::subscribe);
+
+        subscription.close();
+        assertEquals(0, stream.getSubscriberCount());
+        assertTrue(subscription.poll(0, TimeUnit.SECONDS).isEmpty());
+
+        stream.subscribe();
+        assertEquals(1, stream.getSubscriberCount());
+    }
+}
@@ -0,0 +1,139 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.TaskController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskHttpServerTest {
+
+    private TaskHttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        // The executor process is not started, so scheduled tasks remain pending until cancelled
+        server = new TaskHttpServer(new TaskController(), 0);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    private HttpURLConnection request(String method, String path, String user) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+
+        if (user != null) {
+            connection.setRequestProperty(TaskHttpServer.HEADER_USER, user);
+        }
+
+        return connection;
+    }
+
+    private static String readBody(HttpURLConnection connection) throws IOException {
+        InputStream input = connection.getResponseCode() < 400 ? connection.getInputStream()
+                : connection.getErrorStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+
+        while ((read = input.read(buffer)) > 0) {
+            body.write(buffer, 0, read);
+        }
+
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void scheduleAndCancel() throws IOException {
+        HttpURLConnection schedule = request("POST", "/tasks?type=fibonacci&argument=25&priority=high", null);
+        assertEquals(202, schedule.getResponseCode());
+
+        Matcher id = Pattern.compile("\\{\"id\":(\\d+)}").matcher(readBody(schedule));
+        assertTrue(id.matches());
+
+        HttpURLConnection denied = request("POST", "/executor/disable", null);
+        assertEquals(403, denied.getResponseCode());
+        assertEquals("{\"error\":\"Admin user required\"}", readBody(denied));
+
+        HttpURLConnection cancel = request("DELETE", "/tasks/" + id.group(1), null);
+        assertEquals(202, cancel.getResponseCode());
+
+        HttpURLConnection cancelAgain = request("DELETE", "/tasks/" + id.group(1), null);
+        assertEquals(404, cancelAgain.getResponseCode(), "Expected cancelled task to be finished");
+    }
+
+    @Test
+    void invalidRequests() throws IOException {
+        assertEquals(400, request("POST", "/tasks?type=unknown&argument=1", null).getResponseCode());
+        assertEquals(400, request("POST", "/tasks?type=factorial&argument=x", null).getResponseCode());
+        assertEquals(400, request("POST", "/tasks?type=factorial&argument=0", null).getResponseCode());
+        assertEquals(400, request("POST", "/tasks?type=fibonacci&argument=-3", null).getResponseCode());
+        assertEquals(400, request("GET", "/tasks/completed?state=unknown", null).getResponseCode());
+        assertEquals(405, request("GET", "/tasks", null).getResponseCode());
+        assertEquals(400, request("GET", "/tasks/current", "nobody").getResponseCode());
+        assertEquals(403, request("GET", "/tasks/current", "user").getResponseCode());
+    }
+
+    @Test
+    void queries() throws IOException {
+        HttpURLConnection current = request("GET", "/tasks/current", "admin");
+        assertEquals(200, current.getResponseCode());
+        assertEquals("[]", readBody(current));
+
+        HttpURLConnection completed = request("GET", "/tasks/completed?state=completed", null);
+        assertEquals(200, completed.getResponseCode());
+        assertEquals("chunked", completed.getHeaderField("Transfer-Encoding"));
+        assertTrue(readBody(completed).matches("\\[.*]"));
+
+        HttpURLConnection metrics = request("GET", "/metrics", null);
+        assertEquals(200, metrics.getResponseCode());
+        String metricsBody = readBody(metrics);
+        assertTrue(metricsBody.startsWith("{\"queueDepth\":"));
+        assertTrue(metricsBody.contains(",\"resultCache\":{\"entries\":"), metricsBody);
+    }
+
+    @Test
+    void eventStream() throws Exception {
+        HttpURLConnection events = request("GET", "/events", null);
+        assertEquals(200, events.getResponseCode());
+        assertTrue(events.getContentType().startsWith("text/event-stream"));
+
+        BufferedReader input = new BufferedReader(new InputStreamReader(events.getInputStream(),
+                StandardCharsets.UTF_8));
+        assertEquals(":subscribed", input.readLine());
+
+        HttpURLConnection schedule = request("POST", "/tasks?type=factorial&argument=20", null);
+        assertEquals(202, schedule.getResponseCode());
+        Matcher id = Pattern.compile("\\{\"id\":(\\d+)}").matcher(readBody(schedule));
+        assertTrue(id.matches());
+
+        assertEquals(202, request("DELETE", "/tasks/" + id.group(1), null).getResponseCode());
+
+        String line;
+        do {
+            line = input.readLine();
+            assertNotNull(line, "Expected cancellation event");
+        } while (!line.startsWith("data: {\"id\":" + id.group(1) + ","));
+
+        assertTrue(line.endsWith("\"previousState\":\"PENDING\",\"state\":\"CANCELLED\",\"sequence\":1}"), line);
+
+        events.disconnect();
+    }
+}
@@ -0,0 +1,135 @@
+package garpin.taskExecutor.service;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskController;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import garpin.taskExecutor.tasks.TaskCodecs;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskServiceTest {
+
+    private static FibonacciTask createTask(int index) {
+        FibonacciTask task = new FibonacciTask();
+        task.setFibonacciIndex(index);
+        return task;
+    }
+
+    @Test
+    void clientsShareOneExecutor() throws Exception {
+        // The executor process is not started, so scheduled tasks remain pending until cancelled
+        try (TaskService service = new TaskService(new TaskController(), TaskCodecs.createRegistry(), 0)) {
+            service.start();
+
+            try (TaskServiceClient admin = new TaskServiceClient(service.getPort(), TaskCodecs.createRegistry());
+                 TaskServiceClient user = new TaskServiceClient(service.getPort(), TaskCodecs.createRegistry())) {
+
+                // Pipelined: neither request waits for the previous response
+                admin.setUser("admin");
+                CompletableFuture<Long> adminTask = admin.scheduleTask(createTask(30));
+                CompletableFuture<Long> userTask = user.scheduleTask(createTask(31));
+
+                long adminTaskId = adminTask.get(5, TimeUnit.SECONDS);
+                long userTaskId = userTask.get(5, TimeUnit.SECONDS);
+                assertNotEquals(adminTaskId, userTaskId);
+
+                ExecutionException denied = assertThrows(ExecutionException.class,
+                        () -> user.cancelTask(adminTaskId).get(5, TimeUnit.SECONDS));
+                assertEquals("Admin user required", denied.getCause().getMessage());
+
+                assertTrue(user.cancelTask(userTaskId).get(5, TimeUnit.SECONDS));
+                assertFalse(user.cancelTask(userTaskId).get(5, TimeUnit.SECONDS), "Expected task to be finished");
+                assertTrue(admin.cancelTask(adminTaskId).get(5, TimeUnit.SECONDS));
+
+                String metrics = admin.fetchMetricsInfo().get(5, TimeUnit.SECONDS);
+                assertTrue(metrics.contains("Cancelled before starting"));
+                assertTrue(metrics.contains("Result cache:"));
+
+                RemoteTaskPage page = admin.fetchCompletedTasksPage(0, 10).get(5, TimeUnit.SECONDS);
+                assertNotNull(page.getInfo());
+            }
+        }
+    }
+
+    @Test
+    void requestsAreAnsweredInOrder() throws Exception {
+        try (TaskService service = new TaskService(new TaskController(), TaskCodecs.createRegistry(), 0)) {
+            service.start();
+
+            try (TaskServiceClient client = new TaskServiceClient(service.getPort(), TaskCodecs.createRegistry())) {
+                // A rejected request must not affect requests sent after it
+                CompletableFuture<Void> unknownUser = client.setUser("nobody");
+                CompletableFuture<Void> admin = client.setUser("admin");
+                CompletableFuture<String> info = client.fetchCurrentTaskInfo();
+
+                assertThrows(ExecutionException.class, () -> unknownUser.get(5, TimeUnit.SECONDS));
+                admin.get(5, TimeUnit.SECONDS);
+                assertEquals("<No task>", info.get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void remoteTaskCannotSupplyItsOutcome() throws Exception {
+        try (TaskService service = new TaskService(new TaskController(), TaskCodecs.createRegistry(), 0)) {
+            service.start();
+
+            try (TaskServiceClient client = new TaskServiceClient(service.getPort(), TaskCodecs.createRegistry())) {
+                FibonacciTask forged = createTask(30);
+                forged.setState(Task.TaskState.COMPLETED);
+
+                // Scheduled as a fresh PENDING Task, so it can still be cancelled
+                long taskId = client.scheduleTask(forged).get(5, TimeUnit.SECONDS);
+                assertTrue(client.cancelTask(taskId).get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void oversizedRequestFailsWithoutClosingConnection() throws Exception {
+        try (TaskService service = new TaskService(new TaskController(), TaskCodecs.createRegistry(), 0)) {
+            service.start();
+
+            try (TaskServiceClient client = new TaskServiceClient(service.getPort(), TaskCodecs.createRegistry())) {
+                char[] name = new char[ServiceProtocol.MAX_FRAME_BYTES];
+                Arrays.fill(name, 'a');
+
+                ExecutionException tooLarge = assertThrows(ExecutionException.class,
+                        () -> client.setUser(new String(name)).get(5, TimeUnit.SECONDS));
+                assertTrue(tooLarge.getCause().getMessage().startsWith("Message too large"));
+
+                client.setUser("admin").get(5, TimeUnit.SECONDS);
+                assertEquals("<No task>", client.fetchCurrentTaskInfo().get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void pipelinedRequestsBeyondBacklogLimitAreAnswered() throws Exception {
+        try (TaskService service = new TaskService(new TaskController(), TaskCodecs.createRegistry(), 0)) {
+            service.start();
+
+            try (TaskServiceClient client = new TaskServiceClient(service.getPort(), TaskCodecs.createRegistry())) {
+                // Reading pauses while the backlog is full and resumes as responses are written
+                client.setUser("admin");
+                List<CompletableFuture<String>> responses = new ArrayList<>();
+
+                for (int i = 0; i < TaskService.MAX_PENDING_REQUESTS * 8; i++) {
+                    responses.add(client.fetchCurrentTaskInfo());
+                }
+
+                for (CompletableFuture<String> response : responses) {
+                    assertEquals("<No task>", response.get(5, TimeUnit.SECONDS));
+                }
+            }
+        }
+    }
+}
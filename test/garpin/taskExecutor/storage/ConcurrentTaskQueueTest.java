@@ -0,0 +1,81 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskQueueTest {
+
+    @Test
+    void addRemoveTask() {
+        Task testTasks[] = {
+                new FibonacciTask(),
+                new FibonacciTask(),
+                new FactorialTask()
+        };
+
+        ConcurrentTaskQueue queue = new ConcurrentTaskQueue();
+
+        assertSame(null, queue.removeTask(), "Expected null from empty queue");
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            queue.addTask(testTasks[i]);
+        }
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            Task retrievedTask = queue.removeTask();
+
+            assertSame(testTasks[i], retrievedTask, "Unexpected task found in queue");
+        }
+
+        assertSame(null, queue.removeTask(), "Expected null from empty queue");
+    }
+
+    @Test
+    void concurrentProducersAndConsumers() throws InterruptedException {
+        final int producers = 4;
+        final int tasksPerProducer = 1000;
+
+        ConcurrentTaskQueue queue = new ConcurrentTaskQueue();
+        Set<Task> received = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        Thread threads[] = new Thread[producers * 2];
+
+        for (int p = 0; p < producers; ++p) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < tasksPerProducer; ++i) {
+                    queue.addTask(new FibonacciTask());
+                }
+            });
+        }
+
+        for (int c = producers; c < threads.length; ++c) {
+            threads[c] = new Thread(() -> {
+                try {
+                    Task task;
+                    while ((task = queue.removeTask(200, TimeUnit.MILLISECONDS)) != null) {
+                        received.add(task);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(producers * tasksPerProducer, received.size(), "Expected every task to be consumed exactly once");
+    }
+}
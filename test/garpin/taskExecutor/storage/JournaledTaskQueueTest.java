@@ -0,0 +1,155 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.tasks.TaskCodecs;
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledTaskQueueTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void addRemoveTask() throws Exception {
+        JournaledTaskQueue queue = open(JournaledTaskQueue.DEFAULT_SEGMENT_BYTES);
+
+        assertSame(null, queue.removeTask(), "Expected null from empty queue");
+
+        Task task = createFibonacciTask(10, "user");
+        queue.addTask(task);
+
+        assertSame(task, queue.removeTask(), "Unexpected task found in queue");
+        assertSame(null, queue.removeTask(), "Expected null from empty queue");
+
+        queue.close();
+    }
+
+    @Test
+    void recoversUnacknowledgedTasks() throws Exception {
+        JournaledTaskQueue queue = open(JournaledTaskQueue.DEFAULT_SEGMENT_BYTES);
+
+        queue.addTask(createFibonacciTask(10, "user"));
+        queue.addTask(createFactorialTask(5, "admin"));
+        queue.addTask(createFibonacciTask(20, "admin"));
+
+        // First task finishes; second is taken by a worker but never finishes (e.g., process stopped mid-task)
+        queue.acknowledgeTask(queue.removeTask());
+        queue.removeTask();
+        queue.close();
+
+        JournaledTaskQueue reopened = open(JournaledTaskQueue.DEFAULT_SEGMENT_BYTES);
+
+        List<Task> recovered = reopened.takeRecoveredTasks();
+        assertEquals(2, recovered.size());
+        assertTrue(reopened.takeRecoveredTasks().isEmpty(), "Expected recovered tasks to be returned once");
+
+        Task first = reopened.removeTask();
+        assertSame(recovered.get(0), first);
+        assertTrue(first instanceof FactorialTask, "Expected in-flight task to be recovered first");
+        assertEquals(5, ((FactorialTask) first).getFactorialBase());
+        assertEquals("admin", first.getCreator());
+        assertEquals(Task.TaskState.PENDING, first.getState());
+
+        Task second = reopened.removeTask();
+        assertTrue(second instanceof FibonacciTask, "Expected pending task to be recovered");
+        assertEquals(20, ((FibonacciTask) second).getFibonacciIndex());
+
+        assertSame(null, reopened.removeTask(), "Expected acknowledged task not to be recovered");
+
+        reopened.close();
+    }
+
+    @Test
+    void recoversBatchAddedTasks() throws Exception {
+        JournaledTaskQueue queue = open(JournaledTaskQueue.DEFAULT_SEGMENT_BYTES);
+
+        queue.addTasks(Arrays.asList(createFibonacciTask(1, "user"), createFibonacciTask(2, "user"),
+                createFactorialTask(3, "user")));
+
+        List<Task> removed = new ArrayList<>();
+        assertEquals(2, queue.removeTasks(removed, 2));
+        queue.acknowledgeTask(removed.get(0));
+        queue.close();
+
+        JournaledTaskQueue reopened = open(JournaledTaskQueue.DEFAULT_SEGMENT_BYTES);
+
+        List<Task> recovered = new ArrayList<>();
+        assertEquals(2, reopened.removeTasks(recovered, 10), "Expected unacknowledged tasks to be recovered");
+        assertEquals(2, ((FibonacciTask) recovered.get(0)).getFibonacciIndex());
+        assertEquals(3, ((FactorialTask) recovered.get(1)).getFactorialBase());
+
+        reopened.close();
+    }
+
+    @Test
+    void rejectedBatchIsNotJournaled() throws Exception {
+        final int segmentBytes = 64;
+        JournaledTaskQueue queue = open(segmentBytes);
+
+        char creator[] = new char[segmentBytes];
+        Arrays.fill(creator, 'x');
+
+        assertThrows(InvalidParameterException.class, () -> queue.addTasks(Arrays.asList(
+                createFibonacciTask(1, "user"), createFibonacciTask(2, new String(creator)))));
+        assertSame(null, queue.removeTask(), "Expected no task of the batch to be queued");
+        queue.close();
+
+        JournaledTaskQueue reopened = open(segmentBytes);
+        assertSame(null, reopened.removeTask(), "Expected no task of the batch to be recovered");
+        reopened.close();
+    }
+
+    @Test
+    void compactsAcknowledgedSegments() throws Exception {
+        final int segmentBytes = 256;
+        JournaledTaskQueue queue = open(segmentBytes);
+
+        for (int i = 1; i <= 50; ++i) {
+            queue.addTask(createFibonacciTask(i, "user"));
+        }
+
+        assertTrue(queue.getSegmentCount() > 1, "Expected journal to span several segments");
+
+        Task task;
+        while ((task = queue.removeTask()) != null) {
+            queue.acknowledgeTask(task);
+        }
+
+        assertEquals(1, queue.getSegmentCount(), "Expected fully acknowledged segments to be deleted");
+        queue.close();
+
+        JournaledTaskQueue reopened = open(segmentBytes);
+        assertSame(null, reopened.removeTask(), "Expected no tasks to be recovered");
+        reopened.close();
+    }
+
+    private JournaledTaskQueue open(int segmentBytes) throws Exception {
+        return new JournaledTaskQueue(directory, TaskCodecs.createRegistry(), new TaskQueue(), segmentBytes,
+                JournaledTaskQueue.DEFAULT_FLUSH_MILLISECONDS);
+    }
+
+    private static Task createFibonacciTask(int index, String creator) {
+        FibonacciTask task = new FibonacciTask();
+        task.setFibonacciIndex(index);
+        task.setCreator(creator);
+        return task;
+    }
+
+    private static Task createFactorialTask(int base, String creator) {
+        FactorialTask task = new FactorialTask();
+        task.setFactorialBase(base);
+        task.setCreator(creator);
+        return task;
+    }
+}
@@ -0,0 +1,177 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityTaskQueueTest {
+
+    @Test
+    void addRemoveTaskFifoWithinPriority() {
+        Task testTasks[] = {
+                new FibonacciTask(),
+                new FibonacciTask(),
+                new FactorialTask()
+        };
+
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+
+        assertSame(null, queue.removeTask(), "Expected null from empty queue");
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            queue.addTask(testTasks[i]);
+        }
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            assertSame(testTasks[i], queue.removeTask(), "Unexpected task found in queue");
+        }
+
+        assertSame(null, queue.removeTask(), "Expected null from empty queue");
+    }
+
+    @Test
+    void higherPriorityServedFirst() {
+        Task low = createTask(Task.TaskPriority.LOW);
+        Task normal = createTask(Task.TaskPriority.NORMAL);
+        Task high = createTask(Task.TaskPriority.HIGH);
+
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+        queue.addTask(low);
+        queue.addTask(normal);
+        queue.addTask(high);
+
+        assertSame(high, queue.removeTask(), "Expected HIGH priority task first");
+        assertSame(normal, queue.removeTask(), "Expected NORMAL priority task second");
+        assertSame(low, queue.removeTask(), "Expected LOW priority task last");
+    }
+
+    @Test
+    void addRemoveTasksInBatches() {
+        Task low = createTask(Task.TaskPriority.LOW);
+        Task normal = createTask(Task.TaskPriority.NORMAL);
+        Task high = createTask(Task.TaskPriority.HIGH);
+
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+        queue.addTasks(Arrays.asList(low, normal, high));
+
+        List<Task> retrieved = new ArrayList<>();
+        assertEquals(2, queue.removeTasks(retrieved, 2), "Expected batch to be capped");
+        assertEquals(Arrays.asList(high, normal), retrieved, "Expected most urgent tasks first");
+
+        assertSame(low, queue.removeTask(), "Expected remaining task");
+        assertEquals(0, queue.removeTasks(retrieved, 2), "Expected empty queue");
+    }
+
+    @Test
+    void agedTaskIsPromoted() throws InterruptedException {
+        final long agingMilliseconds = 20;
+
+        Task low = createTask(Task.TaskPriority.LOW);
+        Task high = createTask(Task.TaskPriority.HIGH);
+
+        PriorityTaskQueue queue = new PriorityTaskQueue(agingMilliseconds);
+        queue.addTask(low);
+
+        // Waiting three aging intervals promotes LOW past a freshly added HIGH task
+        Thread.sleep(agingMilliseconds * 3);
+        queue.addTask(high);
+
+        assertSame(low, queue.removeTask(), "Expected aged LOW priority task first");
+        assertSame(high, queue.removeTask(), "Expected HIGH priority task second");
+    }
+
+    @Test
+    void approachingDeadlineIsPromoted() {
+        Task high = createTask(Task.TaskPriority.HIGH);
+        Task low = createTask(Task.TaskPriority.LOW);
+        low.setDeadline(System.currentTimeMillis());
+
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+        queue.addTask(high);
+        queue.addTask(low);
+
+        assertSame(low, queue.removeTask(), "Expected task at its deadline first");
+        assertSame(high, queue.removeTask(), "Expected HIGH priority task second");
+    }
+
+    @Test
+    void deadlineBehindOtherTaskInLaneIsPromoted() {
+        Task first = createTask(Task.TaskPriority.LOW);
+        Task due = createTask(Task.TaskPriority.LOW);
+        due.setDeadline(System.currentTimeMillis());
+        Task high = createTask(Task.TaskPriority.HIGH);
+
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+        queue.addTask(first);
+        queue.addTask(due);
+        queue.addTask(high);
+
+        assertSame(due, queue.removeTask(), "Expected task at its deadline first, although not at its lane's head");
+        assertSame(high, queue.removeTask());
+        assertSame(first, queue.removeTask());
+        assertNull(queue.removeTask(), "Expected promoted task not to be served twice");
+    }
+
+    @Test
+    void promotedTasksOrderedByDeadline() {
+        long now = System.currentTimeMillis();
+        Task high = createTask(Task.TaskPriority.HIGH);
+        high.setDeadline(now + 50);
+        Task low = createTask(Task.TaskPriority.LOW);
+        low.setDeadline(now - 50);
+
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+        queue.addTask(high);
+        queue.addTask(low);
+
+        List<Task> removed = new ArrayList<>();
+        assertEquals(2, queue.removeTasks(removed, 2));
+        assertEquals(Arrays.asList(low, high), removed, "Expected earliest deadline first, regardless of priority");
+    }
+
+    @Test
+    void tasksTakenThroughLanesLeaveDeadlineIndex() {
+        long distant = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+
+        for (int i = 0; i < 100; ++i) {
+            Task task = createTask(Task.TaskPriority.NORMAL);
+            task.setDeadline(distant + i);
+            queue.addTask(task);
+        }
+
+        assertEquals(100, queue.getDeadlineIndexSize());
+
+        for (int i = 0; i < 100; ++i) {
+            assertNotNull(queue.removeTask());
+        }
+
+        assertNull(queue.removeTask());
+        assertEquals(0, queue.getDeadlineIndexSize(), "Expected claimed entries not to accumulate in the index");
+    }
+
+    @Test
+    void removeTaskWaitsForAdd() throws InterruptedException {
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+
+        assertSame(null, queue.removeTask(10, TimeUnit.MILLISECONDS), "Expected null after timeout on empty queue");
+
+        queue.addTask(createTask(Task.TaskPriority.LOW));
+
+        assertNotNull(queue.removeTask(10, TimeUnit.MILLISECONDS), "Expected task to be available");
+    }
+
+    private static Task createTask(Task.TaskPriority priority) {
+        Task task = new FibonacciTask();
+        task.setPriority(priority);
+        return task;
+    }
+}
@@ -0,0 +1,163 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskFilter;
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskArchiveTest {
+
+    private static Task completedTask(Task task, String creator, Task.TaskState state) {
+        task.setCreator(creator);
+        task.startTask();
+        task.setState(state);
+        return task;
+    }
+
+    @Test
+    void addGetTasks() {
+        TaskArchive archive = new TaskArchive();
+
+        FibonacciTask fib = new FibonacciTask();
+        fib.setFibonacciIndex(10);
+        FactorialTask fact = new FactorialTask();
+        fact.setFactorialBase(7);
+
+        Task testTasks[] = {
+                completedTask(fib, "user", Task.TaskState.COMPLETED),
+                completedTask(fact, "admin", Task.TaskState.COMPLETED)
+        };
+
+        for (Task t : testTasks) {
+            archive.addTask(t);
+        }
+
+        List<ArchivedTask> retrieved = archive.getTasks();
+        assertEquals(testTasks.length, retrieved.size(), "Unexpected number of archived tasks");
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            assertEquals(testTasks[i].toString(), retrieved.get(i).toString(), "Archived task does not match");
+        }
+
+        assertEquals("55", retrieved.get(0).getResults());
+        assertEquals("5040", retrieved.get(1).getResults());
+    }
+
+    @Test
+    void archivedTasksKeepFinalFields() {
+        TaskArchive archive = new TaskArchive();
+        Task task = completedTask(new FibonacciTask(), "user", Task.TaskState.ERROR);
+        archive.addTask(task);
+
+        ArchivedTask archived = archive.getTasks().get(0);
+        assertEquals(task.getId(), archived.getId());
+        assertEquals(Task.TaskState.ERROR, archived.getState());
+        assertEquals(task.getResults(), archived.getResults());
+    }
+
+    @Test
+    void closeReleasesOffHeapMemory() {
+        TaskArchive archive = new TaskArchive();
+        archive.addTask(completedTask(new FibonacciTask(), "user", Task.TaskState.COMPLETED));
+        ArchivedTask archived = archive.getTasks().get(0);
+        assertTrue(archive.getOffHeapBytes() > 0);
+
+        archive.close();
+
+        assertEquals(0, archive.getOffHeapBytes(), "Expected off-heap buffers to be dropped");
+        assertEquals(0, archive.size());
+        assertThrows(IllegalStateException.class, archived::getResults);
+        assertThrows(IllegalStateException.class, archive::getTasks);
+        assertThrows(IllegalStateException.class,
+                () -> archive.addTask(completedTask(new FibonacciTask(), "user", Task.TaskState.COMPLETED)));
+    }
+
+    @Test
+    void getPages() {
+        TaskArchive archive = new TaskArchive();
+        final int count = 7;
+
+        for (int i = 0; i < count; ++i) {
+            archive.addTask(completedTask(new FibonacciTask(), "user" + i, Task.TaskState.COMPLETED));
+        }
+
+        List<ArchivedTask> retrieved = new ArrayList<>();
+        long cursor = 0;
+        ArchivedTaskPage page;
+
+        do {
+            page = archive.getPage(cursor, 3, null);
+            assertTrue(page.getTasks().size() <= 3, "Page exceeded requested size");
+
+            retrieved.addAll(page.getTasks());
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+
+        assertEquals(count, retrieved.size(), "Expected pages to cover all tasks");
+        for (int i = 0; i < count; ++i) {
+            assertEquals("user" + i, retrieved.get(i).getCreator(), "Unexpected task found in page");
+        }
+    }
+
+    @Test
+    void filteredPagesUseIndexes() {
+        TaskArchive archive = new TaskArchive();
+
+        for (int i = 0; i < 1000; ++i) {
+            archive.addTask(completedTask(new FibonacciTask(), "user", Task.TaskState.COMPLETED));
+
+            if (i % 100 == 0) {
+                archive.addTask(completedTask(new FactorialTask(), "Admin", Task.TaskState.COMPLETED));
+                archive.addTask(completedTask(new FactorialTask(), "admin", Task.TaskState.CANCELLED));
+            }
+        }
+
+        TaskFilter filter = new TaskFilter();
+        filter.setState(Task.TaskState.COMPLETED);
+        filter.setCreator("ADMIN");
+        filter.setTaskType("factorial");
+
+        List<ArchivedTask> retrieved = new ArrayList<>();
+        long cursor = 0;
+        ArchivedTaskPage page;
+
+        do {
+            page = archive.getPage(cursor, 4, filter);
+            retrieved.addAll(page.getTasks());
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+
+        assertEquals(10, retrieved.size(), "Expected only the matching tasks");
+        for (ArchivedTask t : retrieved) {
+            assertEquals(Task.TaskState.COMPLETED, t.getState(), "Unexpected task matched filter");
+            assertEquals("admin", t.getCreator().toLowerCase(), "Unexpected task matched filter");
+            assertEquals("Factorial", t.getTaskType(), "Unexpected task matched filter");
+        }
+
+        filter.setCreator("nobody");
+        page = archive.getPage(0, 10, filter);
+        assertTrue(page.getTasks().isEmpty(), "Expected no tasks for unknown creator");
+        assertFalse(page.hasMore(), "Expected no further pages");
+    }
+
+    @Test
+    void resultsStoredOffHeap() {
+        TaskArchive archive = new TaskArchive();
+        FactorialTask fact = new FactorialTask();
+        fact.setFactorialBase(5000);
+
+        archive.addTask(completedTask(fact, "user", Task.TaskState.COMPLETED));
+        assertFalse(fact.getResult().isRendered(), "Expected the result to be archived without rendering it");
+        assertFalse(archive.getTasks().get(0).getResult().isRendered(), "Expected archived result to render on read");
+
+        assertEquals(fact.getResults(), archive.getTasks().get(0).getResults());
+        assertTrue(archive.getOffHeapBytes() > fact.getResults().length(), "Expected results to be stored off-heap");
+        assertEquals(1, archive.size());
+    }
+}
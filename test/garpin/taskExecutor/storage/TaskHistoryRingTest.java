@@ -0,0 +1,252 @@
+package garpin.taskExecutor.storage;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskFilter;
+import garpin.taskExecutor.controllers.TaskPage;
+import garpin.taskExecutor.tasks.FactorialTask;
+import garpin.taskExecutor.tasks.FibonacciTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskHistoryRingTest {
+
+    @Test
+    void addGetTasks() {
+        Task testTasks[] = {
+                new FibonacciTask(),
+                new FibonacciTask(),
+                new FactorialTask()
+        };
+
+        TaskHistoryRing history = new TaskHistoryRing(8);
+
+        assertTrue(history.getTasks().isEmpty(), "Expected empty history");
+
+        for (Task t : testTasks) {
+            history.addTask(t);
+        }
+
+        List<Task> retrieved = history.getTasks();
+        assertEquals(testTasks.length, retrieved.size(), "Unexpected number of retained tasks");
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            assertSame(testTasks[i], retrieved.get(i), "Unexpected task found in history");
+        }
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new TaskHistoryRing(5).getCapacity());
+        assertEquals(8, new TaskHistoryRing(8).getCapacity());
+    }
+
+    @Test
+    void oldestTasksEvictedWhenFull() {
+        TaskHistoryRing history = new TaskHistoryRing(4);
+        Task testTasks[] = new Task[10];
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            testTasks[i] = new FibonacciTask();
+            history.addTask(testTasks[i]);
+        }
+
+        List<Task> retrieved = history.getTasks();
+        assertEquals(4, retrieved.size(), "Expected history to be capped");
+
+        for (int i = 0; i < 4; ++i) {
+            assertSame(testTasks[6 + i], retrieved.get(i), "Expected only the newest tasks to be retained");
+        }
+    }
+
+    @Test
+    void evictedTasksMovedToArchive() {
+        TaskArchive archive = new TaskArchive();
+        TaskHistoryRing history = new TaskHistoryRing(4, 0, archive);
+        Task testTasks[] = new Task[10];
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            testTasks[i] = new FibonacciTask();
+            testTasks[i].setCreator("user");
+            history.addTask(testTasks[i]);
+        }
+
+        assertEquals(4, history.getTasks().size(), "Expected history to be capped");
+
+        List<ArchivedTask> archived = archive.getTasks();
+        assertEquals(6, archived.size(), "Expected evicted tasks to be archived");
+        for (int i = 0; i < 6; ++i) {
+            assertEquals(testTasks[i].getId(), archived.get(i).getId(), "Expected archive to hold the oldest tasks");
+        }
+
+        archive.close();
+    }
+
+    @Test
+    void expiredTasksNotReturned() throws InterruptedException {
+        TaskHistoryRing history = new TaskHistoryRing(4, 20);
+
+        history.addTask(new FibonacciTask());
+        Thread.sleep(50);
+
+        Task fresh = new FactorialTask();
+        history.addTask(fresh);
+
+        List<Task> retrieved = history.getTasks();
+        assertEquals(1, retrieved.size(), "Expected expired task to be dropped");
+        assertSame(fresh, retrieved.get(0), "Expected unexpired task to be retained");
+    }
+
+    @Test
+    void expiredTasksReleasedOnAdd() throws InterruptedException {
+        TaskHistoryRing history = new TaskHistoryRing(8, 20);
+
+        history.addTask(new FibonacciTask());
+        history.addTask(new FibonacciTask());
+        long twoRecords = history.getRetainedBytes();
+        Thread.sleep(50);
+
+        // Released by the append itself, without a read
+        history.addTask(new FibonacciTask());
+        assertEquals(twoRecords / 2, history.getRetainedBytes(), "Expected expired records to be released");
+    }
+
+    @Test
+    void largeResultsEvictedBeyondByteBudget() {
+        TaskArchive archive = new TaskArchive();
+        TaskHistoryRing history = new TaskHistoryRing(16, 0, 20_000, archive);
+        Task testTasks[] = new Task[4];
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            // About 5,700 decimal digits each
+            FactorialTask task = new FactorialTask();
+            task.setCreator("user");
+            task.setFactorialBase(2000);
+            task.startTask();
+            testTasks[i] = task;
+            history.addTask(task);
+
+            assertTrue(history.getRetainedBytes() <= 20_000, "Expected history to stay within its byte budget");
+        }
+
+        List<Task> retrieved = history.getTasks();
+        assertEquals(2, retrieved.size(), "Expected only the newest tasks to fit the budget");
+        assertSame(testTasks[3], retrieved.get(1));
+
+        assertEquals(2, archive.size(), "Expected tasks evicted for size to be archived");
+        assertEquals(testTasks[0].getId(), archive.getTasks().get(0).getId());
+        assertFalse(testTasks[0].getResult().isRendered(), "Expected the budget to be checked without rendering");
+
+        archive.close();
+    }
+
+    @Test
+    void newestTaskKeptWhenLargerThanBudget() {
+        TaskHistoryRing history = new TaskHistoryRing(16, 0, 100, null);
+        history.addTask(new FibonacciTask());
+
+        FactorialTask large = new FactorialTask();
+        large.setCreator("user");
+        large.setFactorialBase(1000);
+        large.startTask();
+        history.addTask(large);
+
+        List<Task> retrieved = history.getTasks();
+        assertEquals(1, retrieved.size());
+        assertSame(large, retrieved.get(0));
+    }
+
+    @Test
+    void invalidCapacity() {
+        assertThrows(Exception.class, () -> new TaskHistoryRing(0));
+        assertThrows(Exception.class, () -> new TaskHistoryRing(4, -1));
+        assertThrows(Exception.class, () -> new TaskHistoryRing(4, 0, 0, null));
+    }
+
+    @Test
+    void getPages() {
+        TaskHistoryRing history = new TaskHistoryRing(16);
+        Task testTasks[] = new Task[7];
+
+        for (int i = 0; i < testTasks.length; ++i) {
+            testTasks[i] = new FibonacciTask();
+            history.addTask(testTasks[i]);
+        }
+
+        List<Task> retrieved = new ArrayList<>();
+        long cursor = 0;
+        TaskPage<Task> page;
+
+        do {
+            page = history.getPage(cursor, 3, null);
+            assertTrue(page.getTasks().size() <= 3, "Page exceeded requested size");
+
+            retrieved.addAll(page.getTasks());
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+
+        assertEquals(testTasks.length, retrieved.size(), "Expected pages to cover all tasks");
+        for (int i = 0; i < testTasks.length; ++i) {
+            assertSame(testTasks[i], retrieved.get(i), "Unexpected task found in page");
+        }
+    }
+
+    @Test
+    void filterByStateCreatorAndType() {
+        TaskHistoryRing history = new TaskHistoryRing(16);
+
+        Task match = new FactorialTask();
+        match.setCreator("admin");
+        match.setState(Task.TaskState.COMPLETED);
+
+        Task wrongState = new FactorialTask();
+        wrongState.setCreator("admin");
+        wrongState.setState(Task.TaskState.CANCELLED);
+
+        Task wrongCreator = new FactorialTask();
+        wrongCreator.setCreator("user");
+        wrongCreator.setState(Task.TaskState.COMPLETED);
+
+        Task wrongType = new FibonacciTask();
+        wrongType.setCreator("admin");
+        wrongType.setState(Task.TaskState.COMPLETED);
+
+        history.addTask(wrongState);
+        history.addTask(match);
+        history.addTask(wrongCreator);
+        history.addTask(wrongType);
+
+        TaskFilter filter = new TaskFilter();
+        filter.setState(Task.TaskState.COMPLETED);
+        filter.setCreator("ADMIN");
+        filter.setTaskType("factorial");
+
+        TaskPage<Task> page = history.getPage(0, 10, filter);
+        assertEquals(1, page.getTasks().size(), "Expected only the matching task");
+        assertSame(match, page.getTasks().get(0), "Unexpected task matched filter");
+        assertFalse(page.hasMore(), "Expected no further pages");
+    }
+
+    @Test
+    void iterateAcrossPages() {
+        TaskHistoryRing history = new TaskHistoryRing(1024);
+        final int count = 600;
+
+        for (int i = 0; i < count; ++i) {
+            history.addTask(new FibonacciTask());
+        }
+
+        int visited = 0;
+        Iterator<Task> iterator = history.iterator(null);
+        while (iterator.hasNext()) {
+            assertNotNull(iterator.next());
+            ++visited;
+        }
+
+        assertEquals(count, visited, "Expected iterator to visit every task");
+    }
+}
\ No newline at end of file
@@ -5,6 +5,11 @@ import garpin.taskExecutor.tasks.FactorialTask;
 import garpin.taskExecutor.tasks.FibonacciTask;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TaskQueueTest {
@@ -33,4 +38,40 @@ class TaskQueueTest {
 
         assertSame(null, queue.removeTask(), "Expected null from empty queue");
     }
+
+    @Test
+    void addRemoveTasksInBatches() {
+        List<Task> testTasks = Arrays.asList(new FibonacciTask(), new FactorialTask(), new FibonacciTask());
+
+        TaskQueue queue = new TaskQueue();
+        queue.addTasks(testTasks);
+
+        List<Task> retrieved = new ArrayList<>();
+        assertEquals(2, queue.removeTasks(retrieved, 2), "Expected batch to be capped");
+        assertEquals(1, queue.removeTasks(retrieved, 2), "Expected remaining task");
+        assertEquals(0, queue.removeTasks(retrieved, 2), "Expected empty queue");
+
+        assertEquals(testTasks, retrieved, "Expected tasks in FIFO order");
+    }
+
+    @Test
+    void removeTaskWaitsForAdd() throws InterruptedException {
+        TaskQueue queue = new TaskQueue();
+        Task task = new FibonacciTask();
+
+        assertSame(null, queue.removeTask(10, TimeUnit.MILLISECONDS), "Expected null after timeout on empty queue");
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            queue.addTask(task);
+        });
+        producer.start();
+
+        assertSame(task, queue.removeTask(10, TimeUnit.SECONDS), "Expected blocked consumer to receive added task");
+
+        producer.join();
+    }
 }
\ No newline at end of file
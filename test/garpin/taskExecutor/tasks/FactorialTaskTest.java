@@ -3,6 +3,10 @@ package garpin.taskExecutor.tasks;
 import garpin.taskExecutor.controllers.Task;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class FactorialTaskTest extends TaskTest {
@@ -39,6 +43,89 @@ class FactorialTaskTest extends TaskTest {
         assertEquals("" + 5 * 4 * 3 * 2 * 1, t.getResults());
     }
 
+    @Test
+    public void runTaskBeyondIntRange() {
+        assertEquals("2432902008176640000", runForBase(20, null));
+        assertEquals("15511210043330985984000000", runForBase(25, null));
+    }
+
+    @Test
+    public void runTaskMatchesIterativeProduct() {
+        BigInteger expected = BigInteger.ONE;
+
+        for (int n = 1; n <= 300; ++n) {
+            expected = expected.multiply(BigInteger.valueOf(n));
+            assertEquals(expected.toString(), runForBase(n, null), "Unexpected factorial for " + n);
+        }
+    }
+
+    @Test
+    public void runTaskInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 2; i <= 20_000; ++i) {
+            expected = expected.multiply(BigInteger.valueOf(i));
+        }
+
+        assertEquals(expected.toString(), runForBase(20_000, pool));
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void runTaskLargeBase() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // 100,000! has 456,574 decimal digits
+        assertEquals(456_574, runForBase(100_000, pool).length());
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancelParallelTask() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        FactorialTask t = new FactorialTask();
+        t.setCreator("testUser");
+        t.setFactorialBase(5000);
+        t.setForkJoinPool(pool);
+        t.setState(Task.TaskState.CANCELLING);
+
+        assertThrows(CancellationException.class, t::runTask, "Expected cancellation to reach forked subtasks");
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void reportsProgress() throws Exception {
+        FactorialTask t = new FactorialTask();
+        t.setCreator("testUser");
+        t.setFactorialBase(1000);
+        t.setResultCache(null);
+
+        t.runTask();
+
+        assertEquals(1, t.getProgress());
+        assertEquals("1000 of 1000 factors multiplied", t.getPartialResult());
+    }
+
+    private static String runForBase(int base, ForkJoinPool pool) {
+        FactorialTask t = new FactorialTask();
+        t.setCreator("testUser");
+        t.setFactorialBase(base);
+        t.setForkJoinPool(pool);
+
+        try {
+            t.runTask();
+        } catch (Exception e) {
+            fail("Unexpected exception running factorial task: " + e.getMessage());
+        }
+
+        return t.getResults();
+    }
+
     @Override
     public void getTaskType() {
         FactorialTask t = new FactorialTask();
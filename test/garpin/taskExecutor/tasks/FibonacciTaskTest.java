@@ -3,6 +3,10 @@ package garpin.taskExecutor.tasks;
 import garpin.taskExecutor.controllers.Task;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class FibonacciTaskTest extends TaskTest {
@@ -39,6 +43,118 @@ class FibonacciTaskTest extends TaskTest {
         assertEquals("" + 8, t.getResults());
     }
 
+    @Test
+    public void runTaskBeyondIntRange() {
+        assertEquals("12586269025", runForIndex(50, null));
+        assertEquals("354224848179261915075", runForIndex(100, null));
+    }
+
+    @Test
+    public void runTaskMatchesIterativeSequence() {
+        BigInteger previous = BigInteger.ZERO;
+        BigInteger current = BigInteger.ONE;
+
+        for (int n = 1; n <= 300; ++n) {
+            assertEquals(current.toString(), runForIndex(n, null), "Unexpected Fibonacci number for index " + n);
+
+            BigInteger next = previous.add(current);
+            previous = current;
+            current = next;
+        }
+    }
+
+    @Test
+    public void runTaskLargeIndex() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        String sequential = runForIndex(1_000_000, null);
+        String parallel = runForIndex(1_000_000, pool);
+
+        // F(1,000,000) has 208,988 decimal digits
+        assertEquals(208_988, sequential.length());
+        assertEquals(sequential, parallel, "Expected parallel and sequential results to match");
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void runTaskInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        FibonacciTask t = new FibonacciTask();
+        t.setCreator("testUser");
+        t.setFibonacciIndex(30);
+        t.setForkJoinPool(pool);
+
+        try {
+            t.runTask();
+        } catch (Exception e) {
+            fail("Unexpected exception running fibonacci task: " + e.getMessage());
+        }
+
+        assertEquals("" + 832040, t.getResults());
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancelParallelTask() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        FibonacciTask t = new FibonacciTask();
+        t.setCreator("testUser");
+        t.setFibonacciIndex(30);
+        t.setForkJoinPool(pool);
+        t.setState(Task.TaskState.CANCELLING);
+
+        assertThrows(CancellationException.class, t::runTask, "Expected cancellation to reach forked subtasks");
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void resultIsRenderedOnDemand() throws Exception {
+        FibonacciTask t = new FibonacciTask();
+        t.setCreator("testUser");
+        t.setFibonacciIndex(100);
+        t.setResultCache(null);
+
+        t.runTask();
+
+        assertFalse(t.getResult().isRendered(), "Expected result not to be rendered until viewed");
+        assertEquals(new BigInteger("354224848179261915075"), t.getResult().getValue());
+        assertEquals("354224848179261915075", t.getResults());
+        assertTrue(t.getResult().isRendered());
+    }
+
+    @Test
+    public void reportsProgress() throws Exception {
+        FibonacciTask t = new FibonacciTask();
+        t.setCreator("testUser");
+        t.setFibonacciIndex(1000);
+        t.setResultCache(null);
+
+        t.runTask();
+
+        assertEquals(1, t.getProgress());
+        assertEquals("F(1000) computed (about 209 digits)", t.getPartialResult());
+    }
+
+    private static String runForIndex(int index, ForkJoinPool pool) {
+        FibonacciTask t = new FibonacciTask();
+        t.setCreator("testUser");
+        t.setFibonacciIndex(index);
+        t.setForkJoinPool(pool);
+
+        try {
+            t.runTask();
+        } catch (Exception e) {
+            fail("Unexpected exception running fibonacci task: " + e.getMessage());
+        }
+
+        return t.getResults();
+    }
+
     @Override
     public void getTaskType() {
         FibonacciTask t = new FibonacciTask();
@@ -0,0 +1,110 @@
+package garpin.taskExecutor.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    @Test
+    void getPutCountsHitsAndMisses() {
+        ResultCache cache = new ResultCache(8, 1024);
+
+        assertNull(cache.get("Fibonacci", 10), "Expected miss on empty cache");
+        assertEquals(1, cache.getMissCount());
+
+        cache.put("Fibonacci", 10, BigInteger.valueOf(55));
+
+        assertEquals(BigInteger.valueOf(55), cache.get("Fibonacci", 10), "Expected cached result");
+        assertNull(cache.get("Factorial", 10), "Expected types to be cached separately");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void getFloor() {
+        ResultCache cache = new ResultCache(8, 1024);
+        cache.put("Factorial", 5, BigInteger.valueOf(120));
+        cache.put("Factorial", 3, BigInteger.valueOf(6));
+
+        Map.Entry<Integer, BigInteger> floor = cache.getFloor("Factorial", 4);
+        assertEquals(3, (int) floor.getKey());
+        assertEquals(BigInteger.valueOf(6), floor.getValue());
+        assertEquals(1, cache.getPartialHitCount());
+
+        floor = cache.getFloor("Factorial", 5);
+        assertEquals(5, (int) floor.getKey());
+        assertEquals(1, cache.getHitCount());
+
+        assertNull(cache.getFloor("Factorial", 2), "Expected no entry below smallest cached argument");
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByCount() {
+        ResultCache cache = new ResultCache(2, 1024);
+        cache.put("Fibonacci", 1, BigInteger.ONE);
+        cache.put("Fibonacci", 2, BigInteger.ONE);
+
+        // Touch 1 so that 2 becomes least recently used
+        cache.get("Fibonacci", 1);
+        cache.put("Fibonacci", 3, BigInteger.valueOf(2));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("Fibonacci", 1), "Expected recently used entry to be retained");
+        assertNull(cache.get("Fibonacci", 2), "Expected least recently used entry to be evicted");
+    }
+
+    @Test
+    void evictsBySize() {
+        ResultCache cache = new ResultCache(8, 100);
+        cache.put("Factorial", 1, BigInteger.ONE.shiftLeft(59));
+        cache.put("Factorial", 2, BigInteger.ONE.shiftLeft(59));
+
+        assertEquals(1, cache.size(), "Expected size limit to evict the older entry");
+        assertNull(cache.get("Factorial", 1));
+
+        cache.put("Factorial", 3, BigInteger.ONE.shiftLeft(200));
+        assertNull(cache.get("Factorial", 3), "Expected oversized result not to be cached");
+    }
+
+    @Test
+    void factorialResumesFromCachedPrefix() throws Exception {
+        ResultCache cache = new ResultCache(8, 1 << 20);
+
+        FactorialTask first = new FactorialTask();
+        first.setCreator("testUser");
+        first.setFactorialBase(10);
+        first.setResultCache(cache);
+        first.runTask();
+
+        FactorialTask second = new FactorialTask();
+        second.setCreator("testUser");
+        second.setFactorialBase(12);
+        second.setResultCache(cache);
+        second.runTask();
+
+        assertEquals("479001600", second.getResults());
+        assertEquals(1, cache.getPartialHitCount(), "Expected 12! to resume from cached 10!");
+    }
+
+    @Test
+    void fibonacciReusesCachedResult() throws Exception {
+        ResultCache cache = new ResultCache(8, 1 << 20);
+
+        for (int i = 0; i < 2; ++i) {
+            FibonacciTask t = new FibonacciTask();
+            t.setCreator("testUser");
+            t.setFibonacciIndex(90);
+            t.setResultCache(cache);
+            t.runTask();
+
+            assertEquals("2880067194370816120", t.getResults());
+        }
+
+        assertEquals(1, cache.getHitCount(), "Expected second task to hit the cache");
+    }
+}
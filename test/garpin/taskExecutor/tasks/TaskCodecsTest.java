@@ -0,0 +1,170 @@
+package garpin.taskExecutor.tasks;
+
+import garpin.taskExecutor.controllers.Task;
+import garpin.taskExecutor.controllers.TaskCodecRegistry;
+import garpin.taskExecutor.controllers.TaskRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidParameterException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCodecsTest {
+
+    private final TaskCodecRegistry registry = TaskCodecs.createRegistry();
+
+    @Test
+    void roundTrip() throws Exception {
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("us\u00e9r");
+        task.setFibonacciIndex(42);
+        task.setPriority(Task.TaskPriority.HIGH);
+        task.setDeadline(1234567890123L);
+        task.runTask();
+        task.setState(Task.TaskState.COMPLETED);
+
+        byte encoded[] = registry.encode(task);
+        assertEquals(registry.getEncodedSize(task), encoded.length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        FibonacciTask decoded = (FibonacciTask) registry.decode(buffer);
+
+        assertFalse(buffer.hasRemaining(), "Expected decode to consume the record");
+        assertEquals(42, decoded.getFibonacciIndex());
+        assertEquals("us\u00e9r", decoded.getCreator());
+        assertEquals(Task.TaskPriority.HIGH, decoded.getPriority());
+        assertEquals(1234567890123L, decoded.getDeadline());
+        assertEquals(Task.TaskState.COMPLETED, decoded.getState());
+        assertEquals(task.getResults(), decoded.getResults());
+    }
+
+    @Test
+    void integerResultsAreEncodedWithoutRendering() throws Exception {
+        FactorialTask task = new FactorialTask();
+        task.setCreator("admin");
+        task.setFactorialBase(3000);
+        task.runTask();
+        task.setState(Task.TaskState.COMPLETED);
+
+        byte encoded[] = registry.encode(task);
+        assertFalse(task.getResult().isRendered(), "Expected encoding not to render the result");
+
+        Task decoded = registry.decode(ByteBuffer.wrap(encoded));
+        assertFalse(decoded.getResult().isRendered(), "Expected the decoded result to render on demand");
+        assertEquals(task.getResults(), decoded.getResults());
+        assertEquals(task.getResults(), registry.view(ByteBuffer.wrap(encoded)).getResults());
+        assertTrue(encoded.length < task.getResults().length(), "Expected binary results to be smaller than decimal");
+    }
+
+    @Test
+    void decodeRequestIgnoresOutcome() throws Exception {
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("admin");
+        task.setFibonacciIndex(42);
+        task.setPriority(Task.TaskPriority.HIGH);
+        task.setDeadline(1234567890123L);
+        task.runTask();
+        task.setState(Task.TaskState.COMPLETED);
+
+        ByteBuffer buffer = ByteBuffer.wrap(registry.encode(task));
+        FibonacciTask decoded = (FibonacciTask) registry.decodeRequest(buffer);
+
+        assertFalse(buffer.hasRemaining(), "Expected decode to consume the record");
+        assertEquals(42, decoded.getFibonacciIndex());
+        assertEquals(Task.TaskPriority.HIGH, decoded.getPriority());
+        assertEquals(1234567890123L, decoded.getDeadline());
+        assertEquals(Task.TaskState.PENDING, decoded.getState());
+        assertNotEquals(task.getResults(), decoded.getResults());
+        assertNotEquals("admin", decoded.getCreator());
+    }
+
+    @Test
+    void viewReadsInPlace() throws Exception {
+        FactorialTask task = new FactorialTask();
+        task.setCreator("admin");
+        task.setFactorialBase(7);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2 * registry.getEncodedSize(task));
+        registry.encode(task, buffer);
+        registry.encode(task, buffer);
+        buffer.flip();
+
+        TaskRecord record = registry.view(buffer);
+        assertEquals(0, buffer.position(), "Expected view to leave the position unchanged");
+        assertEquals(TaskCodecs.TYPE_FACTORIAL, record.getTypeTag());
+        assertEquals("admin", record.getCreator());
+        assertEquals(Task.TaskState.PENDING, record.getState());
+        assertEquals(0, record.getDeadline());
+        assertEquals(7, record.getArguments().getInt());
+
+        buffer.position(record.getEncodedSize());
+        assertEquals(7, ((FactorialTask) registry.decode(buffer)).getFactorialBase());
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTypes() throws Exception {
+        byte encoded[] = registry.encode(new FibonacciTask());
+
+        encoded[0] = TaskCodecRegistry.FORMAT_VERSION + 1;
+        assertThrows(InvalidParameterException.class, () -> registry.decode(ByteBuffer.wrap(encoded)));
+
+        assertThrows(InvalidParameterException.class, () -> new TaskCodecRegistry().encode(new FibonacciTask()));
+        byte factorial[] = registry.encode(new FactorialTask());
+        assertThrows(InvalidParameterException.class, () -> new TaskCodecRegistry().decode(ByteBuffer.wrap(factorial)));
+    }
+
+    @Test
+    void rejectsMalformedRecords() throws Exception {
+        FibonacciTask task = new FibonacciTask();
+        task.setCreator("user");
+        task.setFibonacciIndex(10);
+        byte valid[] = registry.encode(task);
+
+        // Layout: version, type tag (1 byte here), state, priority, flags, creator length, ...
+        byte badState[] = valid.clone();
+        badState[2] = (byte) Task.TaskState.values().length;
+        assertMalformed(badState, "invalid state");
+
+        byte badPriority[] = valid.clone();
+        badPriority[3] = -1;
+        assertMalformed(badPriority, "invalid priority");
+
+        byte badFlags[] = valid.clone();
+        badFlags[4] = 4;
+        assertMalformed(badFlags, "unknown flags");
+
+        // The task has not run, so its results are empty and cannot be an integer
+        byte badResults[] = valid.clone();
+        badResults[4] = 2;
+        assertMalformed(badResults, "empty integer results");
+
+        byte badCreator[] = valid.clone();
+        badCreator[5] = 100;
+        assertMalformed(badCreator, "truncated creator");
+
+        // A well-formed header whose arguments are too short for the task type
+        byte shortArguments[] = new byte[valid.length - 2];
+        System.arraycopy(valid, 0, shortArguments, 0, shortArguments.length);
+        shortArguments[valid.length - 5] = 2;
+        InvalidParameterException shortEx = assertThrows(InvalidParameterException.class,
+                () -> registry.decode(ByteBuffer.wrap(shortArguments)));
+        assertTrue(shortEx.getMessage().startsWith("Corrupt task record: 2 bytes for Fibonacci index"),
+                shortEx.getMessage());
+        assertThrows(InvalidParameterException.class, () -> registry.decodeRequest(ByteBuffer.wrap(shortArguments)));
+
+        for (int length = 0; length < valid.length; ++length) {
+            byte truncated[] = new byte[length];
+            System.arraycopy(valid, 0, truncated, 0, length);
+
+            assertThrows(InvalidParameterException.class, () -> registry.decode(ByteBuffer.wrap(truncated)),
+                    "Expected record truncated to " + length + " bytes to be rejected");
+        }
+    }
+
+    private void assertMalformed(byte encoded[], String message) {
+        InvalidParameterException ex = assertThrows(InvalidParameterException.class,
+                () -> registry.view(ByteBuffer.wrap(encoded)));
+        assertTrue(ex.getMessage().startsWith("Corrupt task record: " + message), ex.getMessage());
+    }
+}
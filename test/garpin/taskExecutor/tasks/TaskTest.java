@@ -3,6 +3,13 @@ package garpin.taskExecutor.tasks;
 import garpin.taskExecutor.controllers.Task;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 abstract class TaskTest {
@@ -31,6 +38,144 @@ abstract class TaskTest {
         assertEquals(testUser, t.getCreator(), "Unexpected user assigned to task");
     }
 
+    @Test
+    void setPriority() {
+        Task t = createTestTaskInstance();
+        assertEquals(Task.TaskPriority.NORMAL, t.getPriority(), "Expected NORMAL default priority");
+
+        t.setPriority(Task.TaskPriority.HIGH);
+        assertEquals(Task.TaskPriority.HIGH, t.getPriority(), "Unexpected priority assigned to task");
+
+        t.setPriority(null);
+        assertEquals(Task.TaskPriority.NORMAL, t.getPriority(), "Expected null priority to reset to NORMAL");
+    }
+
+    @Test
+    void stateListenersNotified() {
+        Task t = createTestTaskInstance();
+        List<String> transitions = new ArrayList<>();
+
+        t.addStateListener((task, previous, next, sequence) ->
+                transitions.add(sequence + ":" + previous + "->" + next));
+        t.addStateListener((task, previous, next, sequence) -> {
+            throw new IllegalStateException("Listener failures must be ignored");
+        });
+
+        t.setState(Task.TaskState.RUNNING);
+        t.setState(Task.TaskState.RUNNING);
+        t.setState(Task.TaskState.COMPLETED);
+
+        assertEquals(2, transitions.size(), "Expected only actual transitions to be reported");
+        assertEquals("1:PENDING->RUNNING", transitions.get(0));
+        assertEquals("2:RUNNING->COMPLETED", transitions.get(1));
+    }
+
+    @Test
+    void stateListenersSeeTransitionsInOrder() throws Exception {
+        Task t = createTestTaskInstance();
+        List<String> transitions = new CopyOnWriteArrayList<>();
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        t.addStateListener((task, previous, next, sequence) -> {
+            transitions.add(previous + "->" + next);
+
+            if (next == Task.TaskState.RUNNING) {
+                delivering.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        Thread worker = new Thread(() -> t.setState(Task.TaskState.RUNNING));
+        worker.start();
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+        // Made while the earlier transition is still being delivered, so it must wait its turn
+        t.setState(Task.TaskState.COMPLETED);
+        assertEquals(1, transitions.size(), "Expected later transition not to overtake the earlier one");
+
+        release.countDown();
+        worker.join(5000);
+
+        assertEquals(2, transitions.size());
+        assertEquals("PENDING->RUNNING", transitions.get(0));
+        assertEquals("RUNNING->COMPLETED", transitions.get(1));
+    }
+
+    @Test
+    void completionHandle() {
+        Task t = createTestTaskInstance();
+        CompletableFuture<Task> completion = t.getCompletion();
+
+        t.setState(Task.TaskState.RUNNING);
+        assertFalse(completion.isDone(), "Expected handle to be incomplete while running");
+
+        t.setState(Task.TaskState.ERROR);
+        assertSame(t, completion.getNow(null), "Expected handle to complete with the task");
+
+        assertTrue(t.getCompletion().isDone(), "Expected handle of finished task to be complete");
+    }
+
+    @Test
+    void requestCancel() {
+        Task pending = createTestTaskInstance();
+        assertTrue(pending.requestCancel(), "Expected pending task to be cancellable");
+        assertEquals(Task.TaskState.CANCELLED, pending.getState(), "Expected pending task to be cancelled at once");
+
+        pending.startTask();
+        assertEquals(Task.TaskState.CANCELLED, pending.getState(), "Expected cancelled task not to run");
+
+        Task running = createTestTaskInstance();
+        running.setState(Task.TaskState.RUNNING);
+        assertTrue(running.requestCancel(), "Expected running task to be cancellable");
+        assertEquals(Task.TaskState.CANCELLING, running.getState(), "Expected running task to be asked to stop");
+
+        Task finished = createTestTaskInstance();
+        finished.setState(Task.TaskState.COMPLETED);
+        assertFalse(finished.requestCancel(), "Expected nothing to cancel for finished task");
+        assertEquals(Task.TaskState.COMPLETED, finished.getState());
+    }
+
+    @Test
+    void startTaskRunsOnlyPendingTasks() {
+        Task running = createTestTaskInstance();
+        running.setState(Task.TaskState.RUNNING);
+
+        running.startTask();
+        assertEquals(Task.TaskState.RUNNING, running.getState(), "Expected task already running not to run again");
+        assertEquals("", running.getResults());
+
+        Task cancelling = createTestTaskInstance();
+        cancelling.setState(Task.TaskState.CANCELLING);
+
+        cancelling.startTask();
+        assertEquals(Task.TaskState.CANCELLED, cancelling.getState(), "Expected cancelling task to be finalized");
+
+        Task failed = createTestTaskInstance();
+        failed.setState(Task.TaskState.ERROR);
+
+        failed.startTask();
+        assertEquals(Task.TaskState.ERROR, failed.getState(), "Expected finished task not to run again");
+    }
+
+    @Test
+    void progress() {
+        Task t = createTestTaskInstance();
+        assertEquals(0, t.getProgress());
+        assertNull(t.getPartialResult());
+
+        t.setState(Task.TaskState.RUNNING);
+        assertTrue(t.toString().contains("Progress: 0%\n"), "Expected running task to show progress");
+
+        t.setState(Task.TaskState.COMPLETED);
+        assertEquals(1, t.getProgress());
+        assertFalse(t.toString().contains("Progress:"), "Expected finished task not to show progress");
+    }
+
     protected static void assertValidationFails(Task task, String failureMessage) {
         try {
             task.validateTask();